@@ -0,0 +1,15 @@
+-- Adds the account balance snapshots that historical balance queries start from. Balances are bigint currency
+-- minor units, as the accounts are once migrate-money-minor-units.sql has run.
+-- Run once, before starting the version that maps it.
+begin;
+
+create table if not exists account_balance_snapshots (
+    id bigint not null primary key,
+    account_id bigint not null references user_accounts (id),
+    taken_at timestamp with time zone not null,
+    balance bigint not null default 0,
+    created_at timestamp with time zone,
+    constraint uk_account_balance_snapshot_taken_at unique (account_id, taken_at)
+);
+
+commit;
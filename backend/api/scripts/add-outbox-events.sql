@@ -0,0 +1,12 @@
+-- Adds the outbox that balance events are written to, in the transaction of the change, and relayed from.
+-- Run once, before starting the version that maps it.
+begin;
+
+create table if not exists outbox_events (
+    id bigint not null primary key,
+    event_key varchar(255) not null,
+    payload varchar(255) not null,
+    created_at timestamp with time zone
+);
+
+commit;
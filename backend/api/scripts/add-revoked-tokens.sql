@@ -0,0 +1,14 @@
+-- Adds the revoked token ids checked behind the revocation filter, purged once they expire.
+-- Run once, before starting the version that maps it.
+begin;
+
+create table if not exists revoked_tokens (
+    id bigint not null primary key,
+    token_id varchar(64) not null unique,
+    expires_at timestamp with time zone not null,
+    created_at timestamp with time zone
+);
+
+create index if not exists idx_revoked_token_expires_at on revoked_tokens (expires_at);
+
+commit;
@@ -0,0 +1,15 @@
+-- Adds the flag that marks transactions already summed into the account balance, replacing the
+-- balance_updated_at window. Run once, with the balance consumers stopped, before starting the version that maps it.
+begin;
+
+alter table user_transactions add column if not exists balance_applied boolean not null default false;
+
+-- rows inside the last balance window are in the balance already
+update user_transactions t set balance_applied = true
+from user_accounts a
+where a.id = t.account_id and t.status = 'CONFIRMED' and t.confirmed_at <= a.balance_updated_at;
+
+create index if not exists idx_user_transactions_account_status_applied
+    on user_transactions (account_id, status, balance_applied);
+
+commit;
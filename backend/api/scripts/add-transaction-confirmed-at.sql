@@ -0,0 +1,13 @@
+-- Adds the confirmation date time that account balance windows are computed on.
+-- Run once, before starting the version that maps it.
+begin;
+
+alter table user_transactions add column if not exists confirmed_at timestamp with time zone;
+
+-- best known value for rows confirmed before the column existed
+update user_transactions set confirmed_at = created_at where status = 'CONFIRMED' and confirmed_at is null;
+
+create index if not exists idx_user_transactions_account_status_confirmed_at
+    on user_transactions (account_id, status, confirmed_at);
+
+commit;
@@ -0,0 +1,10 @@
+-- Adds the statement transaction id, such as the OFX FITID, unique per account so re-imported statements skip
+-- rows already imported. Existing rows have none. The unique index builds outside a transaction, so the table
+-- stays writable, and then backs the constraint.
+alter table user_transactions add column if not exists external_id varchar(255);
+
+create unique index concurrently if not exists uk_user_transaction_account_external_id
+    on user_transactions (account_id, external_id);
+
+alter table user_transactions add constraint uk_user_transaction_account_external_id
+    unique using index uk_user_transaction_account_external_id;
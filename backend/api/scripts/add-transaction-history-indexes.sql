@@ -0,0 +1,7 @@
+-- Adds the indexes behind keyset paged transaction history, newest first by (created_at, id).
+-- Runs outside a transaction, so the table stays writable while they build.
+create index concurrently if not exists idx_user_transactions_user_created_at_id
+    on user_transactions (user_id, created_at, id);
+
+create index concurrently if not exists idx_user_transactions_account_created_at_id
+    on user_transactions (account_id, created_at, id);
@@ -0,0 +1,10 @@
+-- Moves user transaction ids to their own pooled sequence, so batched inserts allocate 50 ids per call.
+-- Hibernate pooled ids end at the sequence value, so it starts one allocation above the current max.
+-- Run once, before starting the version that maps it.
+begin;
+
+create sequence if not exists user_transactions_seq increment by 50;
+
+select setval('user_transactions_seq', coalesce((select max(id) from user_transactions), 0) + 50, false);
+
+commit;
@@ -0,0 +1,12 @@
+-- Adds the indexes behind transaction notes search: full text on a 'simple' tsvector and trigram similarity,
+-- both led by user_id (btree_gin) so a search only visits the caller rows.
+-- Extensions need a role allowed to create them. The indexes run outside a transaction, so the table stays writable.
+create extension if not exists pg_trgm;
+
+create extension if not exists btree_gin;
+
+create index concurrently if not exists idx_user_transactions_user_notes_fts
+    on user_transactions using gin (user_id, to_tsvector('simple', notes));
+
+create index concurrently if not exists idx_user_transactions_user_notes_trgm
+    on user_transactions using gin (user_id, notes gin_trgm_ops);
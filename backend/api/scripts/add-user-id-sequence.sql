@@ -0,0 +1,10 @@
+-- Moves user ids to their own pooled sequence, so batched inserts allocate 50 ids per call.
+-- Hibernate pooled ids end at the sequence value, so it starts one allocation above the current max.
+-- Run once, before starting the version that maps it.
+begin;
+
+create sequence if not exists users_seq increment by 50;
+
+select setval('users_seq', coalesce((select max(id) from users), 0) + 50, false);
+
+commit;
@@ -0,0 +1,7 @@
+-- Adds the per-user token version that claims tokens carry and the refresh endpoint checks.
+-- Existing users start at version 0. Run once, before starting the version that maps it.
+begin;
+
+alter table users add column if not exists token_version integer not null default 0;
+
+commit;
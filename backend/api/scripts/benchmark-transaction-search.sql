@@ -0,0 +1,78 @@
+-- Benchmarks transaction notes search on a seeded table. Run with psql against a scratch database that
+-- has the schema and scripts/add-transaction-notes-search.sql applied:
+--   psql -v rows=5000000 -f scripts/benchmark-transaction-search.sql
+-- Compare the plans with and without the GIN indexes (bitmap scans off forces the sequential plan).
+\set ON_ERROR_STOP on
+\timing on
+
+-- 100 users share the rows, the searching user owns 1% of them
+insert into users (id, name, email, password, salt, token_version)
+select 900000000 + u, 'bench ' || u, 'bench-search-' || u || '@expenses.local', 'x', 'x', 0
+from generate_series(1, 100) as u;
+
+insert into user_accounts (id, user_id, name, account_type, currency, balance, balance_updated_at)
+select 900000000 + u, 900000000 + u, 'bench', 'MONEY', 'USD', 0, now()
+from generate_series(1, 100) as u;
+
+-- notes words come from a small vocabulary so matches are spread like real statements
+insert into user_transactions (id, user_id, account_id, amount, notes, status, creation_way, created_at)
+select nextval('user_transactions_seq'),
+       900000001 + n % 100,
+       900000001 + n % 100,
+       (n % 20000) - 10000,
+       (array ['grocery', 'coffee', 'rent', 'fuel', 'pharmacy', 'cinema', 'salary', 'refund'])[1 + n / 100 % 8]
+           || ' ' || (array ['downtown', 'market', 'online', 'airport', 'station'])[1 + n / 100 % 7 % 5]
+           || ' #' || (n / 100 % 9973),
+       'CONFIRMED',
+       'IMPORTED',
+       now() - (n || ' seconds')::interval
+from generate_series(1, :rows) as n;
+
+analyze user_transactions;
+
+-- full text match
+explain (analyze, buffers)
+select id, greatest(ts_rank(to_tsvector('simple', notes), plainto_tsquery('simple', 'coffee market')),
+                    word_similarity('coffee market', notes)) as rank
+from user_transactions
+where user_id = 900000001
+  and (to_tsvector('simple', notes) @@ plainto_tsquery('simple', 'coffee market') or 'coffee market' <% notes)
+order by rank desc, id desc
+limit 21;
+
+-- fuzzy match with a typo
+explain (analyze, buffers)
+select id, greatest(ts_rank(to_tsvector('simple', notes), plainto_tsquery('simple', 'farmacy')),
+                    word_similarity('farmacy', notes)) as rank
+from user_transactions
+where user_id = 900000001
+  and (to_tsvector('simple', notes) @@ plainto_tsquery('simple', 'farmacy') or 'farmacy' <% notes)
+order by rank desc, id desc
+limit 21;
+
+-- same queries without the indexes
+set enable_bitmapscan = off;
+
+explain (analyze, buffers)
+select id, greatest(ts_rank(to_tsvector('simple', notes), plainto_tsquery('simple', 'coffee market')),
+                    word_similarity('coffee market', notes)) as rank
+from user_transactions
+where user_id = 900000001
+  and (to_tsvector('simple', notes) @@ plainto_tsquery('simple', 'coffee market') or 'coffee market' <% notes)
+order by rank desc, id desc
+limit 21;
+
+explain (analyze, buffers)
+select id, greatest(ts_rank(to_tsvector('simple', notes), plainto_tsquery('simple', 'farmacy')),
+                    word_similarity('farmacy', notes)) as rank
+from user_transactions
+where user_id = 900000001
+  and (to_tsvector('simple', notes) @@ plainto_tsquery('simple', 'farmacy') or 'farmacy' <% notes)
+order by rank desc, id desc
+limit 21;
+
+reset enable_bitmapscan;
+
+delete from user_transactions where user_id between 900000001 and 900000100;
+delete from user_accounts where user_id between 900000001 and 900000100;
+delete from users where id between 900000001 and 900000100;
@@ -0,0 +1,32 @@
+-- Converts money columns from 2 decimal numbers to bigint currency minor units.
+-- account_balance_snapshots is created in minor units already, see add-account-balance-snapshots.sql.
+-- Run once, before starting the version that maps them as long.
+begin;
+
+create or replace function pg_temp.minor_unit_factor(currency varchar) returns numeric as $$
+    select case upper(currency)
+        when 'BIF' then 1 when 'CLP' then 1 when 'DJF' then 1 when 'GNF' then 1 when 'ISK' then 1
+        when 'JPY' then 1 when 'KMF' then 1 when 'KRW' then 1 when 'PYG' then 1 when 'RWF' then 1
+        when 'UGX' then 1 when 'UYI' then 1 when 'VND' then 1 when 'VUV' then 1 when 'XAF' then 1
+        when 'XOF' then 1 when 'XPF' then 1
+        when 'BHD' then 1000 when 'IQD' then 1000 when 'JOD' then 1000 when 'KWD' then 1000
+        when 'LYD' then 1000 when 'OMR' then 1000 when 'TND' then 1000
+        else 100
+    end
+$$ language sql immutable;
+
+update user_accounts set currency = lower(trim(currency));
+
+alter table user_accounts
+    alter column balance type bigint using round(balance::numeric * pg_temp.minor_unit_factor(currency));
+
+alter table user_transactions add column amount_minor bigint;
+update user_transactions t
+set amount_minor = round(t.amount::numeric * pg_temp.minor_unit_factor(a.currency))
+from user_accounts a
+where a.id = t.account_id;
+alter table user_transactions drop column amount;
+alter table user_transactions rename column amount_minor to amount;
+alter table user_transactions alter column amount set not null;
+
+commit;
@@ -0,0 +1,86 @@
+package com.h4j4x.expenses.api.domain;
+
+import java.time.OffsetDateTime;
+import java.util.Objects;
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Sum of the account transactions applied to the balance and confirmed up to {@code takenAt}, inclusive. Applying
+ * a transaction confirmed before {@code takenAt} adds its amount to the balance.
+ */
+@Entity
+@Table(name = "account_balance_snapshots", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_account_balance_snapshot_taken_at", columnNames = {"account_id", "taken_at"}),
+})
+public class AccountBalanceSnapshot {
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    @NotNull(message = "Snapshot account is required")
+    @ManyToOne(optional = false)
+    @JoinColumn(name = "account_id", referencedColumnName = "id", nullable = false, updatable = false)
+    private UserAccount account;
+
+    @NotNull(message = "Snapshot taken at is required")
+    @Column(name = "taken_at", nullable = false, updatable = false)
+    private OffsetDateTime takenAt;
+
+    // account currency minor units
+    @Column(nullable = false)
+    private long balance = 0L;
+
+    @NotNull(message = "Snapshot created at is required")
+    @Column(name = "created_at")
+    private OffsetDateTime createdAt;
+
+    public AccountBalanceSnapshot() {
+        createdAt = OffsetDateTime.now();
+    }
+
+    public AccountBalanceSnapshot(UserAccount account, OffsetDateTime takenAt, long balance) {
+        this();
+        this.account = account;
+        this.takenAt = takenAt;
+        this.balance = balance;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public UserAccount getAccount() {
+        return account;
+    }
+
+    public OffsetDateTime getTakenAt() {
+        return takenAt;
+    }
+
+    public long getBalance() {
+        return balance;
+    }
+
+    public OffsetDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        AccountBalanceSnapshot that = (AccountBalanceSnapshot) o;
+        if (Objects.equals(id, that.id)) return true;
+        return account.equals(that.account) && takenAt.isEqual(that.takenAt);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, takenAt);
+    }
+}
@@ -0,0 +1,71 @@
+package com.h4j4x.expenses.api.domain;
+
+import java.time.OffsetDateTime;
+import java.util.Objects;
+import javax.persistence.*;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+
+@Entity
+@Table(name = "outbox_events")
+public class OutboxEvent {
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    @NotBlank(message = "Outbox event key may not be blank")
+    @Column(name = "event_key", nullable = false, updatable = false)
+    private String eventKey;
+
+    @NotBlank(message = "Outbox event payload may not be blank")
+    @Column(nullable = false, updatable = false)
+    private String payload;
+
+    @NotNull(message = "Outbox event created at is required")
+    @Column(name = "created_at")
+    private OffsetDateTime createdAt;
+
+    public OutboxEvent() {
+        createdAt = OffsetDateTime.now();
+    }
+
+    public OutboxEvent(String eventKey, String payload) {
+        this();
+        this.eventKey = eventKey;
+        this.payload = payload;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getEventKey() {
+        return eventKey;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public OffsetDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        OutboxEvent that = (OutboxEvent) o;
+        if (Objects.equals(id, that.id)) return true;
+        return eventKey.equals(that.eventKey) && payload.equals(that.payload);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, eventKey, payload);
+    }
+}
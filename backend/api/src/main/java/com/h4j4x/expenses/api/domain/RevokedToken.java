@@ -0,0 +1,81 @@
+package com.h4j4x.expenses.api.domain;
+
+import java.time.OffsetDateTime;
+import java.util.Objects;
+import javax.persistence.*;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+
+@Entity
+@Table(name = "revoked_tokens", indexes = {
+    @Index(name = "idx_revoked_token_expires_at", columnList = "expires_at"),
+})
+public class RevokedToken {
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    @NotBlank(message = "Revoked token id may not be blank")
+    @Column(name = "token_id", nullable = false, unique = true, length = 64)
+    private String tokenId;
+
+    @NotNull(message = "Revoked token expires at is required")
+    @Column(name = "expires_at", nullable = false)
+    private OffsetDateTime expiresAt;
+
+    @NotNull(message = "Revoked token created at is required")
+    @Column(name = "created_at")
+    private OffsetDateTime createdAt;
+
+    public RevokedToken() {
+        createdAt = OffsetDateTime.now();
+    }
+
+    public RevokedToken(String tokenId, OffsetDateTime expiresAt) {
+        this();
+        this.tokenId = tokenId;
+        this.expiresAt = expiresAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public void setTokenId(String tokenId) {
+        this.tokenId = tokenId;
+    }
+
+    public OffsetDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(OffsetDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public OffsetDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RevokedToken that = (RevokedToken) o;
+        if (Objects.equals(id, that.id)) return true;
+        return tokenId.equals(that.tokenId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, tokenId);
+    }
+}
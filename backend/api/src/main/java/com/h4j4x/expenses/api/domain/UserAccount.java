@@ -1,6 +1,7 @@
 package com.h4j4x.expenses.api.domain;
 
 import com.h4j4x.expenses.api.model.AccountType;
+import com.h4j4x.expenses.common.money.Money;
 import com.h4j4x.expenses.common.util.KeyHandler;
 import java.time.OffsetDateTime;
 import java.util.Objects;
@@ -40,8 +41,9 @@ public class UserAccount {
     @Column(nullable = false)
     private String currency;
 
-    @Column(nullable = false, precision = 7, scale = 2)
-    private double balance = .0;
+    // currency minor units
+    @Column(nullable = false)
+    private long balance = 0L;
 
     @NotNull(message = "Account balance updated at is required")
     @Column(name = "balance_updated_at")
@@ -66,7 +68,7 @@ public class UserAccount {
         this.user = user;
     }
 
-    public UserAccount(UserEntity user, String name, double balance) {
+    public UserAccount(UserEntity user, String name, long balance) {
         this(user, name);
         this.balance = balance;
     }
@@ -74,7 +76,11 @@ public class UserAccount {
     public UserAccount(UserEntity user, String name, AccountType accountType, String currency) {
         this(user, name);
         this.accountType = accountType;
-        this.currency = currency;
+        setCurrency(currency);
+    }
+
+    public static String createKey(Long userId, Long accountId) {
+        return new KeyHandler(KEY).createKey(userId, accountId);
     }
 
     public static Long parseUserId(String key) {
@@ -114,17 +120,21 @@ public class UserAccount {
     }
 
     public void setCurrency(String currency) {
-        this.currency = currency;
+        this.currency = currency != null ? Money.currencyCode(currency) : null;
     }
 
-    public double getBalance() {
+    public long getBalance() {
         return balance;
     }
 
-    public void setBalance(double balance) {
+    public void setBalance(long balance) {
         this.balance = balance;
     }
 
+    public Money getBalanceMoney() {
+        return Money.of(balance, currency);
+    }
+
     public AccountType getAccountType() {
         return accountType;
     }
@@ -161,7 +171,7 @@ public class UserAccount {
 
     public String getKey() {
         if (user != null && id != null) {
-            return new KeyHandler(KEY).createKey(user.getId(), id);
+            return createKey(user.getId(), id);
         }
         return null;
     }
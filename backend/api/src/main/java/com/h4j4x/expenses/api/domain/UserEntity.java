@@ -12,8 +12,10 @@ import javax.validation.constraints.Size;
 @Entity
 @Table(name = "users")
 public class UserEntity implements Principal {
+    // pooled, so batched inserts do not fetch the sequence once per row
     @Id
-    @GeneratedValue
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
     private Long id;
 
     @NotBlank(message = "User name may not be blank")
@@ -32,6 +34,9 @@ public class UserEntity implements Principal {
     @Column(length = 100)
     private String salt;
 
+    @Column(name = "token_version", nullable = false)
+    private int tokenVersion;
+
     @NotNull(message = "User created at is required")
     @Column(name = "created_at")
     private OffsetDateTime createdAt;
@@ -88,6 +93,18 @@ public class UserEntity implements Principal {
         this.salt = salt;
     }
 
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
+
+    public void setTokenVersion(int tokenVersion) {
+        this.tokenVersion = tokenVersion;
+    }
+
+    public void increaseTokenVersion() {
+        tokenVersion++;
+    }
+
     public OffsetDateTime getCreatedAt() {
         return createdAt;
     }
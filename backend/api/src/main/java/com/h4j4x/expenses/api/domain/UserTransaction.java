@@ -10,15 +10,24 @@ import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 
 @Entity
-@Table(name = "user_transactions", indexes = {
+@Table(name = "user_transactions", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_user_transaction_account_external_id", columnNames = {"account_id", "external_id"}),
+}, indexes = {
     @Index(name = "idx_user_transactions_created_at", columnList = "created_at"),
     @Index(name = "idx_user_transactions_status", columnList = "status"),
+    @Index(name = "idx_user_transactions_account_status_created_at", columnList = "account_id, status, created_at"),
+    @Index(name = "idx_user_transactions_account_status_confirmed_at", columnList = "account_id, status, confirmed_at"),
+    @Index(name = "idx_user_transactions_account_status_applied", columnList = "account_id, status, balance_applied"),
+    @Index(name = "idx_user_transactions_user_created_at_id", columnList = "user_id, created_at, id"),
+    @Index(name = "idx_user_transactions_account_created_at_id", columnList = "account_id, created_at, id"),
 })
 public class UserTransaction {
     private static final String KEY = "-UT-";
 
+    // pooled, so batched inserts do not fetch the sequence once per row
     @Id
-    @GeneratedValue
+    @SequenceGenerator(name = "user_transactions_seq", sequenceName = "user_transactions_seq", allocationSize = 50)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_transactions_seq")
     private Long id;
 
     @NotNull(message = "Transaction user is required")
@@ -35,8 +44,9 @@ public class UserTransaction {
     @JoinColumn(name = "category_id", referencedColumnName = "id")
     private UserCategory category;
 
-    @Column(nullable = false, precision = 7, scale = 2, updatable = false)
-    private double amount = .0;
+    // account currency minor units
+    @Column(nullable = false, updatable = false)
+    private long amount = 0L;
 
     @NotBlank(message = "Transaction notes are required")
     @Column(nullable = false, updatable = false)
@@ -56,6 +66,18 @@ public class UserTransaction {
     @Column(name = "created_at")
     private OffsetDateTime createdAt;
 
+    // when the amount started to count in the account balance
+    @Column(name = "confirmed_at")
+    private OffsetDateTime confirmedAt;
+
+    // set once the amount is in the account balance, under the account lock
+    @Column(name = "balance_applied", nullable = false)
+    private boolean balanceApplied = false;
+
+    // statement transaction id, such as the OFX FITID, so re-imports skip rows already imported
+    @Column(name = "external_id", updatable = false)
+    private String externalId;
+
     public UserTransaction() {
         createdAt = OffsetDateTime.now();
     }
@@ -68,18 +90,22 @@ public class UserTransaction {
         }
     }
 
-    public UserTransaction(String notes, double amount) {
+    public UserTransaction(String notes, long amount) {
         this();
         this.notes = notes;
         this.amount = amount;
     }
 
-    public UserTransaction(UserAccount account, String notes, double amount) {
+    public UserTransaction(UserAccount account, String notes, long amount) {
         this(account);
         this.notes = notes;
         this.amount = amount;
     }
 
+    public static String createKey(Long accountId, Long transactionId) {
+        return new KeyHandler(KEY).createKey(accountId, transactionId);
+    }
+
     public static Long parseAccountId(String key) {
         return new KeyHandler(KEY).parsePrefix(key);
     }
@@ -123,11 +149,11 @@ public class UserTransaction {
         this.category = category;
     }
 
-    public double getAmount() {
+    public long getAmount() {
         return amount;
     }
 
-    public void setAmount(double amount) {
+    public void setAmount(long amount) {
         this.amount = amount;
     }
 
@@ -153,12 +179,43 @@ public class UserTransaction {
 
     public void setStatus(TransactionStatus status) {
         this.status = status;
+        if (status == TransactionStatus.CONFIRMED && confirmedAt == null) {
+            confirmedAt = OffsetDateTime.now();
+        }
     }
 
     public OffsetDateTime getCreatedAt() {
         return createdAt;
     }
 
+    public void setCreatedAt(OffsetDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public OffsetDateTime getConfirmedAt() {
+        return confirmedAt;
+    }
+
+    public void setConfirmedAt(OffsetDateTime confirmedAt) {
+        this.confirmedAt = confirmedAt;
+    }
+
+    public String getExternalId() {
+        return externalId;
+    }
+
+    public void setExternalId(String externalId) {
+        this.externalId = externalId;
+    }
+
+    public boolean isBalanceApplied() {
+        return balanceApplied;
+    }
+
+    public void setBalanceApplied(boolean balanceApplied) {
+        this.balanceApplied = balanceApplied;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -175,7 +232,7 @@ public class UserTransaction {
 
     public String getKey() {
         if (account != null && id != null) {
-            return new KeyHandler(KEY).createKey(account.getId(), id);
+            return createKey(account.getId(), id);
         }
         return null;
     }
@@ -3,7 +3,9 @@ package com.h4j4x.expenses.api.error;
 import io.quarkus.security.AuthenticationFailedException;
 import java.util.Map;
 import javax.ws.rs.BadRequestException;
+import javax.ws.rs.ForbiddenException;
 import javax.ws.rs.NotFoundException;
+import javax.ws.rs.ServiceUnavailableException;
 import javax.ws.rs.core.Response;
 import org.jboss.resteasy.reactive.RestResponse;
 import org.jboss.resteasy.reactive.server.ServerExceptionMapper;
@@ -19,11 +21,26 @@ public class ExceptionMapper {
         return RestResponse.status(Response.Status.BAD_REQUEST, response(e));
     }
 
+    @ServerExceptionMapper
+    public RestResponse<Map<String, Object>> mapForbiddenException(ForbiddenException e) {
+        return RestResponse.status(Response.Status.FORBIDDEN, response(e));
+    }
+
     @ServerExceptionMapper
     public RestResponse<Map<String, Object>> mapNotFoundException(NotFoundException e) {
         return RestResponse.status(Response.Status.NOT_FOUND, response(e));
     }
 
+    @ServerExceptionMapper
+    public RestResponse<Map<String, Object>> mapServiceUnavailableException(ServiceUnavailableException e) {
+        return RestResponse.status(Response.Status.SERVICE_UNAVAILABLE, response(e));
+    }
+
+    @ServerExceptionMapper
+    public RestResponse<Map<String, Object>> mapTooManyRequestsException(TooManyRequestsException e) {
+        return RestResponse.status(Response.Status.TOO_MANY_REQUESTS, response(e));
+    }
+
     private Map<String, Object> response(Exception e) {
         return Map.of(
             "message", e.getMessage()
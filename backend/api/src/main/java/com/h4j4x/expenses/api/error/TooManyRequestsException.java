@@ -0,0 +1,9 @@
+package com.h4j4x.expenses.api.error;
+
+public class TooManyRequestsException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public TooManyRequestsException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,4 @@
+package com.h4j4x.expenses.api.model;
+
+public record AccountBalanceDelta(Long accountId, Long amount, Long count) {
+}
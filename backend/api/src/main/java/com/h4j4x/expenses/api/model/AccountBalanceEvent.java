@@ -0,0 +1,43 @@
+package com.h4j4x.expenses.api.model;
+
+import com.h4j4x.expenses.common.util.NumberUtils;
+
+/**
+ * Balance change of an account, published keyed by account id so all events of an account share a partition.
+ * The payload is compact text: {@code accountId:transactionId:amount}, amount in currency minor units.
+ */
+public record AccountBalanceEvent(Long accountId, Long transactionId, Long amount) {
+    private static final String SEPARATOR = ":";
+
+    public String key() {
+        return accountId.toString();
+    }
+
+    /**
+     * @return event payload, with an empty transaction id when the event sums several transactions.
+     */
+    public String toPayload() {
+        return accountId + SEPARATOR + (transactionId != null ? transactionId : "") + SEPARATOR + amount;
+    }
+
+    /**
+     * Parses an event payload. Plain account id payloads, as published before events carried deltas, are accepted.
+     *
+     * @param payload event payload.
+     * @return parsed event or {@literal null} if the payload is invalid.
+     */
+    public static AccountBalanceEvent fromPayload(String payload) {
+        if (payload == null) {
+            return null;
+        }
+        var parts = payload.split(SEPARATOR);
+        var accountId = NumberUtils.parseLong(parts[0]);
+        if (accountId == null) {
+            return null;
+        }
+        if (parts.length != 3) {
+            return new AccountBalanceEvent(accountId, null, null);
+        }
+        return new AccountBalanceEvent(accountId, NumberUtils.parseLong(parts[1]), NumberUtils.parseLong(parts[2]));
+    }
+}
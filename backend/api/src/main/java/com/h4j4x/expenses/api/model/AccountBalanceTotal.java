@@ -0,0 +1,4 @@
+package com.h4j4x.expenses.api.model;
+
+public record AccountBalanceTotal(String currency, AccountType accountType, Long balance, Long count) {
+}
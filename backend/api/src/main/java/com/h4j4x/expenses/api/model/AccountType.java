@@ -2,5 +2,6 @@ package com.h4j4x.expenses.api.model;
 
 public enum AccountType {
     MONEY,
+    // negative balance while money is owed
     CREDIT,
 }
@@ -0,0 +1,7 @@
+package com.h4j4x.expenses.api.model;
+
+public record BalanceSum(Long amount, Long count) {
+    public static BalanceSum empty() {
+        return new BalanceSum(0L, 0L);
+    }
+}
@@ -0,0 +1,34 @@
+package com.h4j4x.expenses.api.model;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Net worth of a user in one currency, amounts in currency minor units. Balances are signed from the user side,
+ * money owed is negative, so the net worth is the sum of every balance. A negative {@link AccountType#CREDIT}
+ * balance counts as a positive liability, a credit balance in the user favor counts as an asset.
+ */
+public record CurrencyNetWorth(String currency, long assets, long liabilities, long accountsCount) {
+    public long netWorth() {
+        return Math.subtractExact(assets, liabilities);
+    }
+
+    public static List<CurrencyNetWorth> fromTotals(List<AccountBalanceTotal> totals) {
+        Map<String, CurrencyNetWorth> byCurrency = new TreeMap<>();
+        for (var total : totals) {
+            var balance = total.balance() != null ? total.balance() : 0L;
+            var owed = total.accountType() == AccountType.CREDIT && balance < 0L;
+            byCurrency.merge(total.currency(),
+                new CurrencyNetWorth(total.currency(), owed ? 0L : balance, owed ? Math.negateExact(balance) : 0L,
+                    total.count()),
+                CurrencyNetWorth::plus);
+        }
+        return List.copyOf(byCurrency.values());
+    }
+
+    private CurrencyNetWorth plus(CurrencyNetWorth other) {
+        return new CurrencyNetWorth(currency, Math.addExact(assets, other.assets),
+            Math.addExact(liabilities, other.liabilities), accountsCount + other.accountsCount);
+    }
+}
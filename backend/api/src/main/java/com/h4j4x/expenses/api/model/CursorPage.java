@@ -0,0 +1,17 @@
+package com.h4j4x.expenses.api.model;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Page of a keyset paged list.
+ *
+ * @param list       page items.
+ * @param nextCursor cursor of the next page, {@literal null} on the last page.
+ */
+public record CursorPage<TYPE>(List<TYPE> list, String nextCursor) {
+    public <TARGET> CursorPage<TARGET> map(Function<TYPE, TARGET> mapper) {
+        var targetList = list.stream().map(mapper).toList();
+        return new CursorPage<>(targetList, nextCursor);
+    }
+}
@@ -0,0 +1,72 @@
+package com.h4j4x.expenses.api.model;
+
+import com.h4j4x.expenses.common.money.Money;
+import java.math.BigDecimal;
+
+public class NetWorthDTO {
+    private String currency;
+
+    private BigDecimal assets;
+
+    private BigDecimal liabilities;
+
+    private BigDecimal netWorth;
+
+    private Long accountsCount;
+
+    public NetWorthDTO() {
+    }
+
+    public static NetWorthDTO fromNetWorth(CurrencyNetWorth netWorth) {
+        if (netWorth != null) {
+            var dto = new NetWorthDTO();
+            dto.setCurrency(netWorth.currency());
+            dto.setAssets(Money.of(netWorth.assets(), netWorth.currency()).toDecimal());
+            dto.setLiabilities(Money.of(netWorth.liabilities(), netWorth.currency()).toDecimal());
+            dto.setNetWorth(Money.of(netWorth.netWorth(), netWorth.currency()).toDecimal());
+            dto.setAccountsCount(netWorth.accountsCount());
+            return dto;
+        }
+        return null;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
+    public BigDecimal getAssets() {
+        return assets;
+    }
+
+    public void setAssets(BigDecimal assets) {
+        this.assets = assets;
+    }
+
+    public BigDecimal getLiabilities() {
+        return liabilities;
+    }
+
+    public void setLiabilities(BigDecimal liabilities) {
+        this.liabilities = liabilities;
+    }
+
+    public BigDecimal getNetWorth() {
+        return netWorth;
+    }
+
+    public void setNetWorth(BigDecimal netWorth) {
+        this.netWorth = netWorth;
+    }
+
+    public Long getAccountsCount() {
+        return accountsCount;
+    }
+
+    public void setAccountsCount(Long accountsCount) {
+        this.accountsCount = accountsCount;
+    }
+}
@@ -0,0 +1,19 @@
+package com.h4j4x.expenses.api.model;
+
+/**
+ * How a page gets its total count.
+ */
+public enum PageCountMode {
+    /**
+     * Exact total, counted in the page statement.
+     */
+    EXACT,
+    /**
+     * Exact on the last page, otherwise a lower bound from one extra row. Never counts.
+     */
+    ESTIMATE,
+    /**
+     * No total, reported as {@code -1}.
+     */
+    NONE,
+}
@@ -4,17 +4,25 @@ import java.util.Collections;
 import java.util.List;
 import java.util.function.Function;
 
-public record PageData<TYPE>(List<TYPE> list, int pageIndex, int pageSize, long totalCount) {
+public record PageData<TYPE>(List<TYPE> list, int pageIndex, int pageSize, long totalCount,
+                             PageCountMode countMode) {
+    public static final long UNKNOWN_COUNT = -1L;
+
     public static <TYPE> PageData<TYPE> empty() {
-        return new PageData<>(Collections.emptyList(), 0, 0, 0L);
+        return new PageData<>(Collections.emptyList(), 0, 0, 0L, PageCountMode.EXACT);
     }
 
     public static <TYPE> PageData<TYPE> create(List<TYPE> list, int pageIndex, int pageSize, long totalCount) {
-        return new PageData<>(list, pageIndex, pageSize, totalCount);
+        return new PageData<>(list, pageIndex, pageSize, totalCount, PageCountMode.EXACT);
+    }
+
+    public static <TYPE> PageData<TYPE> create(List<TYPE> list, int pageIndex, int pageSize, long totalCount,
+                                               PageCountMode countMode) {
+        return new PageData<>(list, pageIndex, pageSize, totalCount, countMode);
     }
 
     public <TARGET> PageData<TARGET> map(Function<TYPE, TARGET> mapper) {
         var targetList = list.stream().map(mapper).toList();
-        return new PageData<>(targetList, pageIndex, pageSize, totalCount);
+        return new PageData<>(targetList, pageIndex, pageSize, totalCount, countMode);
     }
 }
@@ -0,0 +1,8 @@
+package com.h4j4x.expenses.api.model;
+
+public enum ProvisioningStatus {
+    CREATED,
+    DUPLICATE,
+    INVALID,
+    FAILED,
+}
@@ -0,0 +1,35 @@
+package com.h4j4x.expenses.api.model;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+
+public enum SnapshotPeriod {
+    DAY,
+    MONTH,
+    ;
+
+    /**
+     * @param dateTime date time in the period.
+     * @return UTC start of the period containing the date time.
+     */
+    public OffsetDateTime start(OffsetDateTime dateTime) {
+        var start = dateTime.withOffsetSameInstant(ZoneOffset.UTC).truncatedTo(ChronoUnit.DAYS);
+        if (this == MONTH) {
+            return start.withDayOfMonth(1);
+        }
+        return start;
+    }
+
+    /**
+     * @param start period start.
+     * @return start of the following period.
+     */
+    public OffsetDateTime next(OffsetDateTime start) {
+        var utcStart = start.withOffsetSameInstant(ZoneOffset.UTC);
+        if (this == MONTH) {
+            return utcStart.plusMonths(1);
+        }
+        return utcStart.plusDays(1);
+    }
+}
@@ -3,4 +3,5 @@ package com.h4j4x.expenses.api.model;
 public enum TransactionCreationWay {
     MANUAL,
     SYSTEM,
+    IMPORTED,
 }
@@ -0,0 +1,60 @@
+package com.h4j4x.expenses.api.model;
+
+import com.h4j4x.expenses.api.domain.UserTransaction;
+import com.h4j4x.expenses.common.util.NumberUtils;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+
+/**
+ * Position of a transaction in the creation date time then id order, the keyset transactions are paged by.
+ *
+ * @param createdAt transaction creation date time.
+ * @param id        transaction id.
+ */
+public record TransactionCursor(OffsetDateTime createdAt, Long id) {
+    private static final String SEPARATOR = ":";
+
+    public static TransactionCursor after(UserTransaction transaction) {
+        return new TransactionCursor(transaction.getCreatedAt(), transaction.getId());
+    }
+
+    /**
+     * Parses an opaque cursor.
+     *
+     * @param cursor encoded cursor.
+     * @return parsed cursor or {@literal null} if the cursor is invalid.
+     */
+    public static TransactionCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String decoded;
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        var parts = decoded.split(SEPARATOR);
+        if (parts.length != 2) {
+            return null;
+        }
+        var micros = NumberUtils.parseLong(parts[0]);
+        var id = NumberUtils.parseLong(parts[1]);
+        if (micros == null || id == null) {
+            return null;
+        }
+        var createdAt = Instant.EPOCH.plus(micros, ChronoUnit.MICROS).atOffset(ZoneOffset.UTC);
+        return new TransactionCursor(createdAt, id);
+    }
+
+    // micros is the database precision, so the cursor matches the stored value exactly
+    public String encode() {
+        var micros = ChronoUnit.MICROS.between(Instant.EPOCH, createdAt.toInstant());
+        var value = micros + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
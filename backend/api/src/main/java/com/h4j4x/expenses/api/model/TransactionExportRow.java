@@ -0,0 +1,49 @@
+package com.h4j4x.expenses.api.model;
+
+import com.h4j4x.expenses.api.domain.UserAccount;
+import com.h4j4x.expenses.api.domain.UserTransaction;
+import com.h4j4x.expenses.common.money.Money;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+/**
+ * Transaction as exported, read as a projection so rows never stay in the session.
+ */
+public record TransactionExportRow(Long id, Long userId, Long accountId, String currency, Long amount,
+                                   String notes, TransactionStatus status, TransactionCreationWay creationWay,
+                                   OffsetDateTime createdAt, OffsetDateTime confirmedAt) {
+    public static final String CSV_HEADER =
+        "key,account_key,currency,amount,notes,status,creation_way,created_at,confirmed_at\n";
+
+    public TransactionCursor cursor() {
+        return new TransactionCursor(createdAt, id);
+    }
+
+    public Item toItem() {
+        return new Item(UserTransaction.createKey(accountId, id), UserAccount.createKey(userId, accountId),
+            currency, Money.of(amount, currency).toDecimal(), notes, status, creationWay, createdAt, confirmedAt);
+    }
+
+    public String toCsvLine() {
+        var item = toItem();
+        return String.join(",", item.key(), item.accountKey(), item.currency(), item.amount().toPlainString(),
+            csvValue(item.notes()), item.status().name(), item.creationWay().name(), item.createdAt().toString(),
+            item.confirmedAt() != null ? item.confirmedAt().toString() : "") + "\n";
+    }
+
+    // RFC 4180 quoting
+    static String csvValue(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+    public record Item(String key, String accountKey, String currency, BigDecimal amount, String notes,
+                       TransactionStatus status, TransactionCreationWay creationWay, OffsetDateTime createdAt,
+                       OffsetDateTime confirmedAt) {
+    }
+}
@@ -0,0 +1,16 @@
+package com.h4j4x.expenses.api.model;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Transaction selection, {@literal null} fields do not filter.
+ *
+ * @param ids         transaction ids.
+ * @param accountId   account id.
+ * @param createdFrom creation date time start, inclusive.
+ * @param createdTo   creation date time end, exclusive.
+ */
+public record TransactionFilter(List<Long> ids, Long accountId, OffsetDateTime createdFrom,
+                                OffsetDateTime createdTo) {
+}
@@ -0,0 +1,38 @@
+package com.h4j4x.expenses.api.model;
+
+import java.time.OffsetDateTime;
+
+public class TransactionFilterDTO {
+    private String accountKey;
+
+    private OffsetDateTime createdFrom;
+
+    private OffsetDateTime createdTo;
+
+    public TransactionFilterDTO() {
+    }
+
+    public String getAccountKey() {
+        return accountKey;
+    }
+
+    public void setAccountKey(String accountKey) {
+        this.accountKey = accountKey;
+    }
+
+    public OffsetDateTime getCreatedFrom() {
+        return createdFrom;
+    }
+
+    public void setCreatedFrom(OffsetDateTime createdFrom) {
+        this.createdFrom = createdFrom;
+    }
+
+    public OffsetDateTime getCreatedTo() {
+        return createdTo;
+    }
+
+    public void setCreatedTo(OffsetDateTime createdTo) {
+        this.createdTo = createdTo;
+    }
+}
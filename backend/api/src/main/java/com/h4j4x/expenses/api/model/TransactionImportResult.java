@@ -0,0 +1,22 @@
+package com.h4j4x.expenses.api.model;
+
+import java.util.List;
+
+/**
+ * Statement import outcome.
+ *
+ * @param importedCount  imported transactions.
+ * @param rejectedCount  rejected rows.
+ * @param duplicateCount rows skipped as already imported, by statement transaction id.
+ * @param rowsPerSecond  parsed rows per second.
+ * @param rejected       first rejected rows.
+ */
+public record TransactionImportResult(long importedCount, long rejectedCount, long duplicateCount,
+                                      double rowsPerSecond, List<RejectedRow> rejected) {
+    /**
+     * @param position statement line, or transaction ordinal.
+     * @param error    rejection reason.
+     */
+    public record RejectedRow(int position, String error) {
+    }
+}
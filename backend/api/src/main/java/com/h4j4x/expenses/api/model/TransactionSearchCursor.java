@@ -0,0 +1,42 @@
+package com.h4j4x.expenses.api.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of a transaction in the search order, best rank first then id.
+ *
+ * @param rank search rank.
+ * @param id   transaction id.
+ */
+public record TransactionSearchCursor(Float rank, Long id) {
+    private static final String SEPARATOR = ":";
+
+    /**
+     * Parses an opaque cursor.
+     *
+     * @param cursor encoded cursor.
+     * @return parsed cursor or {@literal null} if the cursor is invalid.
+     */
+    public static TransactionSearchCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            var decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            var parts = decoded.split(SEPARATOR);
+            if (parts.length != 2) {
+                return null;
+            }
+            return new TransactionSearchCursor(Float.parseFloat(parts[0]), Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // Float.toString round trips exactly, so the cursor matches the database real value
+    public String encode() {
+        var value = rank + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,42 @@
+package com.h4j4x.expenses.api.model;
+
+public class TransactionSettlementDTO {
+    private TransactionStatus status;
+
+    private Integer updatedCount;
+
+    private Integer accountsCount;
+
+    public TransactionSettlementDTO() {
+    }
+
+    public TransactionSettlementDTO(TransactionStatus status, Integer updatedCount, Integer accountsCount) {
+        this.status = status;
+        this.updatedCount = updatedCount;
+        this.accountsCount = accountsCount;
+    }
+
+    public TransactionStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(TransactionStatus status) {
+        this.status = status;
+    }
+
+    public Integer getUpdatedCount() {
+        return updatedCount;
+    }
+
+    public void setUpdatedCount(Integer updatedCount) {
+        this.updatedCount = updatedCount;
+    }
+
+    public Integer getAccountsCount() {
+        return accountsCount;
+    }
+
+    public void setAccountsCount(Integer accountsCount) {
+        this.accountsCount = accountsCount;
+    }
+}
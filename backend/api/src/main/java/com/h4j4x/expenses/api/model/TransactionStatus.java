@@ -5,4 +5,5 @@ public enum TransactionStatus {
     CONFIRMED,
     REFUNDED,
     ADJUST_PENDING,
+    ADJUSTED,
 }
@@ -1,6 +1,7 @@
 package com.h4j4x.expenses.api.model;
 
 import com.h4j4x.expenses.api.domain.UserAccount;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Objects;
 
@@ -13,7 +14,7 @@ public class UserAccountDTO {
 
     private String currency;
 
-    private Double balance;
+    private BigDecimal balance;
 
     private LocalDateTime balanceUpdatedAt;
 
@@ -25,7 +26,7 @@ public class UserAccountDTO {
         this.name = name;
     }
 
-    public UserAccountDTO(String name, double balance) {
+    public UserAccountDTO(String name, BigDecimal balance) {
         this(name);
         this.balance = balance;
     }
@@ -36,7 +37,9 @@ public class UserAccountDTO {
             dto.setKey(account.getKey());
             dto.setAccountType(account.getAccountType());
             dto.setCurrency(account.getCurrency());
-            dto.setBalance(account.getBalance());
+            if (account.getCurrency() != null) {
+                dto.setBalance(account.getBalanceMoney().toDecimal());
+            }
             if (account.getBalanceUpdatedAt() != null) {
                 dto.setBalanceUpdatedAt(account.getBalanceUpdatedAt().toLocalDateTime());
             }
@@ -77,16 +80,16 @@ public class UserAccountDTO {
         this.currency = currency;
     }
 
-    public Double getBalance() {
+    public BigDecimal getBalance() {
         return balance;
     }
 
-    public void setBalance(Double balance) {
+    public void setBalance(BigDecimal balance) {
         this.balance = balance;
     }
 
-    public double getBalanceDoubleValue() {
-        return balance != null ? balance : .0;
+    public boolean hasBalance() {
+        return balance != null && balance.signum() != 0;
     }
 
     public LocalDateTime getBalanceUpdatedAt() {
@@ -0,0 +1,12 @@
+package com.h4j4x.expenses.api.model;
+
+public record UserProvisioningResult(Integer index, String email, ProvisioningStatus status, String message) {
+    public static UserProvisioningResult created(Integer index, String email) {
+        return new UserProvisioningResult(index, email, ProvisioningStatus.CREATED, null);
+    }
+
+    public static UserProvisioningResult rejected(Integer index, String email, ProvisioningStatus status,
+                                                  String message) {
+        return new UserProvisioningResult(index, email, status, message);
+    }
+}
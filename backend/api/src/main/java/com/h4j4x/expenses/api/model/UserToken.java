@@ -1,4 +1,4 @@
 package com.h4j4x.expenses.api.model;
 
-public record UserToken(String token, Long expiresInHours) {
+public record UserToken(String token, Long expiresInHours, Long expiresInSeconds) {
 }
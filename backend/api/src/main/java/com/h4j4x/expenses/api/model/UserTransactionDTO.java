@@ -1,7 +1,16 @@
 package com.h4j4x.expenses.api.model;
 
+import com.h4j4x.expenses.api.domain.UserTransaction;
+import com.h4j4x.expenses.common.money.Money;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
 public class UserTransactionDTO {
-    private double amount = .0;
+    private String key;
+
+    private String accountKey;
+
+    private BigDecimal amount = BigDecimal.ZERO;
 
     private String notes;
 
@@ -9,19 +18,54 @@ public class UserTransactionDTO {
 
     private TransactionStatus status;
 
+    private LocalDateTime createdAt;
+
     public UserTransactionDTO() {
     }
 
-    public UserTransactionDTO(String notes, double amount) {
+    public UserTransactionDTO(String notes, BigDecimal amount) {
         this.notes = notes;
         this.amount = amount;
     }
 
-    public double getAmount() {
+    public static UserTransactionDTO fromTransaction(UserTransaction transaction) {
+        if (transaction != null) {
+            var account = transaction.getAccount();
+            var amount = Money.of(transaction.getAmount(), account.getCurrency()).toDecimal();
+            UserTransactionDTO dto = new UserTransactionDTO(transaction.getNotes(), amount);
+            dto.setKey(transaction.getKey());
+            dto.setAccountKey(account.getKey());
+            dto.setCreationWay(transaction.getCreationWay());
+            dto.setStatus(transaction.getStatus());
+            if (transaction.getCreatedAt() != null) {
+                dto.setCreatedAt(transaction.getCreatedAt().toLocalDateTime());
+            }
+            return dto;
+        }
+        return null;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public String getAccountKey() {
+        return accountKey;
+    }
+
+    public void setAccountKey(String accountKey) {
+        this.accountKey = accountKey;
+    }
+
+    public BigDecimal getAmount() {
         return amount;
     }
 
-    public void setAmount(double amount) {
+    public void setAmount(BigDecimal amount) {
         this.amount = amount;
     }
 
@@ -48,4 +92,12 @@ public class UserTransactionDTO {
     public void setStatus(TransactionStatus status) {
         this.status = status;
     }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
 }
@@ -0,0 +1,31 @@
+package com.h4j4x.expenses.api.repository;
+
+import com.h4j4x.expenses.api.domain.AccountBalanceSnapshot;
+import com.h4j4x.expenses.api.domain.UserAccount;
+import io.quarkus.panache.common.Sort;
+import io.smallrye.mutiny.Uni;
+import java.time.OffsetDateTime;
+import javax.enterprise.context.ApplicationScoped;
+import javax.validation.Validator;
+
+@ApplicationScoped
+public class AccountBalanceSnapshotRepository extends BaseRepository<AccountBalanceSnapshot> {
+    private final Validator validator;
+
+    public AccountBalanceSnapshotRepository(Validator validator) {
+        this.validator = validator;
+    }
+
+    public Uni<AccountBalanceSnapshot> save(AccountBalanceSnapshot snapshot) {
+        return super.save(snapshot, validator);
+    }
+
+    public Uni<AccountBalanceSnapshot> findLatestByAccount(UserAccount account) {
+        return find("account.id", Sort.descending("takenAt"), account.getId()).firstResult();
+    }
+
+    public Uni<AccountBalanceSnapshot> findLatestByAccountAtOrBefore(UserAccount account, OffsetDateTime dateTime) {
+        return find("account.id = ?1 and takenAt <= ?2", Sort.descending("takenAt"), account.getId(), dateTime)
+            .firstResult();
+    }
+}
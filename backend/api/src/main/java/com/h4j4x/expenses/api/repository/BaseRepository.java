@@ -1,13 +1,21 @@
 package com.h4j4x.expenses.api.repository;
 
+import com.h4j4x.expenses.api.model.PageCountMode;
+import com.h4j4x.expenses.api.model.PageData;
 import io.quarkus.hibernate.reactive.panache.PanacheRepository;
 import io.smallrye.mutiny.Uni;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import javax.validation.ConstraintViolation;
 import javax.validation.ConstraintViolationException;
 import javax.validation.Validator;
 
 public abstract class BaseRepository<Entity> implements PanacheRepository<Entity> {
+    private static final String PAGE_ALIAS = "p";
+    private static final String COUNT_ALIAS = "c";
+
     protected Uni<Entity> save(Entity entity, Validator validator) {
         return Uni.createFrom().<Entity>emitter(emitter -> {
             Set<ConstraintViolation<Entity>> violations = validator.validate(entity);
@@ -17,4 +25,82 @@ public abstract class BaseRepository<Entity> implements PanacheRepository<Entity
             emitter.complete(entity);
         }).flatMap(this::persist);
     }
+
+    /**
+     * Finds a page of entities ordered by id. An exact total is selected along with the rows, as an uncorrelated
+     * subquery the database evaluates once, so rows and count take a single statement.
+     *
+     * @param type      entity class.
+     * @param condition HQL condition for the given entity alias, spliced into the statement as is.
+     * @param params    condition named parameters.
+     * @param pageIndex page index.
+     * @param pageSize  page size.
+     * @param countMode total count mode.
+     * @return entities page.
+     */
+    protected Uni<PageData<Entity>> findPage(Class<Entity> type, Function<String, String> condition,
+                                             Map<String, Object> params, int pageIndex,
+                                             int pageSize, PageCountMode countMode) {
+        var entityName = type.getSimpleName();
+        var where = " from " + entityName + " " + PAGE_ALIAS + " where " + condition.apply(PAGE_ALIAS);
+        var countHql = "select count(" + COUNT_ALIAS + ") from " + entityName + " " + COUNT_ALIAS +
+            " where " + condition.apply(COUNT_ALIAS);
+        var orderBy = " order by " + PAGE_ALIAS + ".id";
+        var firstResult = pageIndex * pageSize;
+        if (countMode == PageCountMode.EXACT) {
+            var hql = "select " + PAGE_ALIAS + ", (" + countHql + ")" + where + orderBy;
+            return getSession()
+                .flatMap(session -> {
+                    var query = session.<Object[]>createQuery(hql);
+                    params.forEach(query::setParameter);
+                    return query
+                        .setFirstResult(firstResult)
+                        .setMaxResults(pageSize)
+                        .getResultList();
+                })
+                .flatMap(rows -> {
+                    @SuppressWarnings("unchecked")
+                    List<Entity> list = rows.stream().map(row -> (Entity) row[0]).toList();
+                    if (!rows.isEmpty()) {
+                        var totalCount = ((Number) rows.get(0)[1]).longValue();
+                        return Uni.createFrom().item(PageData.create(list, pageIndex, pageSize, totalCount, countMode));
+                    }
+                    if (pageIndex == 0) {
+                        return Uni.createFrom().item(PageData.create(list, pageIndex, pageSize, 0L, countMode));
+                    }
+                    // past the last page there is no row to carry the count
+                    return countPage(countHql, params)
+                        .onItem().transform(totalCount -> PageData
+                            .create(list, pageIndex, pageSize, totalCount, countMode));
+                });
+        }
+        var hql = "select " + PAGE_ALIAS + where + orderBy;
+        var maxResults = countMode == PageCountMode.ESTIMATE ? pageSize + 1 : pageSize;
+        return getSession()
+            .flatMap(session -> {
+                var query = session.createQuery(hql, type);
+                params.forEach(query::setParameter);
+                return query
+                    .setFirstResult(firstResult)
+                    .setMaxResults(maxResults)
+                    .getResultList();
+            })
+            .onItem().transform(rows -> {
+                if (countMode != PageCountMode.ESTIMATE) {
+                    return PageData.create(rows, pageIndex, pageSize, PageData.UNKNOWN_COUNT, countMode);
+                }
+                var totalCount = (long) firstResult + rows.size();
+                var list = rows.size() > pageSize ? rows.subList(0, pageSize) : rows;
+                return PageData.create(list, pageIndex, pageSize, totalCount, countMode);
+            });
+    }
+
+    private Uni<Long> countPage(String hql, Map<String, Object> params) {
+        return getSession()
+            .flatMap(session -> {
+                var query = session.createQuery(hql, Long.class);
+                params.forEach(query::setParameter);
+                return query.getSingleResult();
+            });
+    }
 }
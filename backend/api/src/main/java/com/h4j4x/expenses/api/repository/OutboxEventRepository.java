@@ -0,0 +1,43 @@
+package com.h4j4x.expenses.api.repository;
+
+import com.h4j4x.expenses.api.domain.OutboxEvent;
+import io.smallrye.mutiny.Uni;
+import java.util.List;
+import javax.enterprise.context.ApplicationScoped;
+import javax.validation.Validator;
+
+@ApplicationScoped
+public class OutboxEventRepository extends BaseRepository<OutboxEvent> {
+    private final Validator validator;
+
+    public OutboxEventRepository(Validator validator) {
+        this.validator = validator;
+    }
+
+    public Uni<OutboxEvent> save(OutboxEvent event) {
+        return super.save(event, validator);
+    }
+
+    public Uni<Void> saveAll(List<OutboxEvent> events) {
+        return persist(events);
+    }
+
+    /**
+     * Locks the oldest events, skipping rows already locked by other relays. Must run in a transaction.
+     *
+     * @param size max events to lock.
+     * @return locked events, oldest first.
+     */
+    public Uni<List<OutboxEvent>> lockNextBatch(int size) {
+        return getSession()
+            .flatMap(session -> session
+                .createNativeQuery("select * from outbox_events order by id limit ?1 for update skip locked",
+                    OutboxEvent.class)
+                .setParameter(1, size)
+                .getResultList());
+    }
+
+    public Uni<Long> deleteByIds(List<Long> ids) {
+        return delete("id in ?1", ids);
+    }
+}
@@ -0,0 +1,37 @@
+package com.h4j4x.expenses.api.repository;
+
+import com.h4j4x.expenses.api.domain.RevokedToken;
+import io.smallrye.mutiny.Uni;
+import java.time.OffsetDateTime;
+import java.util.List;
+import javax.enterprise.context.ApplicationScoped;
+import javax.validation.Validator;
+
+@ApplicationScoped
+public class RevokedTokenRepository extends BaseRepository<RevokedToken> {
+    private final Validator validator;
+
+    public RevokedTokenRepository(Validator validator) {
+        this.validator = validator;
+    }
+
+    public Uni<RevokedToken> save(RevokedToken revokedToken) {
+        return super.save(revokedToken, validator);
+    }
+
+    public Uni<Long> countByTokenId(String tokenId) {
+        return count("tokenId", tokenId);
+    }
+
+    public Uni<List<String>> findTokenIdsExpiringAfter(OffsetDateTime dateTime) {
+        return getSession()
+            .flatMap(session -> session
+                .createQuery("select tokenId from RevokedToken where expiresAt > ?1", String.class)
+                .setParameter(1, dateTime)
+                .getResultList());
+    }
+
+    public Uni<Long> deleteExpiredBefore(OffsetDateTime dateTime) {
+        return delete("expiresAt <= ?1", dateTime);
+    }
+}
@@ -2,12 +2,18 @@ package com.h4j4x.expenses.api.repository;
 
 import com.h4j4x.expenses.api.domain.UserAccount;
 import com.h4j4x.expenses.api.domain.UserEntity;
+import com.h4j4x.expenses.api.model.AccountBalanceTotal;
+import com.h4j4x.expenses.api.model.PageCountMode;
 import com.h4j4x.expenses.api.model.PageData;
+import com.h4j4x.expenses.api.model.TransactionStatus;
+import io.quarkus.panache.common.Sort;
 import io.smallrye.mutiny.Uni;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import javax.enterprise.context.ApplicationScoped;
+import javax.persistence.LockModeType;
 import javax.validation.Validator;
 
 @ApplicationScoped
@@ -50,12 +56,11 @@ public class UserAccountRepository extends BaseRepository<UserAccount> {
         return Uni.createFrom().item(Collections.emptyList());
     }
 
-    public Uni<PageData<UserAccount>> findPageByUser(UserEntity user, int pageIndex, int pageSize) {
+    public Uni<PageData<UserAccount>> findPageByUser(UserEntity user, int pageIndex, int pageSize,
+                                                     PageCountMode countMode) {
         if (user != null) {
-            var query = find("user_id", user.getId());
-            return Uni.combine()
-                .all().unis(query.page(pageIndex, pageSize).list(), query.count()).asTuple()
-                .onItem().transform(tuple -> PageData.create(tuple.getItem1(), pageIndex, pageSize, tuple.getItem2()));
+            return findPage(UserAccount.class, alias -> alias + ".user.id = :userId", Map.of("userId", user.getId()),
+                pageIndex, pageSize, countMode);
         }
         return Uni.createFrom().item(PageData.empty());
     }
@@ -73,4 +78,55 @@ public class UserAccountRepository extends BaseRepository<UserAccount> {
         }
         return Uni.createFrom().item(0L);
     }
+
+    /**
+     * Sums the user account balances in a single statement.
+     *
+     * @param user accounts user.
+     * @return balance total and accounts count per currency and account type.
+     */
+    public Uni<List<AccountBalanceTotal>> sumBalancesByUser(UserEntity user) {
+        if (user == null) {
+            return Uni.createFrom().item(Collections.emptyList());
+        }
+        return getSession()
+            .flatMap(session -> session
+                .createQuery("select new com.h4j4x.expenses.api.model.AccountBalanceTotal(a.currency, a.accountType, sum(a.balance), count(a)) " +
+                    "from UserAccount a where a.user.id = ?1 group by a.currency, a.accountType", AccountBalanceTotal.class)
+                .setParameter(1, user.getId())
+                .getResultList());
+    }
+
+    /**
+     * Loads the account locking its row until the transaction ends, so balance writers are serialized.
+     *
+     * @param id account id.
+     * @return locked account or {@literal null} if not found.
+     */
+    public Uni<UserAccount> lockById(Long id) {
+        return findById(id, LockModeType.PESSIMISTIC_WRITE);
+    }
+
+    /**
+     * Locks the next accounts with transactions in the status, skipping accounts already locked by balance
+     * updates or other reconcilers. Must run in a transaction.
+     *
+     * @param status transactions status.
+     * @param size   max accounts to lock.
+     * @return locked accounts, ordered by id.
+     */
+    public Uni<List<UserAccount>> lockNextWithTransactionStatus(TransactionStatus status, int size) {
+        return getSession()
+            .flatMap(session -> session
+                .createNativeQuery("select * from user_accounts a where exists (" +
+                    "select 1 from user_transactions t where t.account_id = a.id and t.status = ?1" +
+                    ") order by a.id limit ?2 for update of a skip locked", UserAccount.class)
+                .setParameter(1, status.name())
+                .setParameter(2, size)
+                .getResultList());
+    }
+
+    public Uni<List<UserAccount>> findBatchAfterId(Long id, int size) {
+        return find("id > ?1", Sort.ascending("id"), id).page(0, size).list();
+    }
 }
@@ -2,6 +2,8 @@ package com.h4j4x.expenses.api.repository;
 
 import com.h4j4x.expenses.api.domain.UserEntity;
 import io.smallrye.mutiny.Uni;
+import java.util.Collection;
+import java.util.List;
 import javax.enterprise.context.ApplicationScoped;
 import javax.validation.Validator;
 
@@ -25,6 +27,14 @@ public class UserRepository extends BaseRepository<UserEntity> {
         return count("email", email);
     }
 
+    public Uni<List<String>> findEmailsIn(Collection<String> emails) {
+        return getSession()
+            .flatMap(session -> session
+                .createQuery("select email from UserEntity where email in ?1", String.class)
+                .setParameter(1, emails)
+                .getResultList());
+    }
+
     public Uni<Long> countByEmailAndNotId(String email, Long id) {
         return count("email = ?1 and id != ?2", email, id);
     }
@@ -1,11 +1,24 @@
 package com.h4j4x.expenses.api.repository;
 
 import com.h4j4x.expenses.api.domain.UserAccount;
+import com.h4j4x.expenses.api.domain.UserEntity;
 import com.h4j4x.expenses.api.domain.UserTransaction;
+import com.h4j4x.expenses.api.model.AccountBalanceDelta;
+import com.h4j4x.expenses.api.model.BalanceSum;
+import com.h4j4x.expenses.api.model.CursorPage;
+import com.h4j4x.expenses.api.model.TransactionCursor;
+import com.h4j4x.expenses.api.model.TransactionExportRow;
+import com.h4j4x.expenses.api.model.TransactionSearchCursor;
+import com.h4j4x.expenses.api.model.TransactionFilter;
 import com.h4j4x.expenses.api.model.TransactionStatus;
+import io.quarkus.panache.common.Sort;
 import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
 import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.Comparator;
+import java.util.Collection;
+import java.util.List;
 import javax.enterprise.context.ApplicationScoped;
 import javax.validation.Validator;
 
@@ -21,6 +34,326 @@ public class UserTransactionRepository extends BaseRepository<UserTransaction> {
         return super.save(transaction, validator);
     }
 
+    public Uni<Void> saveAll(List<UserTransaction> transactions) {
+        return persist(transactions);
+    }
+
+    public Uni<List<String>> findExternalIds(UserAccount account, Collection<String> externalIds) {
+        return getSession()
+            .flatMap(session -> session
+                .createQuery("select t.externalId from UserTransaction t " +
+                    "where t.account.id = ?1 and t.externalId in (?2)", String.class)
+                .setParameter(1, account.getId())
+                .setParameter(2, externalIds)
+                .getResultList());
+    }
+
+    /**
+     * Sums amounts of account transactions applied to the balance and confirmed in the window. Rows not applied
+     * yet are left out, {@link #applyConfirmedTransactions(UserAccount)} adds them to the snapshots they missed.
+     *
+     * @param account account to sum.
+     * @param from    window start, exclusive.
+     * @param to      window end, inclusive.
+     * @return transactions amount sum, in minor units, and count.
+     */
+    public Uni<BalanceSum> sumAppliedTransactionsInWindow(UserAccount account,
+                                                         OffsetDateTime from,
+                                                         OffsetDateTime to) {
+        return getSession()
+            .flatMap(session -> session
+                .createQuery("select new com.h4j4x.expenses.api.model.BalanceSum(coalesce(sum(t.amount), 0L), count(t)) " +
+                    "from UserTransaction t " +
+                    "where t.account.id = ?1 and t.status = ?2 and t.balanceApplied = true " +
+                    "and t.confirmedAt > ?3 and t.confirmedAt <= ?4", BalanceSum.class)
+                .setParameter(1, account.getId())
+                .setParameter(2, TransactionStatus.CONFIRMED)
+                .setParameter(3, from)
+                .setParameter(4, to)
+                .getSingleResult());
+    }
+
+    /**
+     * Marks the account confirmed transactions not yet in the balance as applied and sums them, in one statement.
+     * Rows are picked by whether they were applied, not by a timestamp window, so a transaction committed after a
+     * later confirmed one is still applied, exactly once. Balance snapshots taken after such a row confirmation
+     * missed it, so its amount is added to them too. Must run in a transaction holding the account lock.
+     *
+     * @param account account to apply.
+     * @return applied amount sum, in minor units, and count.
+     */
+    public Uni<BalanceSum> applyConfirmedTransactions(UserAccount account) {
+        return getSession()
+            .flatMap(session -> session
+                .createNativeQuery("with applied as (" +
+                    "update user_transactions set balance_applied = true " +
+                    "where account_id = ?1 and status = ?2 and not balance_applied returning amount, confirmed_at" +
+                    "), late as (" +
+                    "update account_balance_snapshots s " +
+                    "set balance = s.balance + (select sum(a.amount) from applied a where a.confirmed_at <= s.taken_at) " +
+                    "where s.account_id = ?1 and s.taken_at >= (select min(a.confirmed_at) from applied a)" +
+                    ") select coalesce(sum(amount), 0), count(*) from applied", Object[].class)
+                .setParameter(1, account.getId())
+                .setParameter(2, TransactionStatus.CONFIRMED.name())
+                .getSingleResult())
+            .onItem().transform(row -> new BalanceSum(((Number) row[0]).longValue(), ((Number) row[1]).longValue()));
+    }
+
+    public Multi<UserTransaction> findAppliedTransactions(UserAccount account) {
+        return find("account_id = ?1 and status = ?2 and balanceApplied = true", account.getId(),
+            TransactionStatus.CONFIRMED)
+            .stream();
+    }
+
+    /**
+     * Moves the user pending transactions matching the filter to the status in a single update statement.
+     *
+     * @param user        transactions user.
+     * @param filter      transactions filter.
+     * @param status      new status.
+     * @param confirmedAt confirmation date time, set only when the status is {@link TransactionStatus#CONFIRMED}.
+     * @return updated transactions count.
+     */
+    public Uni<Integer> updatePendingStatus(UserEntity user, TransactionFilter filter, TransactionStatus status,
+                                            OffsetDateTime confirmedAt) {
+        var hql = new StringBuilder("update UserTransaction t set t.status = :status");
+        var params = new HashMap<String, Object>();
+        params.put("status", status);
+        if (status == TransactionStatus.CONFIRMED) {
+            hql.append(", t.confirmedAt = :confirmedAt");
+            params.put("confirmedAt", confirmedAt);
+        }
+        hql.append(" where t.user.id = :userId and t.status = :pending");
+        params.put("userId", user.getId());
+        params.put("pending", TransactionStatus.PENDING);
+        if (filter.ids() != null) {
+            hql.append(" and t.id in :ids");
+            params.put("ids", filter.ids());
+        }
+        if (filter.accountId() != null) {
+            hql.append(" and t.account.id = :accountId");
+            params.put("accountId", filter.accountId());
+        }
+        if (filter.createdFrom() != null) {
+            hql.append(" and t.createdAt >= :createdFrom");
+            params.put("createdFrom", filter.createdFrom());
+        }
+        if (filter.createdTo() != null) {
+            hql.append(" and t.createdAt < :createdTo");
+            params.put("createdTo", filter.createdTo());
+        }
+        return getSession()
+            .flatMap(session -> {
+                var query = session.createQuery(hql.toString());
+                params.forEach(query::setParameter);
+                return query.executeUpdate();
+            });
+    }
+
+    /**
+     * Sums the user transactions confirmed at an exact date time, as set by
+     * {@link #updatePendingStatus(UserEntity, TransactionFilter, TransactionStatus, OffsetDateTime)}.
+     *
+     * @param user        transactions user.
+     * @param confirmedAt confirmation date time.
+     * @return amount sum and count per account.
+     */
+    public Uni<List<AccountBalanceDelta>> sumConfirmedAtByAccount(UserEntity user, OffsetDateTime confirmedAt) {
+        return getSession()
+            .flatMap(session -> session
+                .createQuery("select new com.h4j4x.expenses.api.model.AccountBalanceDelta(t.account.id, sum(t.amount), count(t)) " +
+                    "from UserTransaction t " +
+                    "where t.user.id = ?1 and t.status = ?2 and t.confirmedAt = ?3 group by t.account.id", AccountBalanceDelta.class)
+                .setParameter(1, user.getId())
+                .setParameter(2, TransactionStatus.CONFIRMED)
+                .setParameter(3, confirmedAt)
+                .getResultList());
+    }
+
+    public Uni<List<UserTransaction>> findByAccountAndStatus(UserAccount account, TransactionStatus status) {
+        return find("account.id = ?1 and status = ?2", Sort.ascending("createdAt", "id"), account.getId(), status)
+            .list();
+    }
+
+    public Uni<OffsetDateTime> findLastCreatedAtByAccountAndStatus(UserAccount account, TransactionStatus status) {
+        return getSession()
+            .flatMap(session -> session
+                .createQuery("select max(t.createdAt) from UserTransaction t " +
+                    "where t.account.id = ?1 and t.status = ?2", OffsetDateTime.class)
+                .setParameter(1, account.getId())
+                .setParameter(2, status)
+                .getSingleResult());
+    }
+
+    public Uni<Long> countByStatus(TransactionStatus status) {
+        return count("status", status);
+    }
+
+    public Uni<Long> countByAccount(UserAccount account) {
+        return count("account.id", account.getId());
+    }
+
+    /**
+     * Finds a page of the user transactions, newest first. Pages start right after the cursor, so the cost
+     * does not grow with the page depth.
+     *
+     * @param user   transactions user.
+     * @param filter transactions filter, ids are ignored.
+     * @param status transactions status, {@literal null} for any.
+     * @param cursor position to start after, {@literal null} for the first page.
+     * @param size   page size.
+     * @return transactions page.
+     */
+    public Uni<CursorPage<UserTransaction>> findPageByUser(UserEntity user, TransactionFilter filter,
+                                                           TransactionStatus status, TransactionCursor cursor,
+                                                           int size) {
+        var query = new StringBuilder("user.id = :userId");
+        var params = new HashMap<String, Object>();
+        params.put("userId", user.getId());
+        if (filter.accountId() != null) {
+            query.append(" and account.id = :accountId");
+            params.put("accountId", filter.accountId());
+        }
+        if (status != null) {
+            query.append(" and status = :status");
+            params.put("status", status);
+        }
+        if (filter.createdFrom() != null) {
+            query.append(" and createdAt >= :createdFrom");
+            params.put("createdFrom", filter.createdFrom());
+        }
+        if (filter.createdTo() != null) {
+            query.append(" and createdAt < :createdTo");
+            params.put("createdTo", filter.createdTo());
+        }
+        if (cursor != null) {
+            // bounded on created_at alone first, so the index range starts at the cursor
+            query.append(" and createdAt <= :cursorCreatedAt" +
+                " and (createdAt < :cursorCreatedAt or id < :cursorId)");
+            params.put("cursorCreatedAt", cursor.createdAt());
+            params.put("cursorId", cursor.id());
+        }
+        // one extra row tells whether there is a next page, without counting
+        return find(query.toString(), Sort.descending("createdAt", "id"), params)
+            .range(0, size)
+            .list()
+            .onItem().transform(transactions -> {
+                if (transactions.size() <= size) {
+                    return new CursorPage<>(transactions, null);
+                }
+                var page = transactions.subList(0, size);
+                return new CursorPage<>(page, TransactionCursor.after(page.get(size - 1)).encode());
+            });
+    }
+
+    /**
+     * Reads the user transactions after the cursor, oldest first, as export rows.
+     *
+     * @param user   transactions user.
+     * @param filter transactions filter, ids are ignored.
+     * @param cursor position to start after, {@literal null} to start at the first transaction.
+     * @param size   max rows.
+     * @return export rows.
+     */
+    public Uni<List<TransactionExportRow>> findExportBatch(UserEntity user, TransactionFilter filter,
+                                                           TransactionCursor cursor, int size) {
+        var hql = new StringBuilder("select new com.h4j4x.expenses.api.model.TransactionExportRow(" +
+            "t.id, t.user.id, t.account.id, t.account.currency, t.amount, t.notes, t.status, t.creationWay, " +
+            "t.createdAt, t.confirmedAt) " +
+            "from UserTransaction t where t.user.id = :userId");
+        var params = new HashMap<String, Object>();
+        params.put("userId", user.getId());
+        if (filter.accountId() != null) {
+            hql.append(" and t.account.id = :accountId");
+            params.put("accountId", filter.accountId());
+        }
+        if (filter.createdFrom() != null) {
+            hql.append(" and t.createdAt >= :createdFrom");
+            params.put("createdFrom", filter.createdFrom());
+        }
+        if (filter.createdTo() != null) {
+            hql.append(" and t.createdAt < :createdTo");
+            params.put("createdTo", filter.createdTo());
+        }
+        if (cursor != null) {
+            hql.append(" and t.createdAt >= :cursorCreatedAt" +
+                " and (t.createdAt > :cursorCreatedAt or t.id > :cursorId)");
+            params.put("cursorCreatedAt", cursor.createdAt());
+            params.put("cursorId", cursor.id());
+        }
+        hql.append(" order by t.createdAt, t.id");
+        return getSession()
+            .flatMap(session -> {
+                var query = session.createQuery(hql.toString(), TransactionExportRow.class);
+                params.forEach(query::setParameter);
+                return query
+                    .setMaxResults(size)
+                    .getResultList();
+            });
+    }
+
+    /**
+     * Searches the user transaction notes by full text or trigram word similarity, so the text may match any part
+     * of longer notes, best ranked first. Both matches are served by GIN indexes led by {@code user_id}, see
+     * {@code scripts/add-transaction-notes-search.sql}.
+     *
+     * @param user   transactions user.
+     * @param text   search text.
+     * @param cursor position to start after, {@literal null} for the first page.
+     * @param size   page size.
+     * @return transactions page.
+     */
+    public Uni<CursorPage<UserTransaction>> searchByUser(UserEntity user, String text,
+                                                         TransactionSearchCursor cursor, int size) {
+        var sql = new StringBuilder("select id, rank from (" +
+            "select t.id, greatest(ts_rank(to_tsvector('simple', t.notes), plainto_tsquery('simple', ?2)), " +
+            "word_similarity(?2, t.notes)) as rank " +
+            "from user_transactions t " +
+            "where t.user_id = ?1 " +
+            "and (to_tsvector('simple', t.notes) @@ plainto_tsquery('simple', ?2) or ?2 <% t.notes)" +
+            ") ranked");
+        if (cursor != null) {
+            sql.append(" where rank < ?4 or (rank = ?4 and id < ?5)");
+        }
+        sql.append(" order by rank desc, id desc limit ?3");
+        // ids and ranks first, then the page entities by id
+        return getSession()
+            .flatMap(session -> {
+                var query = session.createNativeQuery(sql.toString(), Object[].class)
+                    .setParameter(1, user.getId())
+                    .setParameter(2, text)
+                    .setParameter(3, size + 1);
+                if (cursor != null) {
+                    query.setParameter(4, cursor.rank())
+                        .setParameter(5, cursor.id());
+                }
+                return query.getResultList();
+            })
+            .flatMap(rows -> {
+                if (rows.isEmpty()) {
+                    return Uni.createFrom().item(new CursorPage<UserTransaction>(List.of(), null));
+                }
+                var pageRows = rows.size() > size ? rows.subList(0, size) : rows;
+                var ids = pageRows.stream()
+                    .map(row -> ((Number) row[0]).longValue())
+                    .toList();
+                String nextCursor = null;
+                if (rows.size() > size) {
+                    var last = pageRows.get(size - 1);
+                    nextCursor = new TransactionSearchCursor(((Number) last[1]).floatValue(),
+                        ((Number) last[0]).longValue()).encode();
+                }
+                var next = nextCursor;
+                return find("id in ?1", ids).list()
+                    .onItem().transform(transactions -> {
+                        var sorted = transactions.stream()
+                            .sorted(Comparator.comparingInt(transaction -> ids.indexOf(transaction.getId())))
+                            .toList();
+                        return new CursorPage<>(sorted, next);
+                    });
+            });
+    }
+
     public Multi<UserTransaction> findTransactionsFromDateWithStatus(UserAccount account,
                                                                      OffsetDateTime from,
                                                                      TransactionStatus status) {
@@ -1,17 +1,22 @@
 package com.h4j4x.expenses.api.resource;
 
 import com.h4j4x.expenses.api.domain.UserEntity;
+import com.h4j4x.expenses.api.error.TooManyRequestsException;
 import com.h4j4x.expenses.api.model.UserCredentials;
 import com.h4j4x.expenses.api.model.UserDTO;
 import com.h4j4x.expenses.api.model.UserToken;
+import com.h4j4x.expenses.api.security.AuthMetrics;
+import com.h4j4x.expenses.api.security.SignInThrottle;
+import com.h4j4x.expenses.api.security.UserTokenIssuer;
 import com.h4j4x.expenses.api.service.UserService;
+import io.quarkus.hibernate.reactive.panache.Panache;
 import io.quarkus.hibernate.reactive.panache.common.runtime.ReactiveTransactional;
 import io.quarkus.security.Authenticated;
 import io.quarkus.security.AuthenticationFailedException;
-import io.smallrye.jwt.build.Jwt;
 import io.smallrye.mutiny.Uni;
-import java.time.Duration;
+import io.vertx.core.http.HttpServerRequest;
 import javax.annotation.security.PermitAll;
+import javax.ws.rs.BadRequestException;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
@@ -19,56 +24,78 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.SecurityContext;
-import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.resteasy.reactive.ResponseStatus;
 
 @Path("/auth")
 @Produces(MediaType.APPLICATION_JSON)
-@ReactiveTransactional
 public class AuthResource {
     static final String SIGN_UP = "sign-up";
     static final String SIGN_IN = "sign-in";
     static final String ME = "me";
+    static final String REFRESH = "refresh";
+    static final String THROTTLED_MESSAGE = "Too many sign in attempts, try again later";
 
     private final UserService userService;
+    private final SignInThrottle signInThrottle;
+    private final UserTokenIssuer tokenIssuer;
+    private final AuthMetrics authMetrics;
 
-    @ConfigProperty(name = "mp.jwt.verify.issuer")
-    String jwtIssuer;
-
-    @ConfigProperty(name = "app.auth.token-expiration-in-days", defaultValue = "30")
-    Integer tokenExpirationInDays;
-
-    public AuthResource(UserService userService) {
+    public AuthResource(UserService userService, SignInThrottle signInThrottle, UserTokenIssuer tokenIssuer,
+                        AuthMetrics authMetrics) {
         this.userService = userService;
+        this.signInThrottle = signInThrottle;
+        this.tokenIssuer = tokenIssuer;
+        this.authMetrics = authMetrics;
     }
 
     @POST
     @ResponseStatus(201)
     @PermitAll
+    @ReactiveTransactional
     @Path("/" + SIGN_UP)
     public Uni<UserToken> signUp(UserDTO userDTO) {
-        return userService
+        var signUp = userService
             .createUser(userDTO)
-            .onItem().ifNotNull().transform(this::createToken);
+            .onItem().ifNotNull().transform(userEntity -> createToken(AuthMetrics.SIGN_UP, userEntity));
+        // createUser only fails as a bad request when the email is already registered
+        return authMetrics.time(AuthMetrics.SIGN_UP, "total", signUp, token -> AuthMetrics.SUCCESS,
+            failure -> failure instanceof BadRequestException ? AuthMetrics.EMAIL_EXISTS : AuthMetrics.ERROR);
     }
 
     @POST
     @PermitAll
     @Path("/" + SIGN_IN)
-    public Uni<UserToken> signIn(UserCredentials userCredentials) {
-        return userService
-            .findUserByEmailAndPassword(userCredentials)
-            .onItem().ifNotNull().transform(this::createToken)
+    public Uni<UserToken> signIn(UserCredentials userCredentials, @Context HttpServerRequest request) {
+        // checked before the transaction opens, so throttled attempts cost no hashing nor connections
+        var address = request.remoteAddress() != null ? request.remoteAddress().hostAddress() : null;
+        if (!signInThrottle.tryAcquire(userCredentials.getEmail(), address)) {
+            return Uni.createFrom().failure(new TooManyRequestsException(THROTTLED_MESSAGE));
+        }
+        var signIn = Panache
+            .withTransaction(() -> userService.findUserByEmailAndPassword(userCredentials))
+            .onItem().ifNotNull().transform(userEntity -> createToken(AuthMetrics.SIGN_IN, userEntity));
+        return authMetrics
+            .time(AuthMetrics.SIGN_IN, "total", signIn,
+                token -> token != null ? AuthMetrics.SUCCESS : AuthMetrics.BAD_CREDENTIALS)
             .onItem().ifNull().failWith(new AuthenticationFailedException("Invalid credentials"));
     }
 
-    private UserToken createToken(UserEntity userEntity) {
-        var expiresIn = Duration.ofDays(tokenExpirationInDays);
-        var token = Jwt.issuer(jwtIssuer)
-            .upn(userEntity.getEmail())
-            .expiresIn(expiresIn)
-            .sign();
-        return new UserToken(token, expiresIn.toHours());
+    private UserToken createToken(String flow, UserEntity userEntity) {
+        return authMetrics.time(flow, "token_sign", () -> tokenIssuer.createToken(userEntity));
+    }
+
+    @POST
+    @Authenticated
+    @Path("/" + REFRESH)
+    public Uni<UserToken> refresh(@Context SecurityContext securityContext) {
+        // claims tokens are not checked against the database, so revoked versions are caught here
+        var principal = (UserEntity) securityContext.getUserPrincipal();
+        return userService
+            .findUserById(principal.getId())
+            .onItem().ifNotNull()
+            .transform(userEntity -> userEntity.getTokenVersion() == principal.getTokenVersion() ? userEntity : null)
+            .onItem().ifNotNull().transform(tokenIssuer::createToken)
+            .onItem().ifNull().failWith(new AuthenticationFailedException("Invalid token"));
     }
 
     @GET
@@ -0,0 +1,56 @@
+package com.h4j4x.expenses.api.resource;
+
+import com.h4j4x.expenses.api.model.UserDTO;
+import com.h4j4x.expenses.api.model.UserProvisioningResult;
+import com.h4j4x.expenses.api.service.UserProvisioningService;
+import io.smallrye.mutiny.Multi;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.Optional;
+import javax.annotation.security.PermitAll;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.ForbiddenException;
+import javax.ws.rs.HeaderParam;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.resteasy.reactive.RestStreamElementType;
+import org.jboss.resteasy.reactive.common.util.RestMediaType;
+
+@Path("/provisioning")
+public class ProvisioningResource {
+    static final String USERS = "users";
+    static final String API_KEY_HEADER = "X-Provisioning-Key";
+    static final String FORBIDDEN_MESSAGE = "Invalid provisioning key";
+
+    private final UserProvisioningService provisioningService;
+
+    @ConfigProperty(name = "app.provisioning.api-key")
+    Optional<String> apiKey;
+
+    public ProvisioningResource(UserProvisioningService provisioningService) {
+        this.provisioningService = provisioningService;
+    }
+
+    @POST
+    @PermitAll
+    @Path("/" + USERS)
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(RestMediaType.APPLICATION_NDJSON)
+    @RestStreamElementType(MediaType.APPLICATION_JSON)
+    public Multi<UserProvisioningResult> createUsers(@HeaderParam(API_KEY_HEADER) String key, List<UserDTO> users) {
+        if (!isValidKey(key)) {
+            return Multi.createFrom().failure(new ForbiddenException(FORBIDDEN_MESSAGE));
+        }
+        return provisioningService.createUsers(users);
+    }
+
+    private boolean isValidKey(String key) {
+        // disabled unless a key is configured
+        return key != null && apiKey.isPresent() && MessageDigest.isEqual(
+            apiKey.get().getBytes(StandardCharsets.UTF_8), key.getBytes(StandardCharsets.UTF_8));
+    }
+}
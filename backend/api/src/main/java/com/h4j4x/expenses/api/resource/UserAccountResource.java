@@ -1,17 +1,22 @@
 package com.h4j4x.expenses.api.resource;
 
 import com.h4j4x.expenses.api.domain.UserEntity;
+import com.h4j4x.expenses.api.model.NetWorthDTO;
+import com.h4j4x.expenses.api.model.PageCountMode;
 import com.h4j4x.expenses.api.model.PageData;
 import com.h4j4x.expenses.api.model.UserAccountDTO;
 import com.h4j4x.expenses.api.service.UserAccountService;
+import com.h4j4x.expenses.common.money.Money;
+import io.quarkus.hibernate.reactive.panache.Panache;
 import io.quarkus.hibernate.reactive.panache.common.runtime.ReactiveTransactional;
 import io.quarkus.security.identity.SecurityIdentity;
 import io.smallrye.mutiny.Uni;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
 import java.util.List;
 import org.eclipse.microprofile.graphql.*;
 
 @GraphQLApi
-@ReactiveTransactional
 public class UserAccountResource {
     private final SecurityIdentity identity;
 
@@ -25,13 +30,16 @@ public class UserAccountResource {
     @Mutation
     @Description("Add user account")
     public Uni<UserAccountDTO> addUserAccount(UserAccountDTO account) {
-        return Uni.createFrom()
-            .item(authEntity())
-            .flatMap(userEntity -> accountService.addAccount(userEntity, account))
+        var user = authEntity();
+        // cached net worth is dropped only after commit, so no request can cache it as before the change
+        return Panache
+            .withTransaction(() -> accountService.addAccount(user, account))
+            .onItem().invoke(accountService::balanceCommitted)
             .onItem().transform(UserAccountDTO::fromAccount);
     }
 
     @Query
+    @ReactiveTransactional
     @Description("Get user accounts")
     public Uni<List<UserAccountDTO>> getUserAccounts() {
         return accountService.getAccounts(authEntity())
@@ -40,19 +48,39 @@ public class UserAccountResource {
     }
 
     @Query
+    @ReactiveTransactional
     @Description("Get user accounts paged")
     public Uni<PageData<UserAccountDTO>> getUserPageAccounts(@DefaultValue("0") int pageIndex,
-                                                             @DefaultValue("10") int pageSize) {
-        return accountService.getAccountsPaged(authEntity(), pageIndex, pageSize)
+                                                             @DefaultValue("10") int pageSize,
+                                                             @DefaultValue("EXACT") PageCountMode countMode) {
+        return accountService.getAccountsPaged(authEntity(), pageIndex, pageSize, countMode)
             .map(page -> page.map(UserAccountDTO::fromAccount));
     }
 
+    @Query
+    @ReactiveTransactional
+    @Description("Get user net worth by currency")
+    public Uni<List<NetWorthDTO>> getUserNetWorth() {
+        return accountService.getNetWorth(authEntity())
+            .map(netWorth -> netWorth.stream()
+                .map(NetWorthDTO::fromNetWorth).toList());
+    }
+
+    @Query
+    @ReactiveTransactional
+    @Description("Get user account balance at a date time")
+    public Uni<BigDecimal> getUserAccountBalanceAt(String key, OffsetDateTime instant) {
+        return accountService.getAccountBalanceAt(authEntity(), key, instant)
+            .onItem().transform(Money::toDecimal);
+    }
+
     @Mutation
     @Description("Edit user account")
     public Uni<UserAccountDTO> editUserAccount(String key, UserAccountDTO account) {
-        return Uni.createFrom()
-            .item(authEntity())
-            .flatMap(user -> accountService.editAccount(user, key, account))
+        var user = authEntity();
+        return Panache
+            .withTransaction(() -> accountService.editAccount(user, key, account))
+            .onItem().invoke(accountService::balanceCommitted)
             .onItem().transform(UserAccountDTO::fromAccount);
     }
 
@@ -2,25 +2,34 @@ package com.h4j4x.expenses.api.resource;
 
 import com.h4j4x.expenses.api.domain.UserEntity;
 import com.h4j4x.expenses.api.model.UserDTO;
+import com.h4j4x.expenses.api.security.AuthMechanism;
+import com.h4j4x.expenses.api.service.TokenRevocationService;
 import com.h4j4x.expenses.api.service.UserService;
+import io.quarkus.hibernate.reactive.panache.Panache;
 import io.quarkus.hibernate.reactive.panache.common.runtime.ReactiveTransactional;
 import io.quarkus.security.identity.SecurityIdentity;
 import io.smallrye.mutiny.Uni;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import org.eclipse.microprofile.graphql.Description;
 import org.eclipse.microprofile.graphql.GraphQLApi;
 import org.eclipse.microprofile.graphql.Mutation;
 import org.eclipse.microprofile.graphql.Query;
 
 @GraphQLApi
-@ReactiveTransactional
 public class UserResource {
     private final SecurityIdentity identity;
 
     private final UserService userService;
 
-    public UserResource(SecurityIdentity identity, UserService userService) {
+    private final TokenRevocationService revocationService;
+
+    public UserResource(SecurityIdentity identity, UserService userService,
+                        TokenRevocationService revocationService) {
         this.identity = identity;
         this.userService = userService;
+        this.revocationService = revocationService;
     }
 
     @Query
@@ -34,12 +43,28 @@ public class UserResource {
     @Mutation
     @Description("Edit authenticated user")
     public Uni<UserDTO> editUser(UserDTO user) {
-        return Uni.createFrom()
-            .item(authEntity())
-            .flatMap(userEntity -> userService.editUser(userEntity, user))
+        var principal = authEntity();
+        // cached principals are dropped only after commit, so no request can cache the user as before the edit
+        return Panache
+            .withTransaction(() -> userService.editUser(principal, user))
+            .onItem().invoke(userEntity -> userService.invalidatePrincipal(principal.getEmail(), userEntity))
             .onItem().transform(UserDTO::fromEntity);
     }
 
+    @Mutation
+    @ReactiveTransactional
+    @Description("Sign out authenticated user, revoking the current token")
+    public Uni<Boolean> signOut() {
+        String tokenId = identity.getAttribute(AuthMechanism.TOKEN_ID_ATTRIBUTE);
+        Long expiration = identity.getAttribute(AuthMechanism.TOKEN_EXPIRATION_ATTRIBUTE);
+        if (tokenId == null || expiration == null) {
+            return Uni.createFrom().item(false);
+        }
+        var expiresAt = OffsetDateTime.ofInstant(Instant.ofEpochSecond(expiration), ZoneOffset.UTC);
+        return revocationService.revoke(tokenId, expiresAt)
+            .onItem().transform(revokedToken -> true);
+    }
+
     private UserEntity authEntity() {
         return (UserEntity) identity.getPrincipal();
     }
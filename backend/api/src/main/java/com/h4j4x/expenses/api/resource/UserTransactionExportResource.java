@@ -0,0 +1,65 @@
+package com.h4j4x.expenses.api.resource;
+
+import com.h4j4x.expenses.api.domain.UserEntity;
+import com.h4j4x.expenses.api.model.TransactionExportRow;
+import com.h4j4x.expenses.api.model.TransactionFilterDTO;
+import com.h4j4x.expenses.api.service.UserTransactionService;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.smallrye.mutiny.Multi;
+import java.time.OffsetDateTime;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.MediaType;
+import org.jboss.resteasy.reactive.RestStreamElementType;
+import org.jboss.resteasy.reactive.common.util.RestMediaType;
+
+@Path("/transactions/export")
+public class UserTransactionExportResource {
+    static final String TEXT_CSV = "text/csv";
+
+    private final SecurityIdentity identity;
+
+    private final UserTransactionService transactionService;
+
+    public UserTransactionExportResource(SecurityIdentity identity, UserTransactionService transactionService) {
+        this.identity = identity;
+        this.transactionService = transactionService;
+    }
+
+    @GET
+    @Path("/csv")
+    @Produces(TEXT_CSV)
+    public Multi<String> exportCsv(@QueryParam("accountKey") String accountKey,
+                                   @QueryParam("createdFrom") OffsetDateTime createdFrom,
+                                   @QueryParam("createdTo") OffsetDateTime createdTo) {
+        var rows = transactionService.exportTransactions(authEntity(), filter(accountKey, createdFrom, createdTo))
+            .onItem().transform(TransactionExportRow::toCsvLine);
+        return Multi.createBy().concatenating()
+            .streams(Multi.createFrom().item(TransactionExportRow.CSV_HEADER), rows);
+    }
+
+    @GET
+    @Path("/ndjson")
+    @Produces(RestMediaType.APPLICATION_NDJSON)
+    @RestStreamElementType(MediaType.APPLICATION_JSON)
+    public Multi<TransactionExportRow.Item> exportNdjson(@QueryParam("accountKey") String accountKey,
+                                                         @QueryParam("createdFrom") OffsetDateTime createdFrom,
+                                                         @QueryParam("createdTo") OffsetDateTime createdTo) {
+        return transactionService.exportTransactions(authEntity(), filter(accountKey, createdFrom, createdTo))
+            .onItem().transform(TransactionExportRow::toItem);
+    }
+
+    private TransactionFilterDTO filter(String accountKey, OffsetDateTime createdFrom, OffsetDateTime createdTo) {
+        var filter = new TransactionFilterDTO();
+        filter.setAccountKey(accountKey);
+        filter.setCreatedFrom(createdFrom);
+        filter.setCreatedTo(createdTo);
+        return filter;
+    }
+
+    private UserEntity authEntity() {
+        return (UserEntity) identity.getPrincipal();
+    }
+}
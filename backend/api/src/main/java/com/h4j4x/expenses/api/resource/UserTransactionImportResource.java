@@ -0,0 +1,51 @@
+package com.h4j4x.expenses.api.resource;
+
+import com.h4j4x.expenses.api.domain.UserEntity;
+import com.h4j4x.expenses.api.model.TransactionImportResult;
+import com.h4j4x.expenses.api.service.TransactionImportService;
+import com.h4j4x.expenses.api.statement.StatementFormat;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.mutiny.core.buffer.Buffer;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.DefaultValue;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.MediaType;
+
+@Path("/transactions/import")
+public class UserTransactionImportResource {
+    static final String APPLICATION_OFX = "application/x-ofx";
+
+    private final SecurityIdentity identity;
+
+    private final TransactionImportService importService;
+
+    public UserTransactionImportResource(SecurityIdentity identity, TransactionImportService importService) {
+        this.identity = identity;
+        this.importService = importService;
+    }
+
+    // the body is not a method parameter, so it is read from the request as it arrives instead of buffered
+    @POST
+    @Consumes({UserTransactionExportResource.TEXT_CSV, APPLICATION_OFX, MediaType.TEXT_PLAIN,
+        MediaType.APPLICATION_OCTET_STREAM})
+    @Produces(MediaType.APPLICATION_JSON)
+    public Uni<TransactionImportResult> importTransactions(@QueryParam("accountKey") String accountKey,
+                                                           @QueryParam("format") @DefaultValue("CSV")
+                                                           StatementFormat format,
+                                                           @Context HttpServerRequest request) {
+        var chunks = io.vertx.mutiny.core.http.HttpServerRequest.newInstance(request)
+            .toMulti()
+            .onItem().transform(Buffer::getBytes);
+        return importService.importTransactions(authEntity(), accountKey, format, chunks);
+    }
+
+    private UserEntity authEntity() {
+        return (UserEntity) identity.getPrincipal();
+    }
+}
@@ -0,0 +1,55 @@
+package com.h4j4x.expenses.api.resource;
+
+import com.h4j4x.expenses.api.domain.UserEntity;
+import com.h4j4x.expenses.api.model.CursorPage;
+import com.h4j4x.expenses.api.model.TransactionFilterDTO;
+import com.h4j4x.expenses.api.model.TransactionSettlementDTO;
+import com.h4j4x.expenses.api.model.TransactionStatus;
+import com.h4j4x.expenses.api.model.UserTransactionDTO;
+import com.h4j4x.expenses.api.service.UserTransactionService;
+import io.quarkus.hibernate.reactive.panache.common.runtime.ReactiveTransactional;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.smallrye.mutiny.Uni;
+import java.util.List;
+import org.eclipse.microprofile.graphql.*;
+
+@GraphQLApi
+@ReactiveTransactional
+public class UserTransactionResource {
+    private final SecurityIdentity identity;
+
+    private final UserTransactionService transactionService;
+
+    public UserTransactionResource(SecurityIdentity identity, UserTransactionService transactionService) {
+        this.identity = identity;
+        this.transactionService = transactionService;
+    }
+
+    @Query
+    @Description("Get user transactions, newest first, paged by cursor")
+    public Uni<CursorPage<UserTransactionDTO>> getUserTransactions(TransactionFilterDTO filter,
+                                                                   TransactionStatus status, String cursor,
+                                                                   @DefaultValue("20") int pageSize) {
+        return transactionService.getTransactionsPaged(authEntity(), filter, status, cursor, pageSize)
+            .map(page -> page.map(UserTransactionDTO::fromTransaction));
+    }
+
+    @Query
+    @Description("Search user transactions by notes, best match first, paged by cursor")
+    public Uni<CursorPage<UserTransactionDTO>> searchUserTransactions(String text, String cursor,
+                                                                      @DefaultValue("20") int pageSize) {
+        return transactionService.searchTransactions(authEntity(), text, cursor, pageSize)
+            .map(page -> page.map(UserTransactionDTO::fromTransaction));
+    }
+
+    @Mutation
+    @Description("Confirm or refund user pending transactions by keys or filter")
+    public Uni<TransactionSettlementDTO> settleUserTransactions(TransactionStatus status, List<String> keys,
+                                                               TransactionFilterDTO filter) {
+        return transactionService.settleTransactions(authEntity(), status, keys, filter);
+    }
+
+    private UserEntity authEntity() {
+        return (UserEntity) identity.getPrincipal();
+    }
+}
@@ -1,7 +1,9 @@
 package com.h4j4x.expenses.api.security;
 
 import com.h4j4x.expenses.api.domain.UserEntity;
+import com.h4j4x.expenses.api.service.TokenRevocationService;
 import com.h4j4x.expenses.api.service.UserService;
+import io.quarkus.security.AuthenticationFailedException;
 import io.quarkus.arc.Priority;
 import io.quarkus.security.identity.IdentityProviderManager;
 import io.quarkus.security.identity.SecurityIdentity;
@@ -17,37 +19,122 @@ import java.util.Set;
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.context.control.ActivateRequestContext;
 import javax.enterprise.inject.Alternative;
+import javax.ws.rs.core.HttpHeaders;
+import org.eclipse.microprofile.jwt.JsonWebToken;
 
 @ActivateRequestContext
 @Alternative
 @ApplicationScoped
 @Priority(1)
 public class AuthMechanism implements HttpAuthenticationMechanism {
+    public static final String TOKEN_ID_ATTRIBUTE = "token-id";
+    public static final String TOKEN_EXPIRATION_ATTRIBUTE = "token-expiration";
+    public static final String TOKEN_REVOKED_MESSAGE = "Token revoked";
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
     private final JWTAuthMechanism delegate;
 
     private final UserService userService;
 
-    public AuthMechanism(JWTAuthMechanism delegate, UserService userService) {
+    private final UserPrincipalCache principalCache;
+
+    private final UserTokenIssuer tokenIssuer;
+
+    private final VerifiedTokenCache tokenCache;
+
+    private final TokenRevocationService revocationService;
+
+    private final AuthMetrics authMetrics;
+
+    public AuthMechanism(JWTAuthMechanism delegate, UserService userService, UserPrincipalCache principalCache,
+                         UserTokenIssuer tokenIssuer, VerifiedTokenCache tokenCache,
+                         TokenRevocationService revocationService, AuthMetrics authMetrics) {
         this.delegate = delegate;
         this.userService = userService;
+        this.principalCache = principalCache;
+        this.tokenIssuer = tokenIssuer;
+        this.tokenCache = tokenCache;
+        this.revocationService = revocationService;
+        this.authMetrics = authMetrics;
     }
 
     @Override
     public Uni<SecurityIdentity> authenticate(RoutingContext context, IdentityProviderManager identityProviderManager) {
-        return delegate.authenticate(context, identityProviderManager)
-            .onItem().ifNotNull().transformToUni(identity -> userService
-                .findUserByEmail(identity.getPrincipal().getName())
+        return verifyToken(context, identityProviderManager)
+            .onItem().ifNotNull().call(this::checkNotRevoked)
+            .onItem().ifNotNull().transformToUni(identity -> findUser(identity)
                 .onItem().ifNotNull().transform(userEntity -> createSecurityIdentity(userEntity, identity)));
     }
 
+    private Uni<SecurityIdentity> verifyToken(RoutingContext context, IdentityProviderManager identityProviderManager) {
+        var token = bearerToken(context);
+        var verified = tokenCache.get(token);
+        if (verified != null) {
+            return authMetrics.time(AuthMetrics.AUTHENTICATE, "jwt_verify", Uni.createFrom().item(verified),
+                identity -> AuthMetrics.CACHED);
+        }
+        return authMetrics
+            .time(AuthMetrics.AUTHENTICATE, "jwt_verify", delegate.authenticate(context, identityProviderManager),
+                identity -> identity != null ? AuthMetrics.SUCCESS : AuthMetrics.ANONYMOUS)
+            .onItem().ifNotNull().invoke(identity -> tokenCache.put(token, identity));
+    }
+
+    private Uni<Boolean> checkNotRevoked(SecurityIdentity identity) {
+        if (identity.getPrincipal() instanceof JsonWebToken jwt) {
+            return authMetrics
+                .time(AuthMetrics.AUTHENTICATE, "revocation_check", revocationService.isRevoked(jwt.getTokenID()),
+                    revoked -> revoked ? AuthMetrics.REVOKED : AuthMetrics.SUCCESS)
+                .onItem().transform(revoked -> revoked ? null : true)
+                .onItem().ifNull().failWith(() -> new AuthenticationFailedException(TOKEN_REVOKED_MESSAGE));
+        }
+        return Uni.createFrom().item(true);
+    }
+
+    private String bearerToken(RoutingContext context) {
+        var authorization = context.request().getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization != null && authorization.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            return authorization.substring(BEARER_PREFIX.length()).trim();
+        }
+        return null;
+    }
+
+    private Uni<UserEntity> findUser(SecurityIdentity identity) {
+        if (identity.getPrincipal() instanceof JsonWebToken jwt) {
+            var claimsEntity = tokenIssuer.principalFromClaims(jwt);
+            if (claimsEntity != null) {
+                return authMetrics.time(AuthMetrics.AUTHENTICATE, "principal_lookup",
+                    Uni.createFrom().item(claimsEntity), userEntity -> AuthMetrics.CLAIMS);
+            }
+        }
+        return findUser(identity.getPrincipal().getName());
+    }
+
+    private Uni<UserEntity> findUser(String upn) {
+        var cached = principalCache.get(upn);
+        if (cached != null) {
+            return authMetrics.time(AuthMetrics.AUTHENTICATE, "principal_lookup",
+                Uni.createFrom().item(cached), userEntity -> AuthMetrics.CACHED);
+        }
+        return authMetrics
+            .time(AuthMetrics.AUTHENTICATE, "principal_lookup", userService.findUserByEmail(upn),
+                userEntity -> userEntity != null ? AuthMetrics.SUCCESS : AuthMetrics.UNKNOWN_USER)
+            .onItem().ifNotNull().invoke(userEntity -> principalCache.put(upn, userEntity));
+    }
+
     private SecurityIdentity createSecurityIdentity(UserEntity userEntity, SecurityIdentity identity) {
-        return QuarkusSecurityIdentity.builder()
+        var builder = QuarkusSecurityIdentity.builder()
             .setPrincipal(userEntity)
             .addAttributes(identity.getAttributes())
             .addCredentials(identity.getCredentials())
             .addRoles(identity.getRoles())
-            .setAnonymous(identity.isAnonymous())
-            .build();
+            .setAnonymous(identity.isAnonymous());
+        if (identity.getPrincipal() instanceof JsonWebToken jwt) {
+            builder
+                .addAttribute(TOKEN_ID_ATTRIBUTE, jwt.getTokenID())
+                .addAttribute(TOKEN_EXPIRATION_ATTRIBUTE, jwt.getExpirationTime());
+        }
+        return builder.build();
     }
 
     @Override
@@ -0,0 +1,90 @@
+package com.h4j4x.expenses.api.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.smallrye.mutiny.Uni;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import javax.enterprise.context.ApplicationScoped;
+
+/**
+ * Times each stage of the authentication flows. Timers are published as histograms named
+ * {@code auth.stage.duration} and tagged by flow, stage and outcome.
+ */
+@ApplicationScoped
+public class AuthMetrics {
+    public static final String AUTHENTICATE = "authenticate";
+    public static final String SIGN_IN = "sign_in";
+    public static final String SIGN_UP = "sign_up";
+
+    public static final String SUCCESS = "success";
+    public static final String CACHED = "cached";
+    public static final String CLAIMS = "claims";
+    public static final String ANONYMOUS = "anonymous";
+    public static final String REVOKED = "revoked";
+    public static final String UNKNOWN_USER = "unknown_user";
+    public static final String BAD_CREDENTIALS = "bad_credentials";
+    public static final String EMAIL_EXISTS = "email_exists";
+    public static final String ERROR = "error";
+
+    private static final String TIMER_NAME = "auth.stage.duration";
+
+    private final MeterRegistry registry;
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public AuthMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public <T> Uni<T> time(String flow, String stage, Uni<T> uni) {
+        return time(flow, stage, uni, item -> SUCCESS);
+    }
+
+    public <T> Uni<T> time(String flow, String stage, Uni<T> uni, Function<T, String> outcome) {
+        return time(flow, stage, uni, outcome, failure -> ERROR);
+    }
+
+    /**
+     * Times a stage from subscription until its item or failure.
+     *
+     * @param flow           authentication flow.
+     * @param stage          flow stage.
+     * @param uni            stage work.
+     * @param outcome        maps the stage item, possibly {@literal null}, to an outcome tag.
+     * @param failureOutcome maps the stage failure to an outcome tag.
+     * @param <T>            item type.
+     * @return timed stage work.
+     */
+    public <T> Uni<T> time(String flow, String stage, Uni<T> uni, Function<T, String> outcome,
+                           Function<Throwable, String> failureOutcome) {
+        return Uni.createFrom().deferred(() -> {
+            var sample = Timer.start(registry);
+            return uni.onItemOrFailure().invoke((item, failure) ->
+                sample.stop(timer(flow, stage, failure != null ? failureOutcome.apply(failure) : outcome.apply(item))));
+        });
+    }
+
+    public <T> T time(String flow, String stage, Supplier<T> supplier) {
+        var sample = Timer.start(registry);
+        var outcome = ERROR;
+        try {
+            var result = supplier.get();
+            outcome = SUCCESS;
+            return result;
+        } finally {
+            sample.stop(timer(flow, stage, outcome));
+        }
+    }
+
+    private Timer timer(String flow, String stage, String outcome) {
+        return timers.computeIfAbsent(flow + '|' + stage + '|' + outcome, key -> Timer.builder(TIMER_NAME)
+            .tag("flow", flow)
+            .tag("stage", stage)
+            .tag("outcome", outcome)
+            .publishPercentileHistogram()
+            .register(registry));
+    }
+}
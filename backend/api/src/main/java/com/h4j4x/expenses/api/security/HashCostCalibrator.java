@@ -0,0 +1,67 @@
+package com.h4j4x.expenses.api.security;
+
+import com.h4j4x.expenses.common.security.impl.PBKDF2StringHasher;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Finds the highest PBKDF2 iteration count whose p99 hash latency on the current host stays under a budget.
+ */
+public class HashCostCalibrator {
+    private static final String SAMPLE_VALUE = "calibration-sample-password";
+    private static final int SAMPLES = 25;
+    private static final int WARM_UP_ROUNDS = 10;
+    private static final int ITERATIONS_STEP = 100;
+
+    private final int keyLength;
+
+    private final int minIterations;
+
+    private final int maxIterations;
+
+    private final long budgetNanos;
+
+    public HashCostCalibrator(int keyLength, int minIterations, int maxIterations, Duration budget) {
+        this.keyLength = keyLength;
+        this.minIterations = minIterations;
+        this.maxIterations = Math.max(minIterations, maxIterations);
+        this.budgetNanos = budget.toNanos();
+    }
+
+    public int calibrate() throws GeneralSecurityException {
+        var minHasher = new PBKDF2StringHasher(minIterations, keyLength);
+        var salt = minHasher.salt();
+        for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+            minHasher.hash(SAMPLE_VALUE, salt);
+        }
+        var minLatency = p99Nanos(minIterations, salt);
+        if (minLatency >= budgetNanos) {
+            return minIterations;
+        }
+        // cost is linear in iterations, so extrapolate and step down until the budget holds
+        var iterations = round((long) ((double) minIterations * budgetNanos / minLatency));
+        while (iterations > minIterations && p99Nanos(iterations, salt) > budgetNanos) {
+            iterations = round((long) (iterations * 0.9));
+        }
+        return Math.max(iterations, minIterations);
+    }
+
+    private int round(long iterations) {
+        var bounded = Math.min(iterations, maxIterations);
+        return (int) Math.max(minIterations, bounded - bounded % ITERATIONS_STEP);
+    }
+
+    long p99Nanos(int iterations, String salt) throws GeneralSecurityException {
+        var hasher = new PBKDF2StringHasher(iterations, keyLength);
+        var latencies = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            var start = System.nanoTime();
+            hasher.hash(SAMPLE_VALUE, salt);
+            latencies[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+        var index = (int) Math.ceil(SAMPLES * 0.99) - 1;
+        return latencies[index];
+    }
+}
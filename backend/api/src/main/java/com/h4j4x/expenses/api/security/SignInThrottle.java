@@ -0,0 +1,79 @@
+package com.h4j4x.expenses.api.security;
+
+import com.h4j4x.expenses.common.ratelimit.StripedTokenBucketLimiter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Locale;
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Limits sign-in attempts per email and per client address, so password hashing can not be driven
+ * faster than the configured rates.
+ */
+@ApplicationScoped
+public class SignInThrottle {
+    private static final String METRIC_PREFIX = "auth.sign-in.throttle";
+
+    private final MeterRegistry registry;
+
+    @ConfigProperty(name = "app.auth.sign-in-throttle.enabled", defaultValue = "true")
+    Boolean enabled;
+
+    @ConfigProperty(name = "app.auth.sign-in-throttle.email-capacity", defaultValue = "5")
+    Integer emailCapacity;
+
+    @ConfigProperty(name = "app.auth.sign-in-throttle.address-capacity", defaultValue = "50")
+    Integer addressCapacity;
+
+    @ConfigProperty(name = "app.auth.sign-in-throttle.refill-period", defaultValue = "1m")
+    Duration refillPeriod;
+
+    @ConfigProperty(name = "app.auth.sign-in-throttle.max-keys", defaultValue = "50000")
+    Integer maxKeys;
+
+    private StripedTokenBucketLimiter<String> emailLimiter;
+
+    private StripedTokenBucketLimiter<String> addressLimiter;
+
+    public SignInThrottle(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @PostConstruct
+    void init() {
+        emailLimiter = new StripedTokenBucketLimiter<>(emailCapacity, refillPeriod, maxKeys);
+        addressLimiter = new StripedTokenBucketLimiter<>(addressCapacity, refillPeriod, maxKeys);
+        registerMetrics("email", emailLimiter);
+        registerMetrics("address", addressLimiter);
+    }
+
+    private void registerMetrics(String key, StripedTokenBucketLimiter<String> limiter) {
+        FunctionCounter.builder(METRIC_PREFIX + ".rejections", limiter, StripedTokenBucketLimiter::rejectionCount)
+            .tag("key", key)
+            .register(registry);
+        Gauge.builder(METRIC_PREFIX + ".keys", limiter, StripedTokenBucketLimiter::size)
+            .tag("key", key)
+            .register(registry);
+    }
+
+    /**
+     * Takes one attempt from the address and email buckets.
+     *
+     * @param email   email to sign in with, may be {@literal null}.
+     * @param address client address, may be {@literal null}.
+     * @return {@literal true} if the attempt is allowed.
+     */
+    public boolean tryAcquire(String email, String address) {
+        if (!enabled) {
+            return true;
+        }
+        if (address != null && !addressLimiter.tryAcquire(address)) {
+            return false;
+        }
+        return email == null || emailLimiter.tryAcquire(email.trim().toLowerCase(Locale.ROOT));
+    }
+}
@@ -2,18 +2,63 @@ package com.h4j4x.expenses.api.security;
 
 import com.h4j4x.expenses.common.security.StringHasher;
 import com.h4j4x.expenses.common.security.impl.PBKDF2StringHasher;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.Startup;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import javax.enterprise.inject.Disposes;
 import javax.inject.Singleton;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
 
 public class StringHasherProducer {
+    private static final Logger LOG = Logger.getLogger(StringHasherProducer.class);
+
     @ConfigProperty(name = "app.security.hash-iterations", defaultValue = "512")
     Integer iterations;
 
     @ConfigProperty(name = "app.security.hash-key-length", defaultValue = "128")
     Integer keyLength;
 
+    @ConfigProperty(name = "app.security.hash-calibration.enabled", defaultValue = "false")
+    Boolean calibrationEnabled;
+
+    @ConfigProperty(name = "app.security.hash-calibration.budget-millis", defaultValue = "20")
+    Integer calibrationBudgetMillis;
+
+    @ConfigProperty(name = "app.security.hash-calibration.max-iterations", defaultValue = "600000")
+    Integer calibrationMaxIterations;
+
+    @ConfigProperty(name = "app.security.hash-pool-size", defaultValue = "2")
+    Integer poolSize;
+
+    @ConfigProperty(name = "app.security.hash-queue-size", defaultValue = "64")
+    Integer queueSize;
+
+    @Startup
     @Singleton
-    StringHasher stringHasher() {
-        return new PBKDF2StringHasher(iterations, keyLength);
+    StringHasher stringHasher(MeterRegistry registry) throws GeneralSecurityException {
+        var hashIterations = iterations;
+        if (calibrationEnabled) {
+            var budget = Duration.ofMillis(calibrationBudgetMillis);
+            hashIterations = new HashCostCalibrator(keyLength, iterations, calibrationMaxIterations, budget)
+                .calibrate();
+            LOG.infof("Calibrated hash iterations to %d for a p99 budget of %d ms", hashIterations,
+                calibrationBudgetMillis);
+        }
+        var stringHasher = new PBKDF2StringHasher(hashIterations, keyLength);
+        Gauge.builder("security.hash.iterations", stringHasher, PBKDF2StringHasher::getIterations)
+            .register(registry);
+        return stringHasher;
+    }
+
+    @Singleton
+    StringHashingPool stringHashingPool(StringHasher stringHasher, MeterRegistry registry) {
+        return new StringHashingPool(stringHasher, poolSize, queueSize, registry);
+    }
+
+    void closeStringHashingPool(@Disposes StringHashingPool stringHashingPool) {
+        stringHashingPool.shutdown();
     }
 }
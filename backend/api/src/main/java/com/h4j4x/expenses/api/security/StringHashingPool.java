@@ -0,0 +1,111 @@
+package com.h4j4x.expenses.api.security;
+
+import com.h4j4x.expenses.common.security.StringHasher;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import javax.ws.rs.ServiceUnavailableException;
+
+/**
+ * Runs {@link StringHasher} work on a dedicated, bounded pool so slow hashes never block the event loop.
+ * Results are emitted back on the caller Vert.x context. When the queue is full, work fails fast with
+ * {@link ServiceUnavailableException}.
+ */
+public class StringHashingPool {
+    public static final String HASHING_BUSY_MESSAGE = "Server is busy, try again later";
+
+    private static final String METRIC_PREFIX = "security.hash";
+
+    private final StringHasher stringHasher;
+
+    private final ThreadPoolExecutor executor;
+
+    private final Timer hashTimer;
+
+    private final Timer matchTimer;
+
+    public StringHashingPool(StringHasher stringHasher, int poolSize, int queueSize, MeterRegistry registry) {
+        this.stringHasher = stringHasher;
+        var threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueSize), runnable -> {
+            var thread = new Thread(runnable, "string-hasher-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+        Gauge.builder(METRIC_PREFIX + ".queue.depth", executor, e -> e.getQueue().size())
+            .register(registry);
+        Gauge.builder(METRIC_PREFIX + ".active", executor, ThreadPoolExecutor::getActiveCount)
+            .register(registry);
+        hashTimer = Timer.builder(METRIC_PREFIX + ".duration")
+            .tag("operation", "hash")
+            .publishPercentileHistogram()
+            .register(registry);
+        matchTimer = Timer.builder(METRIC_PREFIX + ".duration")
+            .tag("operation", "match")
+            .publishPercentileHistogram()
+            .register(registry);
+    }
+
+    public String salt() {
+        return stringHasher.salt();
+    }
+
+    public Uni<String> hash(String string, String salt) {
+        return submit(hashTimer, () -> stringHasher.hash(string, salt));
+    }
+
+    public Uni<Boolean> match(String string, String salt, String hash) {
+        return submit(matchTimer, () -> stringHasher.match(string, salt, hash));
+    }
+
+    public boolean needsRehash(String hash) {
+        return stringHasher.needsRehash(hash);
+    }
+
+    public int poolSize() {
+        return executor.getMaximumPoolSize();
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> Uni<T> submit(Timer timer, Callable<T> task) {
+        return Uni.createFrom().emitter(emitter -> {
+            var context = Vertx.currentContext();
+            try {
+                executor.execute(() -> {
+                    T result;
+                    try {
+                        result = timer.recordCallable(task);
+                    } catch (Exception e) {
+                        emit(context, emitter::fail, e);
+                        return;
+                    }
+                    emit(context, emitter::complete, result);
+                });
+            } catch (RejectedExecutionException e) {
+                emitter.fail(new ServiceUnavailableException(HASHING_BUSY_MESSAGE));
+            }
+        });
+    }
+
+    private <T> void emit(Context context, Consumer<T> consumer, T value) {
+        if (context != null) {
+            context.runOnContext(ignored -> consumer.accept(value));
+        } else {
+            consumer.accept(value);
+        }
+    }
+}
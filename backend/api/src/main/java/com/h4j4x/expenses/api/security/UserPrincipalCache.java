@@ -0,0 +1,59 @@
+package com.h4j4x.expenses.api.security;
+
+import com.h4j4x.expenses.api.domain.UserEntity;
+import com.h4j4x.expenses.common.cache.ExpiringCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+@ApplicationScoped
+public class UserPrincipalCache {
+    private static final String METRIC_PREFIX = "auth.principal.cache";
+
+    private final MeterRegistry registry;
+
+    @ConfigProperty(name = "app.auth.principal-cache.max-size", defaultValue = "10000")
+    Integer maxSize;
+
+    @ConfigProperty(name = "app.auth.principal-cache.ttl", defaultValue = "5m")
+    Duration ttl;
+
+    private ExpiringCache<String, UserEntity> cache;
+
+    public UserPrincipalCache(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @PostConstruct
+    void init() {
+        cache = new ExpiringCache<>(maxSize, ttl);
+        FunctionCounter.builder(METRIC_PREFIX + ".hits", cache, ExpiringCache::hitCount)
+            .register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + ".misses", cache, ExpiringCache::missCount)
+            .register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + ".evictions", cache, ExpiringCache::evictionCount)
+            .register(registry);
+        Gauge.builder(METRIC_PREFIX + ".size", cache, ExpiringCache::size)
+            .register(registry);
+    }
+
+    public UserEntity get(String upn) {
+        return upn != null ? cache.get(upn) : null;
+    }
+
+    public void put(String upn, UserEntity user) {
+        if (upn != null && user != null) {
+            cache.put(upn, user);
+        }
+    }
+
+    public void invalidate(String upn) {
+        if (upn != null) {
+            cache.invalidate(upn);
+        }
+    }
+}
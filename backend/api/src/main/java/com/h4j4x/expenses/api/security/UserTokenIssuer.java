@@ -0,0 +1,88 @@
+package com.h4j4x.expenses.api.security;
+
+import com.h4j4x.expenses.api.domain.UserEntity;
+import com.h4j4x.expenses.api.model.UserToken;
+import com.h4j4x.expenses.common.util.NumberUtils;
+import io.smallrye.jwt.build.Jwt;
+import java.time.Duration;
+import java.util.UUID;
+import javax.enterprise.context.ApplicationScoped;
+import javax.json.JsonString;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.jwt.Claims;
+import org.eclipse.microprofile.jwt.JsonWebToken;
+
+/**
+ * Signs user access tokens. When claims tokens are enabled, tokens also carry the user id, name and token
+ * version, so the principal can be rebuilt without reading the users table. Claims tokens are short-lived
+ * and renewed through the refresh endpoint, which is where the token version is checked.
+ */
+@ApplicationScoped
+public class UserTokenIssuer {
+    static final String USER_ID_CLAIM = "uid";
+    static final String USER_NAME_CLAIM = "name";
+    static final String TOKEN_VERSION_CLAIM = "tv";
+
+    @ConfigProperty(name = "mp.jwt.verify.issuer")
+    String jwtIssuer;
+
+    @ConfigProperty(name = "app.auth.token-expiration-in-days", defaultValue = "30")
+    Integer tokenExpirationInDays;
+
+    @ConfigProperty(name = "app.auth.token-claims-enabled", defaultValue = "false")
+    Boolean claimsEnabled;
+
+    @ConfigProperty(name = "app.auth.claims-token-expiration", defaultValue = "15m")
+    Duration claimsTokenExpiration;
+
+    public boolean isClaimsEnabled() {
+        return claimsEnabled;
+    }
+
+    public UserToken createToken(UserEntity userEntity) {
+        var builder = Jwt.issuer(jwtIssuer)
+            .upn(userEntity.getEmail())
+            .claim(Claims.jti.name(), UUID.randomUUID().toString());
+        var expiresIn = Duration.ofDays(tokenExpirationInDays);
+        if (claimsEnabled) {
+            expiresIn = claimsTokenExpiration;
+            builder
+                .claim(USER_ID_CLAIM, userEntity.getId())
+                .claim(USER_NAME_CLAIM, userEntity.getName())
+                .claim(TOKEN_VERSION_CLAIM, userEntity.getTokenVersion());
+        }
+        var token = builder
+            .expiresIn(expiresIn)
+            .sign();
+        return new UserToken(token, expiresIn.toHours(), expiresIn.toSeconds());
+    }
+
+    /**
+     * Rebuilds the user principal from token claims.
+     *
+     * @param jwt verified token.
+     * @return user principal or {@literal null} if claims tokens are disabled or the token has no user claims.
+     */
+    public UserEntity principalFromClaims(JsonWebToken jwt) {
+        if (!claimsEnabled) {
+            return null;
+        }
+        var userId = NumberUtils.parseLong(claimString(jwt, USER_ID_CLAIM));
+        var tokenVersion = NumberUtils.parseLong(claimString(jwt, TOKEN_VERSION_CLAIM));
+        if (userId == null || tokenVersion == null) {
+            return null;
+        }
+        var userEntity = new UserEntity(claimString(jwt, USER_NAME_CLAIM), jwt.getName(), null);
+        userEntity.setId(userId);
+        userEntity.setTokenVersion(tokenVersion.intValue());
+        return userEntity;
+    }
+
+    private String claimString(JsonWebToken jwt, String claim) {
+        Object value = jwt.getClaim(claim);
+        if (value instanceof JsonString jsonString) {
+            return jsonString.getString();
+        }
+        return value != null ? value.toString() : null;
+    }
+}
@@ -0,0 +1,81 @@
+package com.h4j4x.expenses.api.security;
+
+import com.h4j4x.expenses.common.cache.ExpiringCache;
+import com.h4j4x.expenses.common.util.HexUtils;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.security.identity.SecurityIdentity;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.jwt.JsonWebToken;
+
+/**
+ * Keeps already verified token identities, keyed by the SHA-256 digest of the raw token so keys carry no
+ * credential. Cached identities still hold the verified {@link JsonWebToken}, raw token included, so they must
+ * never be logged or exposed. Entries never outlive the token expiration.
+ */
+@ApplicationScoped
+public class VerifiedTokenCache {
+    private static final String METRIC_PREFIX = "auth.token.cache";
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    private final MeterRegistry registry;
+
+    @ConfigProperty(name = "app.auth.token-cache.enabled", defaultValue = "true")
+    Boolean enabled;
+
+    @ConfigProperty(name = "app.auth.token-cache.max-size", defaultValue = "10000")
+    Integer maxSize;
+
+    @ConfigProperty(name = "app.auth.token-cache.ttl", defaultValue = "5m")
+    Duration ttl;
+
+    private ExpiringCache<String, SecurityIdentity> cache;
+
+    public VerifiedTokenCache(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @PostConstruct
+    void init() {
+        cache = new ExpiringCache<>(maxSize, ttl);
+        FunctionCounter.builder(METRIC_PREFIX + ".hits", cache, ExpiringCache::hitCount)
+            .register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + ".misses", cache, ExpiringCache::missCount)
+            .register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + ".evictions", cache, ExpiringCache::evictionCount)
+            .register(registry);
+        Gauge.builder(METRIC_PREFIX + ".size", cache, ExpiringCache::size)
+            .register(registry);
+    }
+
+    public SecurityIdentity get(String token) {
+        if (!enabled || token == null) {
+            return null;
+        }
+        return cache.get(digest(token));
+    }
+
+    public void put(String token, SecurityIdentity identity) {
+        if (enabled && token != null && identity.getPrincipal() instanceof JsonWebToken jwt) {
+            cache.put(digest(token), identity, Instant.ofEpochSecond(jwt.getExpirationTime()));
+        }
+    }
+
+    private String digest(String token) {
+        try {
+            var digest = MessageDigest.getInstance(DIGEST_ALGORITHM)
+                .digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexUtils.toHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.h4j4x.expenses.api.service;
+
+import com.h4j4x.expenses.api.model.AccountBalanceEvent;
+import com.h4j4x.expenses.common.util.NumberUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.hibernate.reactive.panache.Panache;
+import io.smallrye.common.vertx.VertxContext;
+import io.smallrye.reactive.messaging.kafka.api.IncomingKafkaRecordMetadata;
+import io.vertx.core.Vertx;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.reactive.messaging.Acknowledgment;
+import org.eclipse.microprofile.reactive.messaging.Incoming;
+import org.eclipse.microprofile.reactive.messaging.Message;
+import org.jboss.logging.Logger;
+
+/**
+ * Merges balance update messages per account over a time window, so a burst of transactions on one
+ * account causes a single balance update. Updates of different accounts run concurrently up to the
+ * in-flight limit, while updates of the same account never overlap. Waiting messages are bounded: once the limit is
+ * reached, consuming the next message waits for room, so the connector pauses polling while updates fall behind.
+ * Messages are acknowledged only once
+ * the update of their account is committed, and negatively acknowledged if it fails or misses its deadline, which
+ * sends them to the dead letter topic. A later message of the same account also applies what the failed one missed.
+ */
+@ApplicationScoped
+public class AccountBalanceCoalescer {
+    private static final Logger LOG = Logger.getLogger(AccountBalanceCoalescer.class);
+    private static final String METRIC_PREFIX = "account.balance";
+
+    private final UserAccountService accountService;
+
+    private final Vertx vertx;
+
+    private final Counter receivedMessages;
+
+    private final Counter balanceUpdates;
+
+    @ConfigProperty(name = "app.account.balance-coalesce-window", defaultValue = "500ms")
+    Duration window;
+
+    @ConfigProperty(name = "app.account.balance-max-in-flight", defaultValue = "8")
+    Integer maxInFlight;
+
+    @ConfigProperty(name = "app.account.balance-update-deadline", defaultValue = "30s")
+    Duration deadline;
+
+    @ConfigProperty(name = "app.account.balance-max-pending", defaultValue = "1000")
+    Integer maxPending;
+
+    private final Map<Long, List<Message<String>>> pending = new LinkedHashMap<>();
+
+    private final Set<Long> inFlight = new HashSet<>();
+
+    private int pendingCount;
+
+    // completed once the pending messages drop below the limit, messages are consumed one at a time
+    private CompletableFuture<Void> room;
+
+    private boolean flushScheduled;
+
+    public AccountBalanceCoalescer(UserAccountService accountService, Vertx vertx, MeterRegistry registry) {
+        this.accountService = accountService;
+        this.vertx = vertx;
+        receivedMessages = Counter.builder(METRIC_PREFIX + ".messages")
+            .register(registry);
+        balanceUpdates = Counter.builder(METRIC_PREFIX + ".updates")
+            .register(registry);
+        Gauge.builder(METRIC_PREFIX + ".in-flight", this, AccountBalanceCoalescer::inFlightCount)
+            .register(registry);
+        Gauge.builder(METRIC_PREFIX + ".pending", this, AccountBalanceCoalescer::pendingCount)
+            .register(registry);
+    }
+
+    @Incoming("user-account-transactions-in")
+    @Acknowledgment(Acknowledgment.Strategy.MANUAL)
+    public CompletionStage<Void> consume(Message<String> message) {
+        receivedMessages.increment();
+        var accountId = accountId(message);
+        if (accountId == null) {
+            return message.ack();
+        }
+        // completes while there is room so the next messages can be merged, acknowledgement comes after the update
+        return add(accountId, message);
+    }
+
+    // events are keyed by account id, the payload is only read for records published without key
+    private Long accountId(Message<String> message) {
+        var key = message.getMetadata(IncomingKafkaRecordMetadata.class)
+            .map(AccountBalanceCoalescer::recordKey)
+            .map(NumberUtils::parseLong);
+        if (key.isPresent()) {
+            return key.get();
+        }
+        var event = AccountBalanceEvent.fromPayload(message.getPayload());
+        return event != null ? event.accountId() : null;
+    }
+
+    // keys are read with a string deserializer, see the channel configuration
+    private static String recordKey(IncomingKafkaRecordMetadata<?, ?> metadata) {
+        return metadata.getKey() != null ? metadata.getKey().toString() : null;
+    }
+
+    private synchronized CompletionStage<Void> add(Long accountId, Message<String> message) {
+        pending.computeIfAbsent(accountId, id -> new ArrayList<>()).add(message);
+        pendingCount++;
+        scheduleFlush();
+        if (pendingCount < maxPending) {
+            return CompletableFuture.completedFuture(null);
+        }
+        room = new CompletableFuture<>();
+        return room;
+    }
+
+    private synchronized void scheduleFlush() {
+        if (!flushScheduled && !pending.isEmpty()) {
+            flushScheduled = true;
+            vertx.setTimer(Math.max(1, window.toMillis()), timerId -> flush());
+        }
+    }
+
+    // takes pending accounts that are not being updated, up to the in-flight limit
+    private synchronized Map<Long, List<Message<String>>> take() {
+        flushScheduled = false;
+        var taken = new LinkedHashMap<Long, List<Message<String>>>();
+        var iterator = pending.entrySet().iterator();
+        while (iterator.hasNext() && inFlight.size() < maxInFlight) {
+            var entry = iterator.next();
+            if (inFlight.add(entry.getKey())) {
+                taken.put(entry.getKey(), entry.getValue());
+                pendingCount -= entry.getValue().size();
+                iterator.remove();
+            }
+        }
+        return taken;
+    }
+
+    private synchronized void release(Long accountId) {
+        inFlight.remove(accountId);
+        scheduleFlush();
+    }
+
+    private synchronized int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private synchronized int pendingCount() {
+        return pendingCount;
+    }
+
+    // completed outside the lock, the next message is consumed by the caller of complete
+    private void signalRoom() {
+        CompletableFuture<Void> waiting;
+        synchronized (this) {
+            if (room == null || pendingCount >= maxPending) {
+                return;
+            }
+            waiting = room;
+            room = null;
+        }
+        waiting.complete(null);
+    }
+
+    private void flush() {
+        take().forEach((accountId, messages) ->
+            // every update gets its own duplicated context, so each one has its own hibernate reactive session
+            VertxContext.createNewDuplicatedContext(vertx.getOrCreateContext())
+                .runOnContext(ignored -> updateBalance(accountId, messages)));
+        signalRoom();
+    }
+
+    private void updateBalance(Long accountId, List<Message<String>> messages) {
+        // messages are settled once, by the update end or by the deadline, whichever comes first
+        var settled = new AtomicBoolean();
+        var deadlineTimer = vertx.setTimer(Math.max(1, deadline.toMillis()), timerId -> {
+            if (settled.compareAndSet(false, true)) {
+                LOG.warnf("Account %d balance update missed its deadline", accountId);
+                var e = new TimeoutException();
+                messages.forEach(message -> message.nack(e));
+            }
+        });
+        Panache.withTransaction(() -> accountService.updateAccountBalance(accountId))
+            // the account stays in flight until the update really ends, even past its deadline
+            .onTermination().invoke(() -> {
+                vertx.cancelTimer(deadlineTimer);
+                release(accountId);
+            })
+            .subscribe().with(account -> {
+                balanceUpdates.increment();
+                accountService.balanceCommitted(account);
+                if (settled.compareAndSet(false, true)) {
+                    messages.forEach(Message::ack);
+                }
+            }, e -> {
+                LOG.warnf(e, "Could not update account %d balance", accountId);
+                if (settled.compareAndSet(false, true)) {
+                    messages.forEach(message -> message.nack(e));
+                }
+            });
+    }
+}
@@ -0,0 +1,173 @@
+package com.h4j4x.expenses.api.service;
+
+import com.h4j4x.expenses.api.domain.UserAccount;
+import com.h4j4x.expenses.api.domain.UserTransaction;
+import com.h4j4x.expenses.api.model.TransactionCreationWay;
+import com.h4j4x.expenses.api.model.TransactionStatus;
+import com.h4j4x.expenses.api.repository.UserAccountRepository;
+import com.h4j4x.expenses.api.repository.UserTransactionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.hibernate.reactive.panache.Panache;
+import io.quarkus.scheduler.Scheduled;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import javax.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Resolves {@link TransactionStatus#ADJUST_PENDING} transactions, whose amount is the balance the user asked for.
+ * Accounts with pending adjustments are locked in batches, skipping accounts locked elsewhere, and all of an
+ * account's adjustments are resolved together: only the latest one sets the balance, through a confirmed delta
+ * transaction, and every pending adjustment of the account is marked {@link TransactionStatus#ADJUSTED}. An
+ * adjustment older than one already applied is superseded without touching the balance.
+ */
+@ApplicationScoped
+public class AccountBalanceReconciler {
+    private static final Logger LOG = Logger.getLogger(AccountBalanceReconciler.class);
+    private static final String METRIC_PREFIX = "account.balance.adjustments";
+
+    private final UserTransactionRepository transactionRepo;
+
+    private final UserAccountRepository accountRepo;
+
+    private final UserAccountService accountService;
+
+    private final Counter reconciledCounter;
+
+    private final Counter supersededCounter;
+
+    private final DistributionSummary batchSize;
+
+    private final AtomicLong backlog = new AtomicLong();
+
+    @ConfigProperty(name = "app.account.balance-reconcile.batch-size", defaultValue = "200")
+    Integer maxBatchSize;
+
+    public AccountBalanceReconciler(UserTransactionRepository transactionRepo, UserAccountRepository accountRepo,
+                                    UserAccountService accountService, MeterRegistry registry) {
+        this.transactionRepo = transactionRepo;
+        this.accountRepo = accountRepo;
+        this.accountService = accountService;
+        reconciledCounter = Counter.builder(METRIC_PREFIX + ".reconciled")
+            .description("Accounts whose balance was adjusted")
+            .register(registry);
+        supersededCounter = Counter.builder(METRIC_PREFIX + ".superseded")
+            .description("Adjustments replaced by a later one of the same account")
+            .register(registry);
+        batchSize = DistributionSummary.builder(METRIC_PREFIX + ".batch.size")
+            .register(registry);
+        Gauge.builder(METRIC_PREFIX + ".backlog", backlog, AtomicLong::get)
+            .description("Pending adjustments at the last run")
+            .register(registry);
+    }
+
+    @Scheduled(every = "${app.account.balance-reconcile.every:30s}",
+        concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    Uni<Void> reconcile() {
+        return Panache.withTransaction(() -> transactionRepo.countByStatus(TransactionStatus.ADJUST_PENDING))
+            .onItem().invoke(backlog::set)
+            .onItem().transformToUni(count -> Multi.createBy().repeating()
+                .uni(() -> Panache.withTransaction(this::reconcileBatch)
+                    .onItem().invoke(accounts -> accounts.forEach(accountService::balanceCommitted)))
+                .whilst(accounts -> accounts.size() == maxBatchSize)
+                .collect().last())
+            .onFailure().invoke(e -> LOG.warn("Could not reconcile balance adjustments", e))
+            .onFailure().recoverWithNull()
+            .replaceWithVoid();
+    }
+
+    /**
+     * Reconciles the adjustments of the next batch of accounts. Must run in a transaction.
+     *
+     * @return reconciled accounts.
+     */
+    Uni<List<UserAccount>> reconcileBatch() {
+        return accountRepo.lockNextWithTransactionStatus(TransactionStatus.ADJUST_PENDING, maxBatchSize)
+            .flatMap(accounts -> {
+                if (accounts.isEmpty()) {
+                    return Uni.createFrom().item(accounts);
+                }
+                // one account at a time, the session is not safe for concurrent use
+                return Multi.createFrom().iterable(accounts)
+                    .onItem().transformToUniAndConcatenate(this::reconcileAccount)
+                    .collect().with(Collectors.summingInt(Integer::intValue))
+                    .onItem().transform(adjustments -> {
+                        batchSize.record(adjustments);
+                        backlog.updateAndGet(count -> Math.max(0, count - adjustments));
+                        return accounts;
+                    });
+            });
+    }
+
+    /**
+     * Resolves the pending adjustments of a locked account.
+     *
+     * @param account locked account.
+     * @return resolved adjustments count.
+     */
+    private Uni<Integer> reconcileAccount(UserAccount account) {
+        return transactionRepo.findByAccountAndStatus(account, TransactionStatus.ADJUST_PENDING)
+            .flatMap(adjustments -> {
+                if (adjustments.isEmpty()) {
+                    return Uni.createFrom().item(0);
+                }
+                var latest = adjustments.get(adjustments.size() - 1);
+                return transactionRepo.findLastCreatedAtByAccountAndStatus(account, TransactionStatus.ADJUSTED)
+                    .flatMap(lastAdjustedAt -> {
+                        if (lastAdjustedAt != null && latest.getCreatedAt().isBefore(lastAdjustedAt)) {
+                            // a later adjustment already set the balance
+                            adjustments.forEach(adjustment -> adjustment.setStatus(TransactionStatus.ADJUSTED));
+                            supersededCounter.increment(adjustments.size());
+                            return Uni.createFrom().item(adjustments.size());
+                        }
+                        return adjustBalance(account, adjustments, latest)
+                            .onItem().invoke(() -> {
+                                reconciledCounter.increment();
+                                supersededCounter.increment(adjustments.size() - 1);
+                            })
+                            .replaceWith(adjustments.size());
+                    });
+            });
+    }
+
+    private Uni<UserAccount> adjustBalance(UserAccount account, List<UserTransaction> adjustments,
+                                           UserTransaction latest) {
+        // database precision, so the delta confirmation matches the window end exactly
+        var now = OffsetDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        return transactionRepo
+            .applyConfirmedTransactions(account)
+            .flatMap(pendingSum -> {
+                account.setBalance(Math.addExact(account.getBalance(), pendingSum.amount()));
+                account.setBalanceUpdatedAt(now);
+                return transactionRepo.sumAppliedTransactionsInWindow(account, latest.getCreatedAt(), now);
+            })
+            .flatMap(sinceRequested -> {
+                // the requested balance holds at the adjustment creation, keep what was confirmed since
+                var target = Math.addExact(latest.getAmount(), sinceRequested.amount());
+                var delta = Math.subtractExact(target, account.getBalance());
+                adjustments.forEach(adjustment -> adjustment.setStatus(TransactionStatus.ADJUSTED));
+                account.setBalance(target);
+                if (delta == 0) {
+                    return accountRepo.save(account);
+                }
+                var transaction = new UserTransaction(account,
+                    UserAccountService.TRANSACTION_ADJUSTED_BALANCE_NOTES, delta);
+                transaction.setCreationWay(TransactionCreationWay.SYSTEM);
+                transaction.setConfirmedAt(now);
+                transaction.setStatus(TransactionStatus.CONFIRMED);
+                // the target balance already holds it
+                transaction.setBalanceApplied(true);
+                return transactionRepo.save(transaction)
+                    .chain(() -> accountRepo.save(account));
+            });
+    }
+}
@@ -0,0 +1,137 @@
+package com.h4j4x.expenses.api.service;
+
+import com.h4j4x.expenses.api.domain.AccountBalanceSnapshot;
+import com.h4j4x.expenses.api.domain.UserAccount;
+import com.h4j4x.expenses.api.model.SnapshotPeriod;
+import com.h4j4x.expenses.api.model.TransactionStatus;
+import com.h4j4x.expenses.api.repository.AccountBalanceSnapshotRepository;
+import com.h4j4x.expenses.api.repository.UserAccountRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.hibernate.reactive.panache.Panache;
+import io.quarkus.scheduler.Scheduled;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.stream.Collectors;
+import javax.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Keeps one balance snapshot per account at every period start, so a historical balance is the nearest
+ * snapshot plus the sum of at most one period of transactions. Snapshots and historical balances only count
+ * transactions applied to the account balance, like the balance itself. Snapshots are taken under the account
+ * lock, and a transaction applied later with an earlier confirmation is added to the snapshots it missed.
+ */
+@ApplicationScoped
+public class AccountBalanceSnapshotService {
+    private static final Logger LOG = Logger.getLogger(AccountBalanceSnapshotService.class);
+    private static final OffsetDateTime EPOCH = Instant.EPOCH.atOffset(ZoneOffset.UTC);
+
+    private final AccountBalanceSnapshotRepository snapshotRepo;
+
+    private final UserAccountRepository accountRepo;
+
+    private final UserTransactionService transactionService;
+
+    private final Counter snapshotsCounter;
+
+    @ConfigProperty(name = "app.account.balance-snapshot.period", defaultValue = "DAY")
+    SnapshotPeriod period;
+
+    @ConfigProperty(name = "app.account.balance-snapshot.batch-size", defaultValue = "100")
+    Integer batchSize;
+
+    @ConfigProperty(name = "app.account.balance-snapshot.max-periods", defaultValue = "31")
+    Integer maxPeriods;
+
+    public AccountBalanceSnapshotService(AccountBalanceSnapshotRepository snapshotRepo,
+                                         UserAccountRepository accountRepo,
+                                         UserTransactionService transactionService,
+                                         MeterRegistry registry) {
+        this.snapshotRepo = snapshotRepo;
+        this.accountRepo = accountRepo;
+        this.transactionService = transactionService;
+        snapshotsCounter = Counter.builder("account.balance.snapshots.created")
+            .register(registry);
+    }
+
+    public Uni<Long> balanceAt(UserAccount account, OffsetDateTime dateTime) {
+        return snapshotRepo.findLatestByAccountAtOrBefore(account, dateTime)
+            .flatMap(snapshot -> {
+                var from = snapshot != null ? snapshot.getTakenAt() : EPOCH;
+                var balance = snapshot != null ? snapshot.getBalance() : 0L;
+                return transactionService
+                    .sumAppliedTransactionsInWindow(account, from, dateTime)
+                    .onItem().transform(balanceSum -> Math.addExact(balance, balanceSum.amount()));
+            });
+    }
+
+    @Scheduled(cron = "${app.account.balance-snapshot.cron:0 10 0 * * ?}",
+        concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    Uni<Void> takeSnapshots() {
+        var until = period.start(OffsetDateTime.now());
+        return snapshotBatchesAfter(0L, until)
+            .onItem().invoke(count -> LOG.infof("Took %d account balance snapshots", count))
+            .onFailure().invoke(e -> LOG.warn("Could not take account balance snapshots", e))
+            .onFailure().recoverWithNull()
+            .replaceWithVoid();
+    }
+
+    private Uni<Integer> snapshotBatchesAfter(Long accountId, OffsetDateTime until) {
+        return Panache.withTransaction(() -> accountRepo.findBatchAfterId(accountId, batchSize))
+            .flatMap(accounts -> {
+                if (accounts.isEmpty()) {
+                    return Uni.createFrom().item(0);
+                }
+                var lastId = accounts.get(accounts.size() - 1).getId();
+                return Multi.createFrom().iterable(accounts)
+                    .onItem().transformToUniAndConcatenate(account -> Panache
+                        .withTransaction(() -> snapshotAccount(account, until)))
+                    .collect().with(Collectors.summingInt(Integer::intValue))
+                    .flatMap(count -> accounts.size() < batchSize
+                        ? Uni.createFrom().item(count)
+                        : snapshotBatchesAfter(lastId, until).onItem().transform(next -> count + next));
+            });
+    }
+
+    /**
+     * Takes the missing snapshots of the account up to the given period start, at most {@code maxPeriods}
+     * per call so a long gap is filled over several runs.
+     *
+     * @param account account to snapshot.
+     * @param until   last period start to snapshot.
+     * @return snapshots taken.
+     */
+    Uni<Integer> snapshotAccount(UserAccount account, OffsetDateTime until) {
+        // balance updates apply transactions under the same lock, so none is half applied while summing
+        return accountRepo.lockById(account.getId())
+            .flatMap(snapshotRepo::findLatestByAccount)
+            .flatMap(latest -> {
+                if (latest == null) {
+                    var takenAt = period.next(period.start(account.getCreatedAt()));
+                    return takeSnapshots(account, EPOCH, 0L, takenAt, until, maxPeriods);
+                }
+                return takeSnapshots(account, latest.getTakenAt(), latest.getBalance(),
+                    period.next(latest.getTakenAt()), until, maxPeriods);
+            });
+    }
+
+    private Uni<Integer> takeSnapshots(UserAccount account, OffsetDateTime from, long balance,
+                                       OffsetDateTime takenAt, OffsetDateTime until, int remaining) {
+        if (remaining <= 0 || takenAt.isAfter(until)) {
+            return Uni.createFrom().item(0);
+        }
+        return transactionService
+            .sumAppliedTransactionsInWindow(account, from, takenAt)
+            .flatMap(balanceSum -> snapshotRepo
+                .save(new AccountBalanceSnapshot(account, takenAt, Math.addExact(balance, balanceSum.amount()))))
+            .onItem().invoke(snapshot -> snapshotsCounter.increment())
+            .flatMap(snapshot -> takeSnapshots(account, takenAt, snapshot.getBalance(), period.next(takenAt),
+                until, remaining - 1))
+            .onItem().transform(count -> count + 1);
+    }
+}
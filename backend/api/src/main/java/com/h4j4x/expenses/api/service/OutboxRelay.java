@@ -0,0 +1,95 @@
+package com.h4j4x.expenses.api.service;
+
+import com.h4j4x.expenses.api.domain.OutboxEvent;
+import com.h4j4x.expenses.api.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.hibernate.reactive.panache.Panache;
+import io.quarkus.scheduler.Scheduled;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.reactive.messaging.MutinyEmitter;
+import io.smallrye.reactive.messaging.kafka.api.OutgoingKafkaRecordMetadata;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.stream.Collectors;
+import javax.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.reactive.messaging.Channel;
+import org.eclipse.microprofile.reactive.messaging.Message;
+import org.jboss.logging.Logger;
+
+/**
+ * Publishes outbox events written along with their business rows. Batches are locked with
+ * {@code SKIP LOCKED}, so several instances can relay at once, and deleted only after every event of the
+ * batch is acknowledged by the broker. A failure rolls the batch back to be retried, so delivery is at least once.
+ */
+@ApplicationScoped
+public class OutboxRelay {
+    private static final Logger LOG = Logger.getLogger(OutboxRelay.class);
+    private static final String METRIC_PREFIX = "outbox.relay";
+
+    private final OutboxEventRepository outboxRepo;
+
+    private final Timer lagTimer;
+
+    private final DistributionSummary batchSize;
+
+    @Channel("user-account-transactions-out")
+    MutinyEmitter<String> eventEmitter;
+
+    @ConfigProperty(name = "app.outbox.batch-size", defaultValue = "200")
+    Integer maxBatchSize;
+
+    public OutboxRelay(OutboxEventRepository outboxRepo, MeterRegistry registry) {
+        this.outboxRepo = outboxRepo;
+        lagTimer = Timer.builder(METRIC_PREFIX + ".lag")
+            .description("Time from event creation to publication")
+            .publishPercentileHistogram()
+            .register(registry);
+        batchSize = DistributionSummary.builder(METRIC_PREFIX + ".batch.size")
+            .register(registry);
+    }
+
+    @Scheduled(every = "${app.outbox.relay-every:1s}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    Uni<Void> relay() {
+        return Multi.createBy().repeating()
+            .uni(() -> Panache.withTransaction(this::relayBatch))
+            .whilst(count -> count.intValue() == maxBatchSize)
+            .collect().last()
+            .onFailure().invoke(e -> LOG.warn("Could not relay outbox events", e))
+            .onFailure().recoverWithNull()
+            .replaceWithVoid();
+    }
+
+    Uni<Integer> relayBatch() {
+        return outboxRepo.lockNextBatch(maxBatchSize)
+            .flatMap(events -> {
+                if (events.isEmpty()) {
+                    return Uni.createFrom().item(0);
+                }
+                var published = events.stream()
+                    .map(this::publish)
+                    .collect(Collectors.toList());
+                var ids = events.stream()
+                    .map(OutboxEvent::getId)
+                    .collect(Collectors.toList());
+                return Uni.join().all(published).andFailFast()
+                    .chain(() -> outboxRepo.deleteByIds(ids))
+                    .onItem().transform(deleted -> {
+                        batchSize.record(events.size());
+                        var now = OffsetDateTime.now();
+                        events.forEach(event -> lagTimer.record(Duration.between(event.getCreatedAt(), now)));
+                        return events.size();
+                    });
+            });
+    }
+
+    private Uni<Void> publish(OutboxEvent event) {
+        var metadata = OutgoingKafkaRecordMetadata.<String>builder()
+            .withKey(event.getEventKey())
+            .build();
+        return eventEmitter.sendMessage(Message.of(event.getPayload()).addMetadata(metadata));
+    }
+}
@@ -0,0 +1,123 @@
+package com.h4j4x.expenses.api.service;
+
+import com.h4j4x.expenses.api.domain.RevokedToken;
+import com.h4j4x.expenses.api.repository.RevokedTokenRepository;
+import com.h4j4x.expenses.common.filter.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.hibernate.reactive.panache.Panache;
+import io.quarkus.scheduler.Scheduled;
+import io.smallrye.mutiny.Uni;
+import java.time.OffsetDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import javax.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Tracks revoked token ids. A Bloom filter of revoked ids answers most checks in memory, so the database
+ * is only queried when the filter reports a possible match. The filter is updated on every local
+ * revocation and rebuilt periodically, which also picks up revocations made by other instances.
+ */
+@ApplicationScoped
+public class TokenRevocationService {
+    private static final Logger LOG = Logger.getLogger(TokenRevocationService.class);
+    private static final String METRIC_PREFIX = "auth.revocation";
+
+    private final RevokedTokenRepository revokedTokenRepo;
+
+    private final Counter filterHits;
+
+    private final Counter filterFalsePositives;
+
+    @ConfigProperty(name = "app.auth.revocation.expected-tokens", defaultValue = "100000")
+    Long expectedTokens;
+
+    @ConfigProperty(name = "app.auth.revocation.false-positive-probability", defaultValue = "0.001")
+    Double falsePositiveProbability;
+
+    // null until first rebuild, so every check goes to the database meanwhile
+    private volatile BloomFilter filter;
+
+    // revocations made while a rebuild is loading ids, added to the rebuilt filter before it is swapped in
+    private Set<String> pendingTokenIds;
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepo, MeterRegistry registry) {
+        this.revokedTokenRepo = revokedTokenRepo;
+        filterHits = Counter.builder(METRIC_PREFIX + ".filter.hits")
+            .register(registry);
+        filterFalsePositives = Counter.builder(METRIC_PREFIX + ".filter.false-positives")
+            .register(registry);
+        Gauge.builder(METRIC_PREFIX + ".filter.bytes", this, service -> {
+                var current = service.filter;
+                return current != null ? current.memoryBytes() : 0;
+            })
+            .baseUnit("bytes")
+            .register(registry);
+    }
+
+    public Uni<Boolean> isRevoked(String tokenId) {
+        if (tokenId == null) {
+            return Uni.createFrom().item(false);
+        }
+        var current = filter;
+        if (current != null && !current.mightContain(tokenId)) {
+            return Uni.createFrom().item(false);
+        }
+        filterHits.increment();
+        return revokedTokenRepo.countByTokenId(tokenId)
+            .onItem().transform(count -> count > 0)
+            .onItem().invoke(revoked -> {
+                if (!revoked && current != null) {
+                    filterFalsePositives.increment();
+                }
+            });
+    }
+
+    public Uni<RevokedToken> revoke(String tokenId, OffsetDateTime expiresAt) {
+        return revokedTokenRepo.save(new RevokedToken(tokenId, expiresAt))
+            .onItem().invoke(revokedToken -> addToFilter(tokenId));
+    }
+
+    private synchronized void addToFilter(String tokenId) {
+        if (filter != null) {
+            filter.put(tokenId);
+        }
+        if (pendingTokenIds != null) {
+            pendingTokenIds.add(tokenId);
+        }
+    }
+
+    private synchronized void startRebuild() {
+        pendingTokenIds = new HashSet<>();
+    }
+
+    private synchronized void finishRebuild(BloomFilter rebuilt) {
+        if (rebuilt != null) {
+            pendingTokenIds.forEach(rebuilt::put);
+            filter = rebuilt;
+        }
+        pendingTokenIds = null;
+    }
+
+    @Scheduled(every = "${app.auth.revocation.rebuild-every:10m}",
+        concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    Uni<Void> rebuildFilter() {
+        var now = OffsetDateTime.now();
+        startRebuild();
+        return Panache
+            .withTransaction(() -> revokedTokenRepo.deleteExpiredBefore(now)
+                .chain(() -> revokedTokenRepo.findTokenIdsExpiringAfter(now)))
+            .onItem().transform(tokenIds -> {
+                var rebuilt = new BloomFilter(Math.max(expectedTokens, tokenIds.size() * 2L), falsePositiveProbability);
+                tokenIds.forEach(rebuilt::put);
+                return rebuilt;
+            })
+            .onFailure().invoke(e -> LOG.warn("Could not rebuild revoked tokens filter", e))
+            .onFailure().recoverWithNull()
+            .onItem().invoke(this::finishRebuild)
+            .replaceWithVoid();
+    }
+}
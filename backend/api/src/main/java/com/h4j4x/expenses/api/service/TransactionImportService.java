@@ -0,0 +1,258 @@
+package com.h4j4x.expenses.api.service;
+
+import com.h4j4x.expenses.api.domain.OutboxEvent;
+import com.h4j4x.expenses.api.domain.UserAccount;
+import com.h4j4x.expenses.api.domain.UserEntity;
+import com.h4j4x.expenses.api.domain.UserTransaction;
+import com.h4j4x.expenses.api.model.AccountBalanceEvent;
+import com.h4j4x.expenses.api.model.TransactionCreationWay;
+import com.h4j4x.expenses.api.model.TransactionImportResult;
+import com.h4j4x.expenses.api.model.TransactionStatus;
+import com.h4j4x.expenses.api.repository.OutboxEventRepository;
+import com.h4j4x.expenses.api.repository.UserAccountRepository;
+import com.h4j4x.expenses.api.repository.UserTransactionRepository;
+import com.h4j4x.expenses.api.statement.StatementFormat;
+import com.h4j4x.expenses.api.statement.StatementFormatException;
+import com.h4j4x.expenses.api.statement.StatementRow;
+import com.h4j4x.expenses.common.money.Money;
+import com.h4j4x.expenses.common.util.ChunkSplitter;
+import com.h4j4x.expenses.common.util.StringUtils;
+import com.h4j4x.expenses.common.util.TokenTooLongException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.hibernate.reactive.panache.Panache;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.enterprise.context.ApplicationScoped;
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.NotFoundException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Imports bank statements as confirmed transactions. The upload is parsed as it arrives, in chunks persisted
+ * with batched inserts, one short transaction each, so neither the file nor its rows are ever held whole.
+ * Rows with a statement transaction id already imported to the account are skipped. The account balance gets
+ * a single event once the import ends.
+ */
+@ApplicationScoped
+public class TransactionImportService {
+    public static final String IMPORT_NOTES = "Imported transaction";
+
+    private static final String METRIC_PREFIX = "transaction.import";
+
+    private final UserAccountRepository accountRepo;
+
+    private final UserTransactionRepository transactionRepo;
+
+    private final OutboxEventRepository outboxRepo;
+
+    private final Counter importedCounter;
+
+    private final Counter rejectedCounter;
+
+    private final Counter duplicateCounter;
+
+    private final DistributionSummary throughput;
+
+    private final Timer importTimer;
+
+    @ConfigProperty(name = "app.transaction.import.chunk-size", defaultValue = "500")
+    Integer chunkSize;
+
+    @ConfigProperty(name = "app.transaction.import.max-line-length", defaultValue = "65536")
+    Integer maxLineLength;
+
+    @ConfigProperty(name = "app.transaction.import.max-rejected-reported", defaultValue = "100")
+    Integer maxRejectedReported;
+
+    public TransactionImportService(UserAccountRepository accountRepo, UserTransactionRepository transactionRepo,
+                                    OutboxEventRepository outboxRepo, MeterRegistry registry) {
+        this.accountRepo = accountRepo;
+        this.transactionRepo = transactionRepo;
+        this.outboxRepo = outboxRepo;
+        importedCounter = Counter.builder(METRIC_PREFIX + ".rows")
+            .tag("result", "imported")
+            .register(registry);
+        rejectedCounter = Counter.builder(METRIC_PREFIX + ".rows")
+            .tag("result", "rejected")
+            .register(registry);
+        duplicateCounter = Counter.builder(METRIC_PREFIX + ".rows")
+            .tag("result", "duplicate")
+            .register(registry);
+        throughput = DistributionSummary.builder(METRIC_PREFIX + ".throughput")
+            .description("Rows per second of each import")
+            .baseUnit("rows/s")
+            .register(registry);
+        importTimer = Timer.builder(METRIC_PREFIX + ".duration")
+            .register(registry);
+    }
+
+    public Uni<TransactionImportResult> importTransactions(UserEntity user, String accountKey, StatementFormat format,
+                                                           Multi<byte[]> chunks) {
+        if (!user.getId().equals(UserAccount.parseUserId(accountKey))) {
+            return Uni.createFrom().failure(new NotFoundException(UserAccountService.ACCOUNT_NOT_FOUND_MESSAGE));
+        }
+        var accountId = UserAccount.parseAccountId(accountKey);
+        return Panache.withTransaction(() -> accountRepo.findByUserAndId(user, accountId))
+            .onItem().ifNull().failWith(new NotFoundException(UserAccountService.ACCOUNT_NOT_FOUND_MESSAGE))
+            .onItem().transformToUni(account -> importRows(account, format, chunks));
+    }
+
+    private Uni<TransactionImportResult> importRows(UserAccount account, StatementFormat format,
+                                                    Multi<byte[]> chunks) {
+        var state = new ImportState(account);
+        var parser = format.newParser();
+        var splitter = new ChunkSplitter(parser.delimiter(), maxLineLength);
+        return chunks
+            .onItem().transformToIterable(splitter::feed)
+            .onCompletion().switchTo(() -> Multi.createFrom().items(Stream.ofNullable(splitter.finish())))
+            .onItem().transformToIterable(parser::parse)
+            .onCompletion().switchTo(() -> Multi.createFrom().iterable(parser.finish()))
+            .group().intoLists().of(chunkSize)
+            .onItem().transformToUniAndConcatenate(rows -> persistChunk(state, rows))
+            .collect().last()
+            // only statement errors reach the client, anything else stays an internal error
+            .onFailure(e -> e instanceof StatementFormatException || e instanceof TokenTooLongException)
+            .transform(e -> new BadRequestException(e.getMessage()))
+            // committed chunks count for the balance even when a later one fails
+            .onFailure().call(() -> balanceEvent(state))
+            .onItem().transformToUni(ignored -> balanceEvent(state))
+            .onItem().transform(ignored -> result(state));
+    }
+
+    private Uni<Void> persistChunk(ImportState state, List<StatementRow> rows) {
+        // database precision, balance windows compare against it
+        var confirmedAt = OffsetDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        var transactions = new ArrayList<UserTransaction>(rows.size());
+        for (var row : rows) {
+            state.rows++;
+            if (!row.isValid()) {
+                state.reject(row.position(), row.error());
+                continue;
+            }
+            // rounding would silently change the statement amount
+            if (row.amount().stripTrailingZeros().scale() > Money.fractionDigits(state.account.getCurrency())) {
+                state.reject(row.position(), "Amount has too many decimals");
+                continue;
+            }
+            long minorUnits;
+            try {
+                minorUnits = Money.toMinorUnits(row.amount(), state.account.getCurrency());
+            } catch (ArithmeticException e) {
+                state.reject(row.position(), "Amount out of range");
+                continue;
+            }
+            var notes = StringUtils.firstNotBlank(row.notes(), IMPORT_NOTES);
+            var transaction = new UserTransaction(state.account, notes, minorUnits);
+            transaction.setCreationWay(TransactionCreationWay.IMPORTED);
+            transaction.setCreatedAt(row.postedAt());
+            transaction.setConfirmedAt(confirmedAt);
+            transaction.setStatus(TransactionStatus.CONFIRMED);
+            transaction.setExternalId(row.externalId());
+            transactions.add(transaction);
+        }
+        if (transactions.isEmpty()) {
+            return Uni.createFrom().voidItem();
+        }
+        return Panache.withTransaction(() -> findImportedIds(state.account, transactions)
+                .flatMap(importedIds -> {
+                    // skips rows imported before, in this statement or an earlier one
+                    var fresh = transactions.stream()
+                        .filter(transaction -> transaction.getExternalId() == null ||
+                            importedIds.add(transaction.getExternalId()))
+                        .toList();
+                    if (fresh.isEmpty()) {
+                        return Uni.createFrom().item(fresh);
+                    }
+                    return transactionRepo.saveAll(fresh).replaceWith(fresh);
+                }))
+            .onItem().invoke(fresh -> {
+                var amount = 0L;
+                for (var transaction : fresh) {
+                    amount = Math.addExact(amount, transaction.getAmount());
+                }
+                state.imported += fresh.size();
+                state.duplicates += transactions.size() - fresh.size();
+                state.amount = Math.addExact(state.amount, amount);
+                importedCounter.increment(fresh.size());
+                duplicateCounter.increment(transactions.size() - fresh.size());
+            })
+            .replaceWithVoid();
+    }
+
+    private Uni<Set<String>> findImportedIds(UserAccount account, List<UserTransaction> transactions) {
+        var externalIds = transactions.stream()
+            .map(UserTransaction::getExternalId)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toSet());
+        if (externalIds.isEmpty()) {
+            return Uni.createFrom().item(new HashSet<>());
+        }
+        return transactionRepo.findExternalIds(account, externalIds)
+            .onItem().transform(HashSet::new);
+    }
+
+    // written once per import, the balance update sums every transaction confirmed since the last one
+    private Uni<Void> balanceEvent(ImportState state) {
+        if (state.imported == 0 || state.eventWritten) {
+            return Uni.createFrom().voidItem();
+        }
+        state.eventWritten = true;
+        var event = new AccountBalanceEvent(state.account.getId(), null, state.amount);
+        return Panache.withTransaction(() -> outboxRepo.save(new OutboxEvent(event.key(), event.toPayload())))
+            .replaceWithVoid();
+    }
+
+    private TransactionImportResult result(ImportState state) {
+        var elapsedNanos = System.nanoTime() - state.startNanos;
+        importTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        var rowsPerSecond = elapsedNanos > 0 ? state.rows * 1_000_000_000d / elapsedNanos : 0d;
+        throughput.record(rowsPerSecond);
+        return new TransactionImportResult(state.imported, state.rejectedCount, state.duplicates,
+            rowsPerSecond, state.rejected);
+    }
+
+    private class ImportState {
+        private final UserAccount account;
+
+        private final long startNanos = System.nanoTime();
+
+        private final List<TransactionImportResult.RejectedRow> rejected = new ArrayList<>();
+
+        private long rows;
+
+        private long imported;
+
+        private long rejectedCount;
+
+        private long duplicates;
+
+        private long amount;
+
+        private boolean eventWritten;
+
+        private ImportState(UserAccount account) {
+            this.account = account;
+        }
+
+        private void reject(int position, String error) {
+            rejectedCount++;
+            rejectedCounter.increment();
+            if (rejected.size() < maxRejectedReported) {
+                rejected.add(new TransactionImportResult.RejectedRow(position, error));
+            }
+        }
+    }
+}
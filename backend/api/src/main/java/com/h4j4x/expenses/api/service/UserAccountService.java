@@ -5,11 +5,10 @@ import com.h4j4x.expenses.api.domain.UserEntity;
 import com.h4j4x.expenses.api.domain.UserTransaction;
 import com.h4j4x.expenses.api.model.*;
 import com.h4j4x.expenses.api.repository.UserAccountRepository;
-import com.h4j4x.expenses.common.util.NumberUtils;
+import com.h4j4x.expenses.common.money.Money;
 import com.h4j4x.expenses.common.util.ObjectUtils;
 import com.h4j4x.expenses.common.util.StringUtils;
 import io.smallrye.mutiny.Uni;
-import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -17,29 +16,41 @@ import javax.enterprise.context.ApplicationScoped;
 import javax.ws.rs.BadRequestException;
 import javax.ws.rs.NotFoundException;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
-import org.eclipse.microprofile.reactive.messaging.Acknowledgment;
-import org.eclipse.microprofile.reactive.messaging.Incoming;
+import org.jboss.logging.Logger;
 
 @ApplicationScoped
 public class UserAccountService {
     public static final String ACCOUNT_NAME_EXISTS_MESSAGE = "Account name already registered";
     public static final String ACCOUNT_NOT_FOUND_MESSAGE = "Account not found";
+    public static final String ACCOUNT_CURRENCY_LOCKED_MESSAGE = "Account currency can not change once it has transactions";
     public static final String TRANSACTION_INITIAL_BALANCE_NOTES = "Initial balance";
     public static final String TRANSACTION_ADJUSTED_BALANCE_NOTES = "Adjusted balance";
 
+    private static final Logger LOG = Logger.getLogger(UserAccountService.class);
+
     private final UserAccountRepository accountRepo;
 
     private final UserTransactionService transactionService;
 
+    private final AccountBalanceSnapshotService snapshotService;
+
+    private final UserNetWorthCache netWorthCache;
+
     @ConfigProperty(name = "app.account.default-type", defaultValue = "MONEY")
     AccountType defaultAccountType;
 
     @ConfigProperty(name = "app.account.default-currency", defaultValue = "usd")
     String defaultCurrency;
 
-    public UserAccountService(UserAccountRepository accountRepo, UserTransactionService transactionService) {
+    @ConfigProperty(name = "app.account.balance-verification-enabled", defaultValue = "false")
+    Boolean balanceVerificationEnabled;
+
+    public UserAccountService(UserAccountRepository accountRepo, UserTransactionService transactionService,
+                              AccountBalanceSnapshotService snapshotService, UserNetWorthCache netWorthCache) {
         this.accountRepo = accountRepo;
         this.transactionService = transactionService;
+        this.snapshotService = snapshotService;
+        this.netWorthCache = netWorthCache;
     }
 
     public Uni<UserAccount> addAccount(UserEntity user, UserAccountDTO account) {
@@ -60,13 +71,14 @@ public class UserAccountService {
         userAccount.setCurrency(StringUtils.firstNotBlank(account.getCurrency(), defaultCurrency));
         userAccount.setBalanceUpdatedAt(OffsetDateTime.now());
         return accountRepo.save(userAccount)
-            .onItem().invoke(savedAccount -> {
-                if (account.getBalanceDoubleValue() != 0) {
+            .call(savedAccount -> {
+                if (account.hasBalance()) {
                     var transaction = new UserTransactionDTO(TRANSACTION_INITIAL_BALANCE_NOTES, account.getBalance());
                     transaction.setCreationWay(TransactionCreationWay.SYSTEM);
                     transaction.setStatus(TransactionStatus.CONFIRMED);
-                    transactionService.addTransaction(savedAccount, transaction);
+                    return transactionService.addTransaction(savedAccount, transaction);
                 }
+                return Uni.createFrom().nullItem();
             });
     }
 
@@ -74,8 +86,9 @@ public class UserAccountService {
         return accountRepo.findAllByUser(user);
     }
 
-    public Uni<PageData<UserAccount>> getAccountsPaged(UserEntity user, Integer pageIndex, Integer pageSize) {
-        return accountRepo.findPageByUser(user, pageIndex, pageSize);
+    public Uni<PageData<UserAccount>> getAccountsPaged(UserEntity user, Integer pageIndex, Integer pageSize,
+                                                       PageCountMode countMode) {
+        return accountRepo.findPageByUser(user, pageIndex, pageSize, countMode);
     }
 
     public Uni<UserAccount> editAccount(UserEntity user, String key, UserAccountDTO account) {
@@ -95,6 +108,7 @@ public class UserAccountService {
                     return count;
                 })
                 .onItem().ifNull().failWith(new BadRequestException(ACCOUNT_NAME_EXISTS_MESSAGE)))
+            .onItem().ifNotNull().call(userAccount -> checkCurrencyChange(userAccount, account.getCurrency()))
             .onItem().ifNotNull().transformToUni(userAccount -> {
                 userAccount.setName(account.getName());
                 userAccount.setAccountType(ObjectUtils
@@ -102,36 +116,106 @@ public class UserAccountService {
                 userAccount.setCurrency(StringUtils
                     .firstNotBlank(account.getCurrency(), userAccount.getCurrency()));
                 return accountRepo.save(userAccount)
-                    .onItem().invoke(savedAccount -> {
-                        if (account.getBalanceDoubleValue() != 0) {
+                    .call(savedAccount -> {
+                        if (account.hasBalance()) {
                             var transaction = new UserTransactionDTO(TRANSACTION_ADJUSTED_BALANCE_NOTES, account.getBalance());
                             transaction.setCreationWay(TransactionCreationWay.SYSTEM);
                             transaction.setStatus(TransactionStatus.ADJUST_PENDING);
-                            transactionService.addTransaction(savedAccount, transaction);
+                            return transactionService.addTransaction(savedAccount, transaction);
                         }
+                        return Uni.createFrom().nullItem();
                     });
             });
     }
 
-    @Incoming("user-account-transactions-in") // todo: test
-    @Acknowledgment(Acknowledgment.Strategy.POST_PROCESSING)
-    public void updateAccountBalance(String accountId) {
-        Uni.createFrom().item(NumberUtils.parseLong(accountId))
-            .onItem().ifNotNull().transformToUni(id -> accountRepo.findById(id))
-            .onItem().ifNotNull().transformToUni(this::updateAccountBalance)
-            .await().atMost(Duration.ofMinutes(5)); // todo: config
+    // amounts are stored in the account currency minor units, so they can not follow a currency change
+    private Uni<Long> checkCurrencyChange(UserAccount userAccount, String currency) {
+        if (StringUtils.isBlank(currency) || Money.currencyCode(currency).equals(userAccount.getCurrency())) {
+            return Uni.createFrom().item(0L);
+        }
+        return transactionService.countAccountTransactions(userAccount)
+            .onItem().transform(count -> {
+                if (count > 0 || userAccount.getBalance() != 0L) {
+                    return null;
+                }
+                return count;
+            })
+            .onItem().ifNull().failWith(new BadRequestException(ACCOUNT_CURRENCY_LOCKED_MESSAGE));
+    }
+
+    public Uni<List<CurrencyNetWorth>> getNetWorth(UserEntity user) {
+        var cached = netWorthCache.get(user.getId());
+        if (cached != null) {
+            return Uni.createFrom().item(cached);
+        }
+        var stamp = netWorthCache.stamp(user.getId());
+        return accountRepo.sumBalancesByUser(user)
+            .onItem().transform(CurrencyNetWorth::fromTotals)
+            .onItem().invoke(netWorth -> netWorthCache.put(user.getId(), netWorth, stamp));
     }
 
+    /**
+     * Drops cached data derived from the account and its balance. Call once the account change or balance update
+     * is committed, never inside its transaction.
+     *
+     * @param account updated account.
+     */
+    public void balanceCommitted(UserAccount account) {
+        if (account != null && account.getUser() != null) {
+            netWorthCache.invalidate(account.getUser().getId());
+        }
+    }
+
+    public Uni<Money> getAccountBalanceAt(UserEntity user, String key, OffsetDateTime dateTime) {
+        var userId = UserAccount.parseUserId(key);
+        if (!user.getId().equals(userId)) {
+            return Uni.createFrom().failure(new NotFoundException(ACCOUNT_NOT_FOUND_MESSAGE));
+        }
+        var id = UserAccount.parseAccountId(key);
+        return accountRepo.findByUserAndId(user, id)
+            .onItem().ifNull().failWith(new NotFoundException(ACCOUNT_NOT_FOUND_MESSAGE))
+            .onItem().ifNotNull().transformToUni(userAccount -> snapshotService
+                .balanceAt(userAccount, dateTime)
+                .onItem().transform(balance -> Money.of(balance, userAccount.getCurrency())));
+    }
+
+    public Uni<UserAccount> updateAccountBalance(Long accountId) {
+        return accountRepo.lockById(accountId)
+            .onItem().ifNotNull().transformToUni(this::updateAccountBalance);
+    }
+
+    /**
+     * Adds the confirmed transactions not yet applied to the account balance. The account must be locked, see
+     * {@link #updateAccountBalance(Long)}.
+     *
+     * @param account locked account.
+     * @return updated account.
+     */
     public Uni<UserAccount> updateAccountBalance(UserAccount account) {
-        var now = OffsetDateTime.now();
         return transactionService
-            .findTransactionsFromDateWithStatus(account, account.getBalanceUpdatedAt(), TransactionStatus.CONFIRMED)
-            .collect()
-            .with(Collectors.summingDouble(UserTransaction::getAmount))
-            .onItem().transformToUni(balance -> {
-                account.setBalance(balance);
-                account.setBalanceUpdatedAt(now);
+            .applyConfirmedTransactions(account)
+            .onItem().transformToUni(balanceSum -> {
+                account.setBalance(Math.addExact(account.getBalance(), balanceSum.amount()));
+                account.setBalanceUpdatedAt(OffsetDateTime.now());
                 return accountRepo.save(account);
+            })
+            .call(this::verifyBalance);
+    }
+
+    // streams every applied transaction to check the stored balance, only when verification is enabled
+    private Uni<Long> verifyBalance(UserAccount account) {
+        if (!balanceVerificationEnabled) {
+            return Uni.createFrom().item(account.getBalance());
+        }
+        return transactionService
+            .findAppliedTransactions(account)
+            .collect()
+            .with(Collectors.summingLong(UserTransaction::getAmount))
+            .onItem().invoke(streamedSum -> {
+                if (streamedSum.longValue() != account.getBalance()) {
+                    LOG.warnf("Account %d balance mismatch: stored %d, streamed %d",
+                        account.getId(), account.getBalance(), streamedSum);
+                }
             });
     }
 }
@@ -0,0 +1,81 @@
+package com.h4j4x.expenses.api.service;
+
+import com.h4j4x.expenses.api.model.CurrencyNetWorth;
+import com.h4j4x.expenses.common.cache.ExpiringCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Net worth per user id. A value computed before an invalidation of its user is not stored, so a query racing
+ * with a balance update cannot cache the old totals. Entries and invalidations are local to this instance and
+ * are not broadcast: with several instances, a user may be served totals up to {@code ttl} old.
+ */
+@ApplicationScoped
+public class UserNetWorthCache {
+    private static final String METRIC_PREFIX = "account.net-worth.cache";
+    private static final int STAMP_STRIPES = 1024;
+
+    private final MeterRegistry registry;
+
+    // invalidation stamps striped by user id, users sharing a stripe only skip some puts
+    private final AtomicLongArray invalidations = new AtomicLongArray(STAMP_STRIPES);
+
+    @ConfigProperty(name = "app.account.net-worth-cache.max-size", defaultValue = "10000")
+    Integer maxSize;
+
+    @ConfigProperty(name = "app.account.net-worth-cache.ttl", defaultValue = "5m")
+    Duration ttl;
+
+    private ExpiringCache<Long, List<CurrencyNetWorth>> cache;
+
+    public UserNetWorthCache(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @PostConstruct
+    void init() {
+        cache = new ExpiringCache<>(maxSize, ttl);
+        FunctionCounter.builder(METRIC_PREFIX + ".hits", cache, ExpiringCache::hitCount)
+            .register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + ".misses", cache, ExpiringCache::missCount)
+            .register(registry);
+        Gauge.builder(METRIC_PREFIX + ".size", cache, ExpiringCache::size)
+            .register(registry);
+    }
+
+    public List<CurrencyNetWorth> get(Long userId) {
+        return userId != null ? cache.get(userId) : null;
+    }
+
+    /**
+     * @param userId user id.
+     * @return stamp to pass to {@link #put(Long, List, long)}, read before computing the value.
+     */
+    public long stamp(Long userId) {
+        return userId != null ? invalidations.get(stripe(userId)) : 0L;
+    }
+
+    public synchronized void put(Long userId, List<CurrencyNetWorth> netWorth, long stamp) {
+        if (userId != null && netWorth != null && invalidations.get(stripe(userId)) == stamp) {
+            cache.put(userId, netWorth);
+        }
+    }
+
+    public synchronized void invalidate(Long userId) {
+        if (userId != null) {
+            invalidations.incrementAndGet(stripe(userId));
+            cache.invalidate(userId);
+        }
+    }
+
+    private static int stripe(Long userId) {
+        return Long.hashCode(userId) & (STAMP_STRIPES - 1);
+    }
+}
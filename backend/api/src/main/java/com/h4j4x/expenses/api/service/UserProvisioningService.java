@@ -0,0 +1,154 @@
+package com.h4j4x.expenses.api.service;
+
+import com.h4j4x.expenses.api.domain.UserEntity;
+import com.h4j4x.expenses.api.model.ProvisioningStatus;
+import com.h4j4x.expenses.api.model.UserDTO;
+import com.h4j4x.expenses.api.model.UserProvisioningResult;
+import com.h4j4x.expenses.api.repository.UserRepository;
+import com.h4j4x.expenses.api.security.StringHashingPool;
+import com.h4j4x.expenses.common.util.StringUtils;
+import io.quarkus.hibernate.reactive.panache.Panache;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.enterprise.context.ApplicationScoped;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Creates users in bulk. Rows are processed in chunks: each chunk checks registered emails with one
+ * query, hashes passwords concurrently on the hashing pool and inserts all its users in one transaction,
+ * so inserts are sent in JDBC-style batches. Results are emitted per row as each chunk completes.
+ * Hash concurrency is capped to the hashing pool size, so a large import never fills the pool queue
+ * that sign-ins share.
+ */
+@ApplicationScoped
+public class UserProvisioningService {
+    public static final String EMAIL_REQUIRED_MESSAGE = "User email is required";
+    public static final String DUPLICATE_EMAIL_MESSAGE = "User email repeated in request";
+    public static final String CHUNK_FAILED_MESSAGE = "Could not save users chunk";
+
+    private final UserRepository userRepo;
+
+    private final StringHashingPool hashingPool;
+
+    private final Validator validator;
+
+    @ConfigProperty(name = "app.provisioning.chunk-size", defaultValue = "500")
+    Integer chunkSize;
+
+    @ConfigProperty(name = "app.provisioning.hash-concurrency", defaultValue = "2")
+    Integer hashConcurrency;
+
+    public UserProvisioningService(UserRepository userRepo, StringHashingPool hashingPool, Validator validator) {
+        this.userRepo = userRepo;
+        this.hashingPool = hashingPool;
+        this.validator = validator;
+    }
+
+    public Multi<UserProvisioningResult> createUsers(List<UserDTO> users) {
+        var rows = new ArrayList<Row>(users.size());
+        var requestEmails = new HashSet<String>();
+        for (int i = 0; i < users.size(); i++) {
+            rows.add(new Row(i, users.get(i), requestEmails));
+        }
+        var chunks = new ArrayList<List<Row>>();
+        for (int from = 0; from < rows.size(); from += chunkSize) {
+            chunks.add(rows.subList(from, Math.min(rows.size(), from + chunkSize)));
+        }
+        return Multi.createFrom().iterable(chunks)
+            .onItem().transformToUniAndConcatenate(this::createChunk)
+            .onItem().disjoint();
+    }
+
+    private Uni<List<UserProvisioningResult>> createChunk(List<Row> chunk) {
+        var emails = chunk.stream()
+            .filter(row -> row.result == null)
+            .map(row -> row.entity.getEmail())
+            .collect(Collectors.toList());
+        if (emails.isEmpty()) {
+            return Uni.createFrom().item(results(chunk));
+        }
+        return userRepo.findEmailsIn(emails)
+            .onItem().invoke(existingEmails -> {
+                var registered = new HashSet<>(existingEmails);
+                chunk.stream()
+                    .filter(row -> row.result == null && registered.contains(row.entity.getEmail()))
+                    .forEach(row -> row.reject(ProvisioningStatus.DUPLICATE, UserService.USER_EMAIL_EXISTS_MESSAGE));
+            })
+            .chain(() -> hashPasswords(chunk))
+            .chain(entities -> entities.isEmpty()
+                ? Uni.createFrom().voidItem()
+                : Panache.withTransaction(() -> userRepo.persist(entities)))
+            .onItem().transform(ignored -> {
+                chunk.stream()
+                    .filter(row -> row.result == null)
+                    .forEach(row -> row.result = UserProvisioningResult.created(row.index, row.entity.getEmail()));
+                return results(chunk);
+            })
+            .onFailure().recoverWithItem(() -> {
+                chunk.stream()
+                    .filter(row -> row.result == null)
+                    .forEach(row -> row.reject(ProvisioningStatus.FAILED, CHUNK_FAILED_MESSAGE));
+                return results(chunk);
+            });
+    }
+
+    private Uni<List<UserEntity>> hashPasswords(List<Row> chunk) {
+        return Multi.createFrom().iterable(chunk)
+            .select().where(row -> row.result == null)
+            .onItem().transformToUni(row -> {
+                var salt = hashingPool.salt();
+                return hashingPool.hash(row.password, salt)
+                    .onItem().transform(password -> {
+                        row.entity.setSalt(salt);
+                        row.entity.setPassword(password);
+                        return row.entity;
+                    });
+            })
+            .merge(Math.max(1, Math.min(hashConcurrency, hashingPool.poolSize())))
+            .collect().asList();
+    }
+
+    private List<UserProvisioningResult> results(List<Row> chunk) {
+        return chunk.stream()
+            .map(row -> row.result)
+            .collect(Collectors.toList());
+    }
+
+    private class Row {
+        private final int index;
+
+        private final UserEntity entity;
+
+        private final String password;
+
+        private UserProvisioningResult result;
+
+        private Row(int index, UserDTO user, HashSet<String> requestEmails) {
+            this.index = index;
+            this.entity = new UserEntity(user.getName(), user.getEmail(), user.getPassword());
+            this.password = user.getPassword();
+            var violations = validator.validate(entity);
+            if (!violations.isEmpty()) {
+                var message = violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+                reject(ProvisioningStatus.INVALID, message);
+            } else if (StringUtils.isBlank(entity.getEmail())) {
+                reject(ProvisioningStatus.INVALID, EMAIL_REQUIRED_MESSAGE);
+            } else if (!requestEmails.add(entity.getEmail())) {
+                reject(ProvisioningStatus.DUPLICATE, DUPLICATE_EMAIL_MESSAGE);
+            }
+        }
+
+        private void reject(ProvisioningStatus status, String message) {
+            result = UserProvisioningResult.rejected(index, entity.getEmail(), status, message);
+        }
+    }
+}
@@ -4,27 +4,36 @@ import com.h4j4x.expenses.api.domain.UserEntity;
 import com.h4j4x.expenses.api.model.UserCredentials;
 import com.h4j4x.expenses.api.model.UserDTO;
 import com.h4j4x.expenses.api.repository.UserRepository;
-import com.h4j4x.expenses.common.security.StringHasher;
+import com.h4j4x.expenses.api.security.AuthMetrics;
+import com.h4j4x.expenses.api.security.StringHashingPool;
+import com.h4j4x.expenses.api.security.UserPrincipalCache;
 import io.smallrye.mutiny.Uni;
-import io.smallrye.mutiny.unchecked.Unchecked;
-import java.security.GeneralSecurityException;
 import javax.enterprise.context.ApplicationScoped;
 import javax.ws.rs.BadRequestException;
+import javax.ws.rs.NotFoundException;
 
 @ApplicationScoped
 public class UserService {
     public static final String USER_EMAIL_EXISTS_MESSAGE = "User email already registered";
+    public static final String USER_NOT_FOUND_MESSAGE = "User not found";
 
     private final UserRepository userRepo;
-    private final StringHasher stringHasher;
+    private final StringHashingPool hashingPool;
+    private final UserPrincipalCache principalCache;
+    private final AuthMetrics authMetrics;
 
-    public UserService(UserRepository userRepo, StringHasher stringHasher) {
+    public UserService(UserRepository userRepo, StringHashingPool hashingPool, UserPrincipalCache principalCache,
+                       AuthMetrics authMetrics) {
         this.userRepo = userRepo;
-        this.stringHasher = stringHasher;
+        this.hashingPool = hashingPool;
+        this.principalCache = principalCache;
+        this.authMetrics = authMetrics;
     }
 
     public Uni<UserEntity> createUser(UserDTO user) {
-        return userRepo.countByEmail(user.getEmail())
+        return authMetrics
+            .time(AuthMetrics.SIGN_UP, "email_check", userRepo.countByEmail(user.getEmail()),
+                count -> count > 0 ? AuthMetrics.EMAIL_EXISTS : AuthMetrics.SUCCESS)
             .onItem().transform(count -> {
                 if (count > 0) {
                     return null;
@@ -36,42 +45,56 @@ public class UserService {
     }
 
     private Uni<UserEntity> createUserEntity(UserDTO user) {
-        return Uni.createFrom().<UserEntity>emitter(emitter -> {
-            try {
-                var salt = stringHasher.salt();
-                var password = stringHasher.hash(user.getPassword(), salt);
+        var salt = hashingPool.salt();
+        return authMetrics.time(AuthMetrics.SIGN_UP, "password_hash", hashingPool.hash(user.getPassword(), salt))
+            .onItem().transform(password -> {
                 var entity = new UserEntity(user.getName(), user.getEmail(), password);
                 entity.setSalt(salt);
-                emitter.complete(entity);
-            } catch (GeneralSecurityException e) {
-                emitter.fail(e);
-            }
-        }).flatMap(userRepo::save);
+                return entity;
+            })
+            .flatMap(entity -> authMetrics.time(AuthMetrics.SIGN_UP, "user_insert", userRepo.save(entity)));
     }
 
     public Uni<UserEntity> findUserByEmail(String email) {
         return userRepo.findByEmail(email);
     }
 
+    public Uni<UserEntity> findUserById(Long id) {
+        return userRepo.findById(id);
+    }
+
     public Uni<UserEntity> findUserByEmailAndPassword(UserCredentials credentials) {
-        return userRepo.findByEmail(credentials.getEmail())
-            .onItem().ifNotNull().transform(Unchecked.function(userEntity -> {
-                if (stringHasher.match(credentials.getPassword(), userEntity.getSalt(), userEntity.getPassword())) {
-                    return userEntity;
-                }
-                return null;
-            }));
+        return authMetrics
+            .time(AuthMetrics.SIGN_IN, "user_lookup", userRepo.findByEmail(credentials.getEmail()),
+                userEntity -> userEntity != null ? AuthMetrics.SUCCESS : AuthMetrics.UNKNOWN_USER)
+            .onItem().ifNotNull().transformToUni(userEntity -> authMetrics
+                .time(AuthMetrics.SIGN_IN, "password_match",
+                    hashingPool.match(credentials.getPassword(), userEntity.getSalt(), userEntity.getPassword()),
+                    matches -> matches ? AuthMetrics.SUCCESS : AuthMetrics.BAD_CREDENTIALS)
+                .onItem().transform(matches -> matches ? userEntity : null))
+            .onItem().ifNotNull().transformToUni(userEntity -> rehashIfNeeded(userEntity, credentials));
     }
 
-    public Uni<UserEntity> editUser(UserEntity entity, UserDTO user) {
-        return Uni.createFrom().<UserEntity>emitter(emitter -> {
-                try {
-                    setUserData(entity, user);
-                    emitter.complete(entity);
-                } catch (GeneralSecurityException e) {
-                    emitter.fail(e);
-                }
+    // upgrades hashes made with a weaker cost while the plain password is at hand
+    private Uni<UserEntity> rehashIfNeeded(UserEntity entity, UserCredentials credentials) {
+        if (!hashingPool.needsRehash(entity.getPassword())) {
+            return Uni.createFrom().item(entity);
+        }
+        var salt = hashingPool.salt();
+        return hashingPool.hash(credentials.getPassword(), salt)
+            .onItem().transform(password -> {
+                entity.setSalt(salt);
+                entity.setPassword(password);
+                return entity;
             })
+            .flatMap(userRepo::save);
+    }
+
+    public Uni<UserEntity> editUser(UserEntity entity, UserDTO user) {
+        // principal may come from cache, so edit the session managed entity instead
+        return userRepo.findById(entity.getId())
+            .onItem().ifNull().failWith(new NotFoundException(USER_NOT_FOUND_MESSAGE))
+            .onItem().transformToUni(userEntity -> setUserData(userEntity, user))
             .chain(userEntity -> userRepo
                 .countByEmailAndNotId(userEntity.getEmail(), userEntity.getId())
                 .onItem().transform(count -> {
@@ -84,15 +107,34 @@ public class UserService {
                 .onItem().ifNotNull().transformToUni(userRepo::save));
     }
 
-    private void setUserData(UserEntity entity, UserDTO user) throws GeneralSecurityException {
+    /**
+     * Drops the cached principals of an edited user. Call it once the edit is committed, otherwise a
+     * concurrent request may cache the user as read before the commit.
+     *
+     * @param previousEmail user email before the edit.
+     * @param entity        edited user.
+     */
+    public void invalidatePrincipal(String previousEmail, UserEntity entity) {
+        principalCache.invalidate(previousEmail);
+        principalCache.invalidate(entity.getEmail());
+    }
+
+    private Uni<UserEntity> setUserData(UserEntity entity, UserDTO user) {
         if (user.getName() != null) {
             entity.setName(user.getName());
         }
-        if (user.getEmail() != null) {
+        if (user.getEmail() != null && !user.getEmail().equals(entity.getEmail())) {
             entity.setEmail(user.getEmail());
+            entity.increaseTokenVersion();
         }
         if (user.getPassword() != null) {
-            entity.setPassword(stringHasher.hash(user.getPassword(), entity.getSalt()));
+            entity.increaseTokenVersion();
+            return hashingPool.hash(user.getPassword(), entity.getSalt())
+                .onItem().transform(password -> {
+                    entity.setPassword(password);
+                    return entity;
+                });
         }
+        return Uni.createFrom().item(entity);
     }
 }
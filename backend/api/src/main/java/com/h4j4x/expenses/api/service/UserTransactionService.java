@@ -1,23 +1,39 @@
 package com.h4j4x.expenses.api.service;
 
+import com.h4j4x.expenses.api.domain.OutboxEvent;
 import com.h4j4x.expenses.api.domain.UserAccount;
+import com.h4j4x.expenses.api.domain.UserEntity;
 import com.h4j4x.expenses.api.domain.UserTransaction;
-import com.h4j4x.expenses.api.model.TransactionCreationWay;
-import com.h4j4x.expenses.api.model.TransactionStatus;
-import com.h4j4x.expenses.api.model.UserTransactionDTO;
+import com.h4j4x.expenses.api.model.*;
+import com.h4j4x.expenses.api.repository.OutboxEventRepository;
 import com.h4j4x.expenses.api.repository.UserTransactionRepository;
+import com.h4j4x.expenses.common.money.Money;
 import com.h4j4x.expenses.common.util.ObjectUtils;
+import io.quarkus.hibernate.reactive.panache.Panache;
 import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
 import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
 import javax.enterprise.context.ApplicationScoped;
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.NotFoundException;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
-import org.eclipse.microprofile.reactive.messaging.Channel;
-import org.eclipse.microprofile.reactive.messaging.Emitter;
 
 @ApplicationScoped
 public class UserTransactionService {
+    public static final String SETTLE_STATUS_INVALID_MESSAGE = "Transactions can only be confirmed or refunded";
+    public static final String SETTLE_SELECTION_REQUIRED_MESSAGE = "Transaction keys or filter are required";
+    public static final String SETTLE_TOO_MANY_KEYS_MESSAGE = "Too many transaction keys";
+    public static final String PAGE_CURSOR_INVALID_MESSAGE = "Invalid page cursor";
+    public static final String SEARCH_TEXT_INVALID_MESSAGE = "Search text is required, up to 200 characters";
+
+    private static final int SEARCH_TEXT_MAX_LENGTH = 200;
+
     private final UserTransactionRepository transactionRepo;
+    private final OutboxEventRepository outboxRepo;
 
     @ConfigProperty(name = "app.account.default-creation-way", defaultValue = "MANUAL")
     TransactionCreationWay defaultTransactionCreationWay;
@@ -25,19 +41,201 @@ public class UserTransactionService {
     @ConfigProperty(name = "app.transaction.default-status", defaultValue = "PENDING")
     TransactionStatus defaultTransactionStatus;
 
-    @Channel("user-account-transactions-out")
-    Emitter<String> eventEmitter;
+    @ConfigProperty(name = "app.transaction.settle-max-keys", defaultValue = "5000")
+    Integer settleMaxKeys;
+
+    @ConfigProperty(name = "app.transaction.page-max-size", defaultValue = "100")
+    Integer pageMaxSize;
+
+    @ConfigProperty(name = "app.transaction.export-batch-size", defaultValue = "500")
+    Integer exportBatchSize;
 
-    public UserTransactionService(UserTransactionRepository transactionRepo) {
+    public UserTransactionService(UserTransactionRepository transactionRepo, OutboxEventRepository outboxRepo) {
         this.transactionRepo = transactionRepo;
+        this.outboxRepo = outboxRepo;
     }
 
     public Uni<UserTransaction> addTransaction(UserAccount account, UserTransactionDTO transaction) {
-        var userTransaction = new UserTransaction(account, transaction.getNotes(), transaction.getAmount());
+        var amount = Money.toMinorUnits(transaction.getAmount(), account.getCurrency());
+        var userTransaction = new UserTransaction(account, transaction.getNotes(), amount);
         userTransaction.setCreationWay(ObjectUtils.firstNotNull(transaction.getCreationWay(), defaultTransactionCreationWay));
         userTransaction.setStatus(ObjectUtils.firstNotNull(transaction.getStatus(), defaultTransactionStatus));
         return transactionRepo.save(userTransaction)
-            .onItem().invoke(savedTransaction -> eventEmitter.send(account.getId().toString()));
+            .call(savedTransaction -> outboxRepo.save(balanceEvent(account, savedTransaction)));
+    }
+
+    // written in the caller transaction, published later by OutboxRelay
+    private OutboxEvent balanceEvent(UserAccount account, UserTransaction transaction) {
+        var event = new AccountBalanceEvent(account.getId(), transaction.getId(), transaction.getAmount());
+        return new OutboxEvent(event.key(), event.toPayload());
+    }
+
+    /**
+     * Confirms or refunds the user pending transactions with the given keys, or all matching the filter, in one
+     * update. Confirmations then write one balance event per affected account.
+     *
+     * @param user   transactions user.
+     * @param status {@link TransactionStatus#CONFIRMED} or {@link TransactionStatus#REFUNDED}.
+     * @param keys   transaction keys, may be {@literal null} when a filter is given.
+     * @param filter transactions filter, may be {@literal null} when keys are given.
+     * @return settlement counts.
+     */
+    public Uni<TransactionSettlementDTO> settleTransactions(UserEntity user, TransactionStatus status,
+                                                           List<String> keys, TransactionFilterDTO filter) {
+        if (status != TransactionStatus.CONFIRMED && status != TransactionStatus.REFUNDED) {
+            return Uni.createFrom().failure(new BadRequestException(SETTLE_STATUS_INVALID_MESSAGE));
+        }
+        if ((keys == null || keys.isEmpty()) && filter == null) {
+            return Uni.createFrom().failure(new BadRequestException(SETTLE_SELECTION_REQUIRED_MESSAGE));
+        }
+        if (keys != null && keys.size() > settleMaxKeys) {
+            return Uni.createFrom().failure(new BadRequestException(SETTLE_TOO_MANY_KEYS_MESSAGE));
+        }
+        List<Long> ids = null;
+        if (keys != null && !keys.isEmpty()) {
+            ids = keys.stream()
+                .map(UserTransaction::parseTransactionId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+            if (ids.isEmpty()) {
+                return Uni.createFrom().item(new TransactionSettlementDTO(status, 0, 0));
+            }
+        }
+        var transactionFilter = toFilter(user, ids, filter);
+        if (transactionFilter == null) {
+            return Uni.createFrom().failure(new NotFoundException(UserAccountService.ACCOUNT_NOT_FOUND_MESSAGE));
+        }
+        // database precision, so the confirmed rows can be found again by this exact value
+        var confirmedAt = OffsetDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        return transactionRepo.updatePendingStatus(user, transactionFilter, status, confirmedAt)
+            .flatMap(updatedCount -> {
+                if (updatedCount == 0 || status != TransactionStatus.CONFIRMED) {
+                    return Uni.createFrom().item(new TransactionSettlementDTO(status, updatedCount, 0));
+                }
+                return transactionRepo.sumConfirmedAtByAccount(user, confirmedAt)
+                    .call(deltas -> outboxRepo.saveAll(deltas.stream()
+                        .map(this::balanceEvent)
+                        .toList()))
+                    .onItem().transform(deltas -> new TransactionSettlementDTO(status, updatedCount, deltas.size()));
+            });
+    }
+
+    private OutboxEvent balanceEvent(AccountBalanceDelta delta) {
+        var event = new AccountBalanceEvent(delta.accountId(), null, delta.amount());
+        return new OutboxEvent(event.key(), event.toPayload());
+    }
+
+    // null when the filter account is not a user account
+    private TransactionFilter toFilter(UserEntity user, List<Long> ids, TransactionFilterDTO filter) {
+        if (filter == null) {
+            return new TransactionFilter(ids, null, null, null);
+        }
+        Long accountId = null;
+        if (filter.getAccountKey() != null) {
+            if (!user.getId().equals(UserAccount.parseUserId(filter.getAccountKey()))) {
+                return null;
+            }
+            accountId = UserAccount.parseAccountId(filter.getAccountKey());
+        }
+        return new TransactionFilter(ids, accountId, filter.getCreatedFrom(), filter.getCreatedTo());
+    }
+
+    /**
+     * Gets a page of the user transactions, newest first.
+     *
+     * @param user     transactions user.
+     * @param filter   transactions filter, may be {@literal null}.
+     * @param status   transactions status, {@literal null} for any.
+     * @param cursor   next page cursor from the previous page, {@literal null} for the first page.
+     * @param pageSize page size, capped to the configured max.
+     * @return transactions page.
+     */
+    public Uni<CursorPage<UserTransaction>> getTransactionsPaged(UserEntity user, TransactionFilterDTO filter,
+                                                                TransactionStatus status, String cursor,
+                                                                int pageSize) {
+        var transactionFilter = toFilter(user, null, filter);
+        if (transactionFilter == null) {
+            return Uni.createFrom().failure(new NotFoundException(UserAccountService.ACCOUNT_NOT_FOUND_MESSAGE));
+        }
+        TransactionCursor transactionCursor = null;
+        if (cursor != null) {
+            transactionCursor = TransactionCursor.decode(cursor);
+            if (transactionCursor == null) {
+                return Uni.createFrom().failure(new BadRequestException(PAGE_CURSOR_INVALID_MESSAGE));
+            }
+        }
+        var size = Math.max(1, Math.min(pageSize, pageMaxSize));
+        return transactionRepo.findPageByUser(user, transactionFilter, status, transactionCursor, size);
+    }
+
+    /**
+     * Searches the user transactions by notes, best match first.
+     *
+     * @param user     transactions user.
+     * @param text     search text.
+     * @param cursor   next page cursor from the previous page, {@literal null} for the first page.
+     * @param pageSize page size, capped to the configured max.
+     * @return transactions page.
+     */
+    public Uni<CursorPage<UserTransaction>> searchTransactions(UserEntity user, String text, String cursor,
+                                                               int pageSize) {
+        if (text == null || text.isBlank() || text.length() > SEARCH_TEXT_MAX_LENGTH) {
+            return Uni.createFrom().failure(new BadRequestException(SEARCH_TEXT_INVALID_MESSAGE));
+        }
+        TransactionSearchCursor searchCursor = null;
+        if (cursor != null) {
+            searchCursor = TransactionSearchCursor.decode(cursor);
+            if (searchCursor == null) {
+                return Uni.createFrom().failure(new BadRequestException(PAGE_CURSOR_INVALID_MESSAGE));
+            }
+        }
+        var size = Math.max(1, Math.min(pageSize, pageMaxSize));
+        return transactionRepo.searchByUser(user, text.trim(), searchCursor, size);
+    }
+
+    /**
+     * Streams the user transactions, oldest first. Rows are read in keyset batches, each in a short transaction,
+     * and the next batch is read only when the subscriber requests more, so memory is bounded by the batch size.
+     *
+     * @param user   transactions user.
+     * @param filter transactions filter, may be {@literal null}.
+     * @return export rows.
+     */
+    public Multi<TransactionExportRow> exportTransactions(UserEntity user, TransactionFilterDTO filter) {
+        var transactionFilter = toFilter(user, null, filter);
+        if (transactionFilter == null) {
+            return Multi.createFrom().failure(new NotFoundException(UserAccountService.ACCOUNT_NOT_FOUND_MESSAGE));
+        }
+        return Multi.createBy().repeating()
+            .uni(() -> new AtomicReference<TransactionCursor>(), last -> Panache
+                .withTransaction(() -> transactionRepo
+                    .findExportBatch(user, transactionFilter, last.get(), exportBatchSize))
+                .onItem().invoke(rows -> {
+                    if (!rows.isEmpty()) {
+                        last.set(rows.get(rows.size() - 1).cursor());
+                    }
+                }))
+            .whilst(rows -> rows.size() == exportBatchSize)
+            .onItem().disjoint();
+    }
+
+    public Uni<BalanceSum> sumAppliedTransactionsInWindow(UserAccount account,
+                                                         OffsetDateTime from,
+                                                         OffsetDateTime to) {
+        return transactionRepo.sumAppliedTransactionsInWindow(account, from, to);
+    }
+
+    public Uni<Long> countAccountTransactions(UserAccount account) {
+        return transactionRepo.countByAccount(account);
+    }
+
+    public Uni<BalanceSum> applyConfirmedTransactions(UserAccount account) {
+        return transactionRepo.applyConfirmedTransactions(account);
+    }
+
+    public Multi<UserTransaction> findAppliedTransactions(UserAccount account) {
+        return transactionRepo.findAppliedTransactions(account);
     }
 
     public Multi<UserTransaction> findTransactionsFromDateWithStatus(UserAccount account,
@@ -0,0 +1,132 @@
+package com.h4j4x.expenses.api.statement;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * CSV statement with a header line naming the {@code date} and {@code amount} columns, and optionally a
+ * {@code notes}, {@code description} or {@code memo} one. Dates are ISO dates or date times, UTC when without
+ * offset. Quoted values may not span lines.
+ */
+public class CsvStatementParser implements StatementParser {
+    static final String HEADER_INVALID_MESSAGE = "CSV header must name date and amount columns";
+
+    private int line;
+
+    private int dateColumn = -1;
+
+    private int amountColumn = -1;
+
+    private int notesColumn = -1;
+
+    @Override
+    public char delimiter() {
+        return '\n';
+    }
+
+    @Override
+    public List<StatementRow> parse(String token) {
+        line++;
+        var text = token.endsWith("\r") ? token.substring(0, token.length() - 1) : token;
+        if (text.isBlank()) {
+            return List.of();
+        }
+        var values = split(text);
+        if (dateColumn < 0) {
+            readHeader(values);
+            return List.of();
+        }
+        if (values == null) {
+            return List.of(StatementRow.rejected(line, "Unclosed quote"));
+        }
+        if (values.size() <= Math.max(dateColumn, amountColumn)) {
+            return List.of(StatementRow.rejected(line, "Missing columns"));
+        }
+        var postedAt = parseDate(values.get(dateColumn).trim());
+        if (postedAt == null) {
+            return List.of(StatementRow.rejected(line, "Invalid date"));
+        }
+        BigDecimal amount;
+        try {
+            amount = new BigDecimal(values.get(amountColumn).trim());
+        } catch (NumberFormatException e) {
+            return List.of(StatementRow.rejected(line, "Invalid amount"));
+        }
+        var notes = notesColumn >= 0 && notesColumn < values.size() ? values.get(notesColumn).trim() : null;
+        return List.of(StatementRow.valid(line, postedAt, amount, notes));
+    }
+
+    @Override
+    public List<StatementRow> finish() {
+        if (dateColumn < 0) {
+            throw new StatementFormatException(HEADER_INVALID_MESSAGE);
+        }
+        return List.of();
+    }
+
+    private void readHeader(List<String> values) {
+        if (values != null) {
+            for (int i = 0; i < values.size(); i++) {
+                switch (values.get(i).trim().toLowerCase(Locale.ROOT)) {
+                    case "date" -> dateColumn = i;
+                    case "amount" -> amountColumn = i;
+                    case "notes", "description", "memo" -> notesColumn = notesColumn < 0 ? i : notesColumn;
+                    default -> {
+                    }
+                }
+            }
+        }
+        if (dateColumn < 0 || amountColumn < 0) {
+            throw new StatementFormatException(HEADER_INVALID_MESSAGE);
+        }
+    }
+
+    // RFC 4180 values, null when a quote is not closed
+    static List<String> split(String text) {
+        var values = new ArrayList<String>();
+        var value = new StringBuilder();
+        var quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            var c = text.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    value.append(c);
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    private static OffsetDateTime parseDate(String value) {
+        try {
+            if (value.length() == 10) {
+                return LocalDate.parse(value).atStartOfDay().atOffset(ZoneOffset.UTC);
+            }
+            return OffsetDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
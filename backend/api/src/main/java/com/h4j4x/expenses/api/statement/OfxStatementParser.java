@@ -0,0 +1,120 @@
+package com.h4j4x.expenses.api.statement;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * OFX statement, SGML or XML flavor. Tokens are split on tag starts, so layout and line length do not matter;
+ * only {@code STMTTRN} aggregates are read. The {@code FITID} is kept as the row external id, so re-imported
+ * transactions can be told apart.
+ */
+public class OfxStatementParser implements StatementParser {
+    private static final String TRANSACTION_TAG = "STMTTRN";
+
+    // OFX spec max FITID length
+    static final int MAX_FITID_LENGTH = 255;
+
+    private int transactions;
+
+    private Map<String, String> current;
+
+    @Override
+    public char delimiter() {
+        return '<';
+    }
+
+    @Override
+    public List<StatementRow> parse(String token) {
+        var end = token.indexOf('>');
+        if (end < 0) {
+            return List.of();
+        }
+        var tag = token.substring(0, end).trim().toUpperCase(Locale.ROOT);
+        if (TRANSACTION_TAG.equals(tag)) {
+            // SGML allows an aggregate to start before the previous one is explicitly closed
+            var pending = current != null ? List.of(toRow(current)) : List.<StatementRow>of();
+            transactions++;
+            current = new HashMap<>();
+            return pending;
+        }
+        if (("/" + TRANSACTION_TAG).equals(tag)) {
+            return finish();
+        }
+        if (current != null && !tag.startsWith("/")) {
+            current.put(tag, unescape(token.substring(end + 1).trim()));
+        }
+        return List.of();
+    }
+
+    @Override
+    public List<StatementRow> finish() {
+        if (current == null) {
+            return List.of();
+        }
+        var row = toRow(current);
+        current = null;
+        return List.of(row);
+    }
+
+    private StatementRow toRow(Map<String, String> fields) {
+        var postedAt = parseDate(fields.get("DTPOSTED"));
+        if (postedAt == null) {
+            return StatementRow.rejected(transactions, "Invalid DTPOSTED");
+        }
+        BigDecimal amount;
+        try {
+            amount = new BigDecimal(fields.getOrDefault("TRNAMT", "").replace(',', '.'));
+        } catch (NumberFormatException e) {
+            return StatementRow.rejected(transactions, "Invalid TRNAMT");
+        }
+        var fitId = fields.get("FITID");
+        if (fitId != null && (fitId.isEmpty() || fitId.length() > MAX_FITID_LENGTH)) {
+            return StatementRow.rejected(transactions, "Invalid FITID");
+        }
+        var name = fields.get("NAME");
+        var memo = fields.get("MEMO");
+        var notes = name != null && memo != null && !memo.isBlank() ? name + " - " + memo
+            : name != null ? name : memo;
+        return StatementRow.valid(transactions, postedAt, amount, notes, fitId);
+    }
+
+    // YYYYMMDD[HHMMSS[.XXX]][[+-H[:TZ]]], UTC when without offset
+    static OffsetDateTime parseDate(String value) {
+        if (value == null || value.length() < 8) {
+            return null;
+        }
+        try {
+            var date = LocalDate.of(Integer.parseInt(value.substring(0, 4)),
+                Integer.parseInt(value.substring(4, 6)), Integer.parseInt(value.substring(6, 8)));
+            var time = LocalTime.MIDNIGHT;
+            if (value.length() >= 14 && Character.isDigit(value.charAt(8))) {
+                time = LocalTime.of(Integer.parseInt(value.substring(8, 10)),
+                    Integer.parseInt(value.substring(10, 12)), Integer.parseInt(value.substring(12, 14)));
+            }
+            var offset = ZoneOffset.UTC;
+            var zoneStart = value.indexOf('[');
+            if (zoneStart > 0) {
+                var zoneEnd = value.indexOf(':', zoneStart);
+                if (zoneEnd < 0) {
+                    zoneEnd = value.indexOf(']', zoneStart);
+                }
+                var hours = new BigDecimal(value.substring(zoneStart + 1, zoneEnd));
+                offset = ZoneOffset.ofTotalSeconds(hours.multiply(BigDecimal.valueOf(3600)).intValueExact());
+            }
+            return OffsetDateTime.of(date, time, offset);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static String unescape(String value) {
+        return value.replace("&lt;", "<").replace("&gt;", ">").replace("&amp;", "&");
+    }
+}
@@ -0,0 +1,19 @@
+package com.h4j4x.expenses.api.statement;
+
+import java.util.function.Supplier;
+
+public enum StatementFormat {
+    CSV(CsvStatementParser::new),
+    OFX(OfxStatementParser::new),
+    ;
+
+    private final Supplier<StatementParser> parserFactory;
+
+    StatementFormat(Supplier<StatementParser> parserFactory) {
+        this.parserFactory = parserFactory;
+    }
+
+    public StatementParser newParser() {
+        return parserFactory.get();
+    }
+}
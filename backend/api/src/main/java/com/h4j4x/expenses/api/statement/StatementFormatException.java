@@ -0,0 +1,12 @@
+package com.h4j4x.expenses.api.statement;
+
+/**
+ * The statement is not valid for its format as a whole, so no row can be read.
+ */
+public class StatementFormatException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public StatementFormatException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,26 @@
+package com.h4j4x.expenses.api.statement;
+
+import java.util.List;
+
+/**
+ * Incremental statement parser, fed with tokens split by its {@link #delimiter()}. Not thread safe.
+ */
+public interface StatementParser {
+    char delimiter();
+
+    /**
+     * Parses the next token.
+     *
+     * @param token text up to the next delimiter.
+     * @return rows completed by the token.
+     * @throws StatementFormatException if the statement is not valid for this format.
+     */
+    List<StatementRow> parse(String token);
+
+    /**
+     * Ends the statement.
+     *
+     * @return rows still pending.
+     */
+    List<StatementRow> finish();
+}
@@ -0,0 +1,34 @@
+package com.h4j4x.expenses.api.statement;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+/**
+ * Statement transaction, or the reason it was rejected.
+ *
+ * @param position   line, or transaction ordinal for formats without line records.
+ * @param postedAt   posting date time.
+ * @param amount     signed amount.
+ * @param notes      description, may be {@literal null}.
+ * @param externalId statement transaction id, {@literal null} for formats without one.
+ * @param error      rejection reason, {@literal null} for valid rows.
+ */
+public record StatementRow(int position, OffsetDateTime postedAt, BigDecimal amount, String notes, String externalId,
+                           String error) {
+    public static StatementRow valid(int position, OffsetDateTime postedAt, BigDecimal amount, String notes) {
+        return valid(position, postedAt, amount, notes, null);
+    }
+
+    public static StatementRow valid(int position, OffsetDateTime postedAt, BigDecimal amount, String notes,
+                                     String externalId) {
+        return new StatementRow(position, postedAt, amount, notes, externalId, null);
+    }
+
+    public static StatementRow rejected(int position, String error) {
+        return new StatementRow(position, null, null, null, null, error);
+    }
+
+    public boolean isValid() {
+        return error == null;
+    }
+}
@@ -0,0 +1,4 @@
+create extension if not exists pg_trgm;
+create extension if not exists btree_gin;
+create index if not exists idx_user_transactions_user_notes_fts on user_transactions using gin (user_id, to_tsvector('simple', notes));
+create index if not exists idx_user_transactions_user_notes_trgm on user_transactions using gin (user_id, notes gin_trgm_ops);
@@ -40,8 +40,8 @@ public class DataGenerator {
         return Math.abs(faker.random().nextLong());
     }
 
-    public double genRandomDouble() {
-        return Math.abs(faker.random().nextDouble());
+    public long genRandomMinorUnits() {
+        return faker.number().numberBetween(1L, 100_000_000L);
     }
 
     public String genRandomNotes(int minCount, int maxCount) {
@@ -0,0 +1,34 @@
+package com.h4j4x.expenses.api.model;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AccountBalanceEventTests {
+    @Test
+    void whenToPayload_Then_ShouldParseBack() {
+        var event = new AccountBalanceEvent(12L, 345L, -1050L);
+
+        assertEquals("12", event.key());
+        assertEquals("12:345:-1050", event.toPayload());
+        assertEquals(event, AccountBalanceEvent.fromPayload(event.toPayload()));
+    }
+
+    @Test
+    void whenToPayload_WithoutTransaction_Then_ShouldParseBackWithoutTransaction() {
+        var event = new AccountBalanceEvent(12L, null, 2500L);
+
+        assertEquals("12::2500", event.toPayload());
+        assertEquals(event, AccountBalanceEvent.fromPayload(event.toPayload()));
+    }
+
+    @Test
+    void whenFromPayload_WithAccountIdOnly_Then_ShouldParseAccount() {
+        assertEquals(new AccountBalanceEvent(12L, null, null), AccountBalanceEvent.fromPayload("12"));
+    }
+
+    @Test
+    void whenFromPayload_WithInvalidPayload_Then_ShouldReturnNull() {
+        assertNull(AccountBalanceEvent.fromPayload(null));
+        assertNull(AccountBalanceEvent.fromPayload("account:1:100"));
+    }
+}
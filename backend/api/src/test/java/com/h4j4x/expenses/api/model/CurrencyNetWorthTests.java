@@ -0,0 +1,40 @@
+package com.h4j4x.expenses.api.model;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CurrencyNetWorthTests {
+    @Test
+    void whenFromTotals_WithOwedCredit_Then_ShouldCountPositiveLiabilities() {
+        var netWorth = CurrencyNetWorth.fromTotals(List.of(
+            new AccountBalanceTotal("usd", AccountType.MONEY, 1000L, 1L),
+            new AccountBalanceTotal("usd", AccountType.CREDIT, -400L, 2L)));
+
+        assertEquals(List.of(new CurrencyNetWorth("usd", 1000L, 400L, 3L)), netWorth);
+        assertEquals(600L, netWorth.get(0).netWorth());
+    }
+
+    @Test
+    void whenFromTotals_WithCreditInUserFavor_Then_ShouldCountAsAsset() {
+        var netWorth = CurrencyNetWorth.fromTotals(List.of(
+            new AccountBalanceTotal("usd", AccountType.MONEY, 1000L, 1L),
+            new AccountBalanceTotal("usd", AccountType.CREDIT, 50L, 1L)));
+
+        assertEquals(List.of(new CurrencyNetWorth("usd", 1050L, 0L, 2L)), netWorth);
+        assertEquals(1050L, netWorth.get(0).netWorth());
+    }
+
+    @Test
+    void whenFromTotals_WithSeveralCurrencies_Then_ShouldNotMixThem() {
+        var netWorth = CurrencyNetWorth.fromTotals(List.of(
+            new AccountBalanceTotal("usd", AccountType.CREDIT, -250L, 1L),
+            new AccountBalanceTotal("eur", AccountType.MONEY, 300L, 1L),
+            new AccountBalanceTotal("usd", AccountType.MONEY, null, 1L)));
+
+        assertEquals(List.of(
+            new CurrencyNetWorth("eur", 300L, 0L, 1L),
+            new CurrencyNetWorth("usd", 0L, 250L, 2L)), netWorth);
+        assertEquals(-250L, netWorth.get(1).netWorth());
+    }
+}
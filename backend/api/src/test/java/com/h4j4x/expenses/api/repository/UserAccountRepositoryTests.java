@@ -4,7 +4,10 @@ import com.h4j4x.expenses.api.DataGenerator;
 import com.h4j4x.expenses.api.TestConstants;
 import com.h4j4x.expenses.api.domain.UserAccount;
 import com.h4j4x.expenses.api.domain.UserEntity;
+import com.h4j4x.expenses.api.model.AccountBalanceTotal;
 import com.h4j4x.expenses.api.model.AccountType;
+import com.h4j4x.expenses.api.model.PageCountMode;
+import com.h4j4x.expenses.api.model.PageData;
 import io.quarkus.test.junit.QuarkusTest;
 import io.smallrye.mutiny.helpers.test.UniAssertSubscriber;
 import java.util.ArrayList;
@@ -204,7 +207,7 @@ public class UserAccountRepositoryTests {
 
         var pageIndex = 0;
         var pageSize = 2;
-        var findUni = accountRepo.findPageByUser(user, pageIndex, pageSize);
+        var findUni = accountRepo.findPageByUser(user, pageIndex, pageSize, PageCountMode.EXACT);
         var findSubscriber = findUni
             .subscribe().withSubscriber(UniAssertSubscriber.create());
 
@@ -218,6 +221,50 @@ public class UserAccountRepositoryTests {
         page.list().forEach(item -> assertTrue(items.contains(item)));
     }
 
+    @Test
+    void whenFindPagedAccounts_WithoutExactCount_Then_ShouldSkipCount() {
+        var user = createUser();
+        var itemsCount = 5;
+        for (int i = 0; i < itemsCount; i++) {
+            var account = new UserAccount(user, dataGen.genProductName(), AccountType.MONEY, "usd");
+            accountRepo.save(account)
+                .subscribe().withSubscriber(UniAssertSubscriber.create())
+                .awaitItem(TestConstants.UNI_DURATION);
+        }
+        accountRepo.flush()
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitItem(TestConstants.UNI_DURATION);
+
+        var pageSize = 2;
+        var estimated = accountRepo.findPageByUser(user, 0, pageSize, PageCountMode.ESTIMATE)
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitItem(TestConstants.UNI_DURATION)
+            .getItem();
+        assertEquals(pageSize, estimated.list().size());
+        assertEquals(pageSize + 1, estimated.totalCount());
+
+        var lastEstimated = accountRepo.findPageByUser(user, 2, pageSize, PageCountMode.ESTIMATE)
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitItem(TestConstants.UNI_DURATION)
+            .getItem();
+        assertEquals(1, lastEstimated.list().size());
+        assertEquals(itemsCount, lastEstimated.totalCount());
+
+        var uncounted = accountRepo.findPageByUser(user, 0, pageSize, PageCountMode.NONE)
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitItem(TestConstants.UNI_DURATION)
+            .getItem();
+        assertEquals(pageSize, uncounted.list().size());
+        assertEquals(PageData.UNKNOWN_COUNT, uncounted.totalCount());
+
+        var pastLast = accountRepo.findPageByUser(user, 5, pageSize, PageCountMode.EXACT)
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitItem(TestConstants.UNI_DURATION)
+            .getItem();
+        assertEquals(0, pastLast.list().size());
+        assertEquals(itemsCount, pastLast.totalCount());
+    }
+
     @Test
     void whenCountAccounts_ByUserAndNameAndSameId_Then_ShouldGetNothing() {
         var user = createUser();
@@ -275,6 +322,31 @@ public class UserAccountRepositoryTests {
         assertEquals(1L, count);
     }
 
+    @Test
+    void whenSumBalances_ByUser_Then_ShouldGroupByCurrencyAndType() {
+        var user = createUser();
+        saveAccount(new UserAccount(user, "money-" + dataGen.genProductName(), AccountType.MONEY, "usd"), 1000L);
+        saveAccount(new UserAccount(user, "other-" + dataGen.genProductName(), AccountType.MONEY, "usd"), 250L);
+        saveAccount(new UserAccount(user, "credit-" + dataGen.genProductName(), AccountType.CREDIT, "usd"), 400L);
+        saveAccount(new UserAccount(user, "euro-" + dataGen.genProductName(), AccountType.MONEY, "eur"), 300L);
+
+        var totals = accountRepo.sumBalancesByUser(user)
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitItem(TestConstants.UNI_DURATION)
+            .getItem();
+        assertEquals(3, totals.size());
+        assertTrue(totals.contains(new AccountBalanceTotal("usd", AccountType.MONEY, 1250L, 2L)));
+        assertTrue(totals.contains(new AccountBalanceTotal("usd", AccountType.CREDIT, 400L, 1L)));
+        assertTrue(totals.contains(new AccountBalanceTotal("eur", AccountType.MONEY, 300L, 1L)));
+    }
+
+    private void saveAccount(UserAccount account, long balance) {
+        account.setBalance(balance);
+        accountRepo.save(account)
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitItem(TestConstants.UNI_DURATION);
+    }
+
     private UserEntity createUser() {
         var entity = new UserEntity(dataGen.genUserName(), dataGen.genUserEmail(), dataGen.genUserPassword());
         return userRepo.save(entity)
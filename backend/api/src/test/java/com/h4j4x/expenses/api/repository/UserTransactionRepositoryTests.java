@@ -2,16 +2,22 @@ package com.h4j4x.expenses.api.repository;
 
 import com.h4j4x.expenses.api.DataGenerator;
 import com.h4j4x.expenses.api.TestConstants;
+import com.h4j4x.expenses.api.domain.AccountBalanceSnapshot;
 import com.h4j4x.expenses.api.domain.UserAccount;
 import com.h4j4x.expenses.api.domain.UserEntity;
 import com.h4j4x.expenses.api.domain.UserTransaction;
 import com.h4j4x.expenses.api.model.AccountType;
+import com.h4j4x.expenses.api.model.TransactionCursor;
+import com.h4j4x.expenses.api.model.TransactionExportRow;
+import com.h4j4x.expenses.api.model.TransactionFilter;
+import com.h4j4x.expenses.api.model.TransactionSearchCursor;
 import com.h4j4x.expenses.api.model.TransactionCreationWay;
 import com.h4j4x.expenses.api.model.TransactionStatus;
 import io.quarkus.test.junit.QuarkusTest;
 import io.smallrye.mutiny.helpers.test.AssertSubscriber;
 import io.smallrye.mutiny.helpers.test.UniAssertSubscriber;
 import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 import javax.inject.Inject;
@@ -19,6 +25,8 @@ import javax.validation.ConstraintViolationException;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @QuarkusTest
 public class UserTransactionRepositoryTests {
@@ -31,6 +39,9 @@ public class UserTransactionRepositoryTests {
     @Inject
     UserRepository userRepo;
 
+    @Inject
+    AccountBalanceSnapshotRepository snapshotRepo;
+
     @Inject
     DataGenerator dataGen;
 
@@ -48,7 +59,7 @@ public class UserTransactionRepositoryTests {
 
     @Test
     void whenCreateTransaction_WithoutAccount_Then_ShouldThrowError() {
-        var transaction = new UserTransaction(dataGen.genProductName(), dataGen.genRandomDouble());
+        var transaction = new UserTransaction(dataGen.genProductName(), dataGen.genRandomMinorUnits());
         var uni = transactionRepo.save(transaction);
         var subscriber = uni
             .subscribe().withSubscriber(UniAssertSubscriber.create());
@@ -61,7 +72,7 @@ public class UserTransactionRepositoryTests {
     @Test
     void whenCreateTransaction_Then_ShouldAssignId() {
         var account = createAccount();
-        var transaction = new UserTransaction(account, dataGen.genProductName(), dataGen.genRandomDouble());
+        var transaction = new UserTransaction(account, dataGen.genProductName(), dataGen.genRandomMinorUnits());
         transaction.setCreationWay(TransactionCreationWay.MANUAL);
         transaction.setStatus(TransactionStatus.CONFIRMED);
         var uni = transactionRepo.save(transaction);
@@ -86,7 +97,7 @@ public class UserTransactionRepositoryTests {
         var from = OffsetDateTime.now();
         var creationWay = TransactionCreationWay.SYSTEM;
         for (int i = 0; i < itemsCount; i++) {
-            var transaction = new UserTransaction(account, dataGen.genRandomNotes(10, 200), dataGen.genRandomDouble());
+            var transaction = new UserTransaction(account, dataGen.genRandomNotes(10, 200), dataGen.genRandomMinorUnits());
             transaction.setStatus(status);
             transaction.setCreationWay(creationWay);
             var item = transactionRepo.save(transaction)
@@ -106,6 +117,257 @@ public class UserTransactionRepositoryTests {
             .assertItems(items.toArray(new UserTransaction[0]));
     }
 
+    @Test
+    void whenApplyConfirmedTransactions_Then_ShouldSumThemOnce() {
+        var account = createAccount();
+        var itemsCount = dataGen.genRandomNumber(5, 10);
+        var status = TransactionStatus.CONFIRMED;
+        var from = OffsetDateTime.now();
+        var creationWay = TransactionCreationWay.SYSTEM;
+        var amount = 0L;
+        for (int i = 0; i < itemsCount; i++) {
+            var transaction = new UserTransaction(account, dataGen.genRandomNotes(10, 200), dataGen.genRandomMinorUnits());
+            transaction.setStatus(status);
+            transaction.setCreationWay(creationWay);
+            amount += transaction.getAmount();
+            transactionRepo.save(transaction)
+                .subscribe().withSubscriber(UniAssertSubscriber.create())
+                .awaitItem(TestConstants.UNI_DURATION);
+        }
+        var pending = new UserTransaction(account, dataGen.genRandomNotes(10, 200), dataGen.genRandomMinorUnits());
+        pending.setStatus(TransactionStatus.PENDING);
+        pending.setCreationWay(creationWay);
+        transactionRepo.save(pending)
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitItem(TestConstants.UNI_DURATION);
+        transactionRepo.flush()
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitItem(TestConstants.UNI_DURATION);
+
+        var windowSum = transactionRepo
+            .sumAppliedTransactionsInWindow(account, from, OffsetDateTime.now())
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitItem(TestConstants.UNI_DURATION)
+            .getItem();
+        assertEquals(0L, windowSum.count());
+
+        var appliedSum = transactionRepo.applyConfirmedTransactions(account)
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitItem(TestConstants.UNI_DURATION)
+            .getItem();
+        assertEquals((long) itemsCount, appliedSum.count());
+        assertEquals(amount, appliedSum.amount());
+
+        windowSum = transactionRepo
+            .sumAppliedTransactionsInWindow(account, from, OffsetDateTime.now())
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitItem(TestConstants.UNI_DURATION)
+            .getItem();
+        assertEquals((long) itemsCount, windowSum.count());
+        assertEquals(amount, windowSum.amount());
+
+        var reappliedSum = transactionRepo.applyConfirmedTransactions(account)
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitItem(TestConstants.UNI_DURATION)
+            .getItem();
+        assertEquals(0L, reappliedSum.count());
+    }
+
+    @Test
+    void whenApplyConfirmedTransactions_WithLateConfirmation_Then_ShouldCorrectLaterSnapshots() {
+        var account = createAccount();
+        var takenAt = OffsetDateTime.now().minusHours(1).truncatedTo(ChronoUnit.MICROS);
+        var earlier = saveSnapshot(new AccountBalanceSnapshot(account, takenAt.minusHours(1), 1000L));
+        var missed = saveSnapshot(new AccountBalanceSnapshot(account, takenAt, 1000L));
+        var later = saveSnapshot(new AccountBalanceSnapshot(account, takenAt.plusMinutes(30), 1000L));
+        // committed after the snapshots, confirmed before the second one
+        var transaction = new UserTransaction(account, dataGen.genRandomNotes(10, 200), 250L);
+        transaction.setCreationWay(TransactionCreationWay.SYSTEM);
+        transaction.setConfirmedAt(takenAt.minusMinutes(10));
+        transaction.setStatus(TransactionStatus.CONFIRMED);
+        transactionRepo.save(transaction)
+            .chain(transactionRepo::flush)
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitItem(TestConstants.UNI_DURATION);
+
+        var appliedSum = transactionRepo.applyConfirmedTransactions(account)
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitItem(TestConstants.UNI_DURATION)
+            .getItem();
+        assertEquals(250L, appliedSum.amount());
+
+        assertEquals(1000L, snapshotBalance(earlier));
+        assertEquals(1250L, snapshotBalance(missed));
+        assertEquals(1250L, snapshotBalance(later));
+    }
+
+    @Test
+    void whenFindUserTransactionsPaged_Then_ShouldWalkAllPagesNewestFirst() {
+        var account = createAccount();
+        var itemsCount = dataGen.genRandomNumber(5, 10);
+        var pageSize = 2;
+        List<Long> ids = new ArrayList<>(itemsCount);
+        for (int i = 0; i < itemsCount; i++) {
+            var transaction = new UserTransaction(account, dataGen.genRandomNotes(10, 200), dataGen.genRandomMinorUnits());
+            transaction.setStatus(TransactionStatus.CONFIRMED);
+            transaction.setCreationWay(TransactionCreationWay.MANUAL);
+            var item = transactionRepo.save(transaction)
+                .subscribe().withSubscriber(UniAssertSubscriber.create())
+                .awaitItem(TestConstants.UNI_DURATION)
+                .getItem();
+            ids.add(0, item.getId());
+        }
+        transactionRepo.flush()
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitItem(TestConstants.UNI_DURATION);
+
+        var filter = new TransactionFilter(null, account.getId(), null, null);
+        List<Long> pagedIds = new ArrayList<>(itemsCount);
+        TransactionCursor cursor = null;
+        do {
+            var page = transactionRepo
+                .findPageByUser(account.getUser(), filter, TransactionStatus.CONFIRMED, cursor, pageSize)
+                .subscribe().withSubscriber(UniAssertSubscriber.create())
+                .awaitItem(TestConstants.UNI_DURATION)
+                .getItem();
+            page.list().forEach(transaction -> pagedIds.add(transaction.getId()));
+            cursor = TransactionCursor.decode(page.nextCursor());
+        } while (cursor != null);
+        assertEquals(ids, pagedIds);
+
+        var lastPage = transactionRepo
+            .findPageByUser(account.getUser(), filter, TransactionStatus.PENDING, null, pageSize)
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitItem(TestConstants.UNI_DURATION)
+            .getItem();
+        assertEquals(0, lastPage.list().size());
+        assertNull(lastPage.nextCursor());
+    }
+
+    @Test
+    void whenFindExportBatches_Then_ShouldReadAllRowsOldestFirst() {
+        var account = createAccount();
+        var itemsCount = dataGen.genRandomNumber(5, 10);
+        var batchSize = 3;
+        List<Long> ids = new ArrayList<>(itemsCount);
+        for (int i = 0; i < itemsCount; i++) {
+            var transaction = new UserTransaction(account, dataGen.genRandomNotes(10, 200), dataGen.genRandomMinorUnits());
+            transaction.setStatus(TransactionStatus.PENDING);
+            transaction.setCreationWay(TransactionCreationWay.MANUAL);
+            var item = transactionRepo.save(transaction)
+                .subscribe().withSubscriber(UniAssertSubscriber.create())
+                .awaitItem(TestConstants.UNI_DURATION)
+                .getItem();
+            ids.add(item.getId());
+        }
+        transactionRepo.flush()
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitItem(TestConstants.UNI_DURATION);
+
+        var filter = new TransactionFilter(null, null, null, null);
+        List<Long> exportedIds = new ArrayList<>(itemsCount);
+        TransactionCursor cursor = null;
+        List<TransactionExportRow> rows;
+        do {
+            rows = transactionRepo.findExportBatch(account.getUser(), filter, cursor, batchSize)
+                .subscribe().withSubscriber(UniAssertSubscriber.create())
+                .awaitItem(TestConstants.UNI_DURATION)
+                .getItem();
+            rows.forEach(row -> {
+                exportedIds.add(row.id());
+                assertEquals(account.getKey(), row.toItem().accountKey());
+                assertEquals(account.getCurrency(), row.currency());
+            });
+            if (!rows.isEmpty()) {
+                cursor = rows.get(rows.size() - 1).cursor();
+            }
+        } while (rows.size() == batchSize);
+        assertEquals(ids, exportedIds);
+    }
+
+    @Test
+    void whenSearchUserTransactions_Then_ShouldMatchFullTextAndFuzzyOwnRowsOnly() {
+        var account = createAccount();
+        var otherAccount = createAccount();
+        var notes = List.of("coffee downtown market", "coffee online", "pharmacy airport", "coffee station",
+            "salary");
+        List<Long> coffeeIds = new ArrayList<>();
+        for (var note : notes) {
+            var id = saveTransaction(account, note).getId();
+            if (note.contains("coffee")) {
+                coffeeIds.add(id);
+            }
+        }
+        saveTransaction(otherAccount, "coffee downtown market");
+        transactionRepo.flush()
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitItem(TestConstants.UNI_DURATION);
+
+        var pageSize = 2;
+        List<Long> foundIds = new ArrayList<>();
+        TransactionSearchCursor cursor = null;
+        do {
+            var page = transactionRepo.searchByUser(account.getUser(), "coffee", cursor, pageSize)
+                .subscribe().withSubscriber(UniAssertSubscriber.create())
+                .awaitItem(TestConstants.UNI_DURATION)
+                .getItem();
+            assertTrue(page.list().size() <= pageSize);
+            page.list().forEach(transaction -> {
+                assertEquals(account.getUser().getId(), transaction.getUser().getId());
+                foundIds.add(transaction.getId());
+            });
+            cursor = TransactionSearchCursor.decode(page.nextCursor());
+        } while (cursor != null);
+        assertEquals(coffeeIds.size(), foundIds.size());
+        assertTrue(foundIds.containsAll(coffeeIds));
+
+        var fuzzyPage = transactionRepo.searchByUser(account.getUser(), "farmacy airport", null, pageSize)
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitItem(TestConstants.UNI_DURATION)
+            .getItem();
+        assertEquals(1, fuzzyPage.list().size());
+        assertEquals("pharmacy airport", fuzzyPage.list().get(0).getNotes());
+        assertNull(fuzzyPage.nextCursor());
+
+        // a misspelled word matches part of longer notes
+        var wordPage = transactionRepo.searchByUser(account.getUser(), "farmacy", null, pageSize)
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitItem(TestConstants.UNI_DURATION)
+            .getItem();
+        assertEquals(1, wordPage.list().size());
+        assertEquals("pharmacy airport", wordPage.list().get(0).getNotes());
+    }
+
+    private AccountBalanceSnapshot saveSnapshot(AccountBalanceSnapshot snapshot) {
+        return snapshotRepo.save(snapshot)
+            .call(snapshotRepo::flush)
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitItem(TestConstants.UNI_DURATION)
+            .getItem();
+    }
+
+    // read from the table, the session may still hold the snapshot as saved
+    private long snapshotBalance(AccountBalanceSnapshot snapshot) {
+        return snapshotRepo.getSession()
+            .flatMap(session -> session
+                .createNativeQuery("select balance from account_balance_snapshots where id = ?1", Long.class)
+                .setParameter(1, snapshot.getId())
+                .getSingleResult())
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitItem(TestConstants.UNI_DURATION)
+            .getItem();
+    }
+
+    private UserTransaction saveTransaction(UserAccount account, String notes) {
+        var transaction = new UserTransaction(account, notes, dataGen.genRandomMinorUnits());
+        transaction.setStatus(TransactionStatus.CONFIRMED);
+        transaction.setCreationWay(TransactionCreationWay.MANUAL);
+        return transactionRepo.save(transaction)
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitItem(TestConstants.UNI_DURATION)
+            .getItem();
+    }
+
     private UserAccount createAccount() {
         var entity = new UserEntity(dataGen.genUserName(), dataGen.genUserEmail(), dataGen.genUserPassword());
         var user = userRepo.save(entity)
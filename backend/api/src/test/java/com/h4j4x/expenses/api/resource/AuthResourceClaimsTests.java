@@ -0,0 +1,119 @@
+package com.h4j4x.expenses.api.resource;
+
+import com.h4j4x.expenses.api.DataGenerator;
+import com.h4j4x.expenses.api.domain.UserEntity;
+import com.h4j4x.expenses.api.model.UserCredentials;
+import com.h4j4x.expenses.api.model.UserToken;
+import com.h4j4x.expenses.api.service.UserService;
+import io.quarkus.test.common.http.TestHTTPEndpoint;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.quarkus.test.junit.mockito.InjectMock;
+import io.restassured.RestAssured;
+import io.restassured.http.ContentType;
+import io.smallrye.mutiny.Uni;
+import java.util.Map;
+import javax.inject.Inject;
+import org.apache.http.HttpStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import static org.hamcrest.Matchers.*;
+
+@QuarkusTest
+@TestHTTPEndpoint(AuthResource.class)
+@TestProfile(AuthResourceClaimsTests.ClaimsTokensProfile.class)
+public class AuthResourceClaimsTests {
+    @InjectMock
+    UserService userService;
+
+    @Inject
+    DataGenerator dataGen;
+
+    private UserEntity user;
+
+    @BeforeEach
+    void setUp() {
+        user = new UserEntity(dataGen.genUserName(), dataGen.genUserEmail(), dataGen.genUserPassword());
+        user.setId(dataGen.genRandomLong());
+        var credentials = new UserCredentials(user.getEmail(), user.getPassword());
+        Mockito
+            .when(userService.findUserByEmailAndPassword(credentials))
+            .thenReturn(Uni.createFrom().item(user));
+    }
+
+    @Test
+    public void whenGetMe_WithClaimsToken_Then_ShouldGetUserDataWithoutLookup() {
+        var token = signIn();
+
+        RestAssured.given()
+            .headers("Authorization", "Bearer " + token.token())
+            .when().get(AuthResource.ME)
+            .then()
+            .statusCode(HttpStatus.SC_OK)
+            .body("name", is(user.getName()))
+            .body("email", is(user.getEmail()));
+
+        Mockito.verify(userService).findUserByEmailAndPassword(Mockito.any());
+        Mockito.verifyNoMoreInteractions(userService);
+    }
+
+    @Test
+    public void whenPostRefresh_WithCurrentTokenVersion_Then_ShouldGetNewJwtToken() {
+        var token = signIn();
+        Mockito
+            .when(userService.findUserById(user.getId()))
+            .thenReturn(Uni.createFrom().item(user));
+
+        RestAssured.given()
+            .headers("Authorization", "Bearer " + token.token())
+            .when().post(AuthResource.REFRESH)
+            .then()
+            .statusCode(HttpStatus.SC_OK)
+            .body("token", not(blankOrNullString()));
+
+        Mockito.verify(userService).findUserByEmailAndPassword(Mockito.any());
+        Mockito.verify(userService).findUserById(user.getId());
+        Mockito.verifyNoMoreInteractions(userService);
+    }
+
+    @Test
+    public void whenPostRefresh_AfterTokenVersionBump_Then_ShouldThrow401() {
+        var token = signIn();
+        var edited = new UserEntity(user.getName(), user.getEmail(), user.getPassword());
+        edited.setId(user.getId());
+        edited.setTokenVersion(user.getTokenVersion());
+        edited.increaseTokenVersion();
+        Mockito
+            .when(userService.findUserById(user.getId()))
+            .thenReturn(Uni.createFrom().item(edited));
+
+        RestAssured.given()
+            .headers("Authorization", "Bearer " + token.token())
+            .when().post(AuthResource.REFRESH)
+            .then()
+            .statusCode(HttpStatus.SC_UNAUTHORIZED);
+
+        Mockito.verify(userService).findUserByEmailAndPassword(Mockito.any());
+        Mockito.verify(userService).findUserById(user.getId());
+        Mockito.verifyNoMoreInteractions(userService);
+    }
+
+    private UserToken signIn() {
+        var credentials = new UserCredentials(user.getEmail(), user.getPassword());
+        return RestAssured.given()
+            .contentType(ContentType.JSON)
+            .when().body(credentials).post(AuthResource.SIGN_IN)
+            .then()
+            .statusCode(HttpStatus.SC_OK)
+            .extract().as(UserToken.class);
+    }
+
+    public static class ClaimsTokensProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("app.auth.token-claims-enabled", "true");
+        }
+    }
+}
@@ -5,7 +5,9 @@ import com.h4j4x.expenses.api.domain.UserEntity;
 import com.h4j4x.expenses.api.model.UserCredentials;
 import com.h4j4x.expenses.api.model.UserDTO;
 import com.h4j4x.expenses.api.model.UserToken;
+import com.h4j4x.expenses.api.security.AuthMetrics;
 import com.h4j4x.expenses.api.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.quarkus.test.common.http.TestHTTPEndpoint;
 import io.quarkus.test.junit.QuarkusTest;
 import io.quarkus.test.junit.mockito.InjectMock;
@@ -19,6 +21,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 @QuarkusTest
 @TestHTTPEndpoint(AuthResource.class)
@@ -26,6 +29,9 @@ public class AuthResourceTests {
     @InjectMock
     UserService userService;
 
+    @Inject
+    MeterRegistry registry;
+
     @Inject
     DataGenerator dataGen;
 
@@ -60,6 +66,27 @@ public class AuthResourceTests {
         Mockito.verifyNoMoreInteractions(userService);
     }
 
+    @Test
+    public void whenPostSignUp_WithRegisteredEmail_Then_ShouldTagEmailExists() {
+        var user = new UserDTO(dataGen.genUserName(), dataGen.genUserEmail(), dataGen.genUserPassword());
+        Mockito
+            .when(userService.createUser(user))
+            .thenReturn(Uni.createFrom().failure(new BadRequestException(UserService.USER_EMAIL_EXISTS_MESSAGE)));
+        var emailExists = signUpCount(AuthMetrics.EMAIL_EXISTS);
+        var errors = signUpCount(AuthMetrics.ERROR);
+
+        RestAssured.given()
+            .contentType(ContentType.JSON)
+            .when().body(user).post(AuthResource.SIGN_UP)
+            .then()
+            .statusCode(HttpStatus.SC_BAD_REQUEST);
+
+        assertEquals(emailExists + 1, signUpCount(AuthMetrics.EMAIL_EXISTS));
+        assertEquals(errors, signUpCount(AuthMetrics.ERROR));
+        Mockito.verify(userService).createUser(user);
+        Mockito.verifyNoMoreInteractions(userService);
+    }
+
     @Test
     public void whenPostSignUp_WithOtherEmail_Then_ShouldGetJwtToken() {
         var user = new UserDTO(dataGen.genUserName(), dataGen.genUserEmail(), dataGen.genUserPassword());
@@ -106,6 +133,30 @@ public class AuthResourceTests {
         Mockito.verifyNoMoreInteractions(userService);
     }
 
+    @Test
+    public void whenPostSignIn_TooManyTimes_Then_ShouldThrow429() {
+        var credentials = new UserCredentials(user.getEmail(), dataGen.genUserPassword());
+        Mockito
+            .when(userService.findUserByEmailAndPassword(credentials))
+            .thenReturn(Uni.createFrom().nullItem());
+        for (int i = 0; i < 5; i++) {
+            RestAssured.given()
+                .contentType(ContentType.JSON)
+                .when().body(credentials).post(AuthResource.SIGN_IN)
+                .then()
+                .statusCode(HttpStatus.SC_UNAUTHORIZED);
+        }
+        RestAssured.given()
+            .contentType(ContentType.JSON)
+            .when().body(credentials).post(AuthResource.SIGN_IN)
+            .then()
+            .statusCode(429)
+            .body("message", is(AuthResource.THROTTLED_MESSAGE));
+
+        Mockito.verify(userService, Mockito.times(5)).findUserByEmailAndPassword(credentials);
+        Mockito.verifyNoMoreInteractions(userService);
+    }
+
     @Test
     public void whenGetMe_Anonymous_Then_ShouldThrow401() {
         RestAssured.given()
@@ -135,4 +186,57 @@ public class AuthResourceTests {
         Mockito.verify(userService).findUserByEmail(user.getEmail());
         Mockito.verifyNoMoreInteractions(userService);
     }
+
+    @Test
+    public void whenPostRefresh_WithCurrentTokenVersion_Then_ShouldGetNewJwtToken() {
+        var token = signIn();
+        Mockito
+            .when(userService.findUserById(user.getId()))
+            .thenReturn(Uni.createFrom().item(user));
+
+        RestAssured.given()
+            .headers("Authorization", "Bearer " + token.token())
+            .when().post(AuthResource.REFRESH)
+            .then()
+            .statusCode(HttpStatus.SC_OK)
+            .body("token", not(blankOrNullString()));
+
+        Mockito.verify(userService).findUserById(user.getId());
+    }
+
+    @Test
+    public void whenPostRefresh_WithRevokedTokenVersion_Then_ShouldThrow401() {
+        var token = signIn();
+        var revoked = new UserEntity(user.getName(), user.getEmail(), user.getPassword());
+        revoked.setId(user.getId());
+        revoked.setTokenVersion(user.getTokenVersion() + 1);
+        Mockito
+            .when(userService.findUserById(user.getId()))
+            .thenReturn(Uni.createFrom().item(revoked));
+
+        RestAssured.given()
+            .headers("Authorization", "Bearer " + token.token())
+            .when().post(AuthResource.REFRESH)
+            .then()
+            .statusCode(HttpStatus.SC_UNAUTHORIZED);
+
+        Mockito.verify(userService).findUserById(user.getId());
+    }
+
+    private long signUpCount(String outcome) {
+        var timer = registry.find("auth.stage.duration")
+            .tag("flow", AuthMetrics.SIGN_UP)
+            .tag("stage", "total")
+            .tag("outcome", outcome)
+            .timer();
+        return timer != null ? timer.count() : 0L;
+    }
+
+    private UserToken signIn() {
+        var credentials = new UserCredentials(user.getEmail(), user.getPassword());
+        return RestAssured.given()
+            .contentType(ContentType.JSON)
+            .when().body(credentials).post(AuthResource.SIGN_IN)
+            .then().extract().as(UserToken.class);
+    }
 }
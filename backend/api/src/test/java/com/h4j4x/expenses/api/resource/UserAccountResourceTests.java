@@ -4,6 +4,7 @@ import com.h4j4x.expenses.api.DataGenerator;
 import com.h4j4x.expenses.api.TestConstants;
 import com.h4j4x.expenses.api.domain.UserAccount;
 import com.h4j4x.expenses.api.domain.UserEntity;
+import com.h4j4x.expenses.api.model.PageCountMode;
 import com.h4j4x.expenses.api.model.PageData;
 import com.h4j4x.expenses.api.model.UserAccountDTO;
 import com.h4j4x.expenses.api.security.AuthMechanism;
@@ -31,6 +32,8 @@ import static org.junit.jupiter.api.Assertions.*;
 
 @QuarkusTest
 public class UserAccountResourceTests {
+    private static final String CURRENCY = "usd";
+
     @InjectMock
     AuthMechanism authMechanism;
 
@@ -70,6 +73,7 @@ public class UserAccountResourceTests {
     public void whenCreateAccount_Then_ShouldGetCreatedAccount() {
         var account = new UserAccount(user, dataGen.genProductName());
         account.setId(dataGen.genRandomLong());
+        account.setCurrency(CURRENCY);
         Mockito
             .when(accountService.addAccount(Mockito.any(), Mockito.any()))
             .thenReturn(Uni.createFrom().item(account));
@@ -81,7 +85,7 @@ public class UserAccountResourceTests {
                     List.of(
                         Argument.arg("account", InputObject.inputObject(
                             InputObjectField.prop("name", account.getName()),
-                            InputObjectField.prop("balance", account.getBalance())
+                            InputObjectField.prop("balance", account.getBalanceMoney().toDecimal())
                         ))
                     ),
                     Field.field("key"),
@@ -102,9 +106,10 @@ public class UserAccountResourceTests {
         assertNotNull(accountData);
         assertEquals(account.getKey(), accountData.getKey());
         assertEquals(account.getName(), accountData.getName());
-        assertEquals(account.getBalance(), accountData.getBalanceDoubleValue());
+        assertEquals(0, account.getBalanceMoney().toDecimal().compareTo(accountData.getBalance()));
 
         Mockito.verify(accountService).addAccount(Mockito.any(), Mockito.any());
+        Mockito.verify(accountService).balanceCommitted(account);
         Mockito.verifyNoMoreInteractions(accountService);
     }
 
@@ -115,6 +120,7 @@ public class UserAccountResourceTests {
         for (int i = 0; i < itemsCount; i++) {
             var account = new UserAccount(user, dataGen.genProductName());
             account.setId(dataGen.genRandomLong());
+            account.setCurrency(CURRENCY);
             items.put(account.getId(), account);
         }
         Mockito
@@ -148,7 +154,7 @@ public class UserAccountResourceTests {
             assertNotNull(userAccount);
             assertEquals(userAccount.getKey(), account.getKey());
             assertEquals(userAccount.getName(), account.getName());
-            assertEquals(userAccount.getBalance(), account.getBalanceDoubleValue());
+            assertEquals(0, userAccount.getBalanceMoney().toDecimal().compareTo(account.getBalance()));
         });
 
         Mockito.verify(accountService).getAccounts(Mockito.any());
@@ -162,13 +168,14 @@ public class UserAccountResourceTests {
         for (int i = 0; i < itemsCount; i++) {
             var account = new UserAccount(user, dataGen.genProductName());
             account.setId(dataGen.genRandomLong());
+            account.setCurrency(CURRENCY);
             items.put(account.getId(), account);
         }
         var pageIndex = 0;
         var pageSize = 2;
         var lst = items.values().stream().limit(pageSize).toList();
         Mockito
-            .when(accountService.getAccountsPaged(user, pageIndex, pageSize))
+            .when(accountService.getAccountsPaged(user, pageIndex, pageSize, PageCountMode.EXACT))
             .thenReturn(Uni.createFrom()
                 .item(PageData.create(lst, pageIndex, pageSize, itemsCount)));
 
@@ -216,7 +223,7 @@ public class UserAccountResourceTests {
                     assertNotNull(userAccount);
                     assertEquals(userAccount.getKey(), map.get("key"));
                     assertEquals(userAccount.getName(), map.get("name"));
-                    assertEquals(BigDecimal.valueOf(userAccount.getBalance()), new BigDecimal(map.get("balance").toString()));
+                    assertEquals(0, userAccount.getBalanceMoney().toDecimal().compareTo(new BigDecimal(map.get("balance").toString())));
                 } else {
                     fail("Page item list should be a map");
                 }
@@ -225,7 +232,7 @@ public class UserAccountResourceTests {
             fail("Page list should be a list");
         }
 
-        Mockito.verify(accountService).getAccountsPaged(user, pageIndex, pageSize);
+        Mockito.verify(accountService).getAccountsPaged(user, pageIndex, pageSize, PageCountMode.EXACT);
         Mockito.verifyNoMoreInteractions(accountService);
     }
 
@@ -233,8 +240,10 @@ public class UserAccountResourceTests {
     public void whenEditUserAccount_WithNewName_Then_ShouldGetUpdatedUserAccount() {
         var account = new UserAccount(user, dataGen.genProductName());
         account.setId(dataGen.genRandomLong());
+        account.setCurrency(CURRENCY);
         var edited = new UserAccount(user, dataGen.genProductName());
         edited.setId(account.getId());
+        edited.setCurrency(CURRENCY);
         UserAccountDTO accountDTO = new UserAccountDTO(edited.getName());
         Mockito
             .when(accountService.editAccount(user, account.getKey(), accountDTO))
@@ -248,7 +257,7 @@ public class UserAccountResourceTests {
                         Argument.arg("key", account.getKey()),
                         Argument.arg("account", InputObject.inputObject(
                             InputObjectField.prop("name", edited.getName()),
-                            InputObjectField.prop("balance", edited.getBalance())
+                            InputObjectField.prop("balance", edited.getBalanceMoney().toDecimal())
                         ))
                     ),
                     Field.field("key"),
@@ -268,9 +277,10 @@ public class UserAccountResourceTests {
         var userAccount = response.getObject(UserAccountDTO.class, "editUserAccount");
         assertEquals(edited.getKey(), userAccount.getKey());
         assertEquals(edited.getName(), userAccount.getName());
-        assertEquals(edited.getBalance(), userAccount.getBalanceDoubleValue());
+        assertEquals(0, edited.getBalanceMoney().toDecimal().compareTo(userAccount.getBalance()));
 
         Mockito.verify(accountService).editAccount(user, account.getKey(), accountDTO);
+        Mockito.verify(accountService).balanceCommitted(edited);
         Mockito.verifyNoMoreInteractions(accountService);
     }
 }
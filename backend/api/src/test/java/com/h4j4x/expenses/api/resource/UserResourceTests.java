@@ -158,6 +158,7 @@ public class UserResourceTests {
         assertEquals(userDTO.getEmail(), userData.getEmail());
 
         Mockito.verify(userService).editUser(user, userDTO);
+        Mockito.verify(userService).invalidatePrincipal(user.getEmail(), updatedEntity);
         Mockito.verify(userService).findUserByEmail(user.getName());
         Mockito.verifyNoMoreInteractions(userService);
     }
@@ -0,0 +1,147 @@
+package com.h4j4x.expenses.api.resource;
+
+import com.h4j4x.expenses.api.DataGenerator;
+import com.h4j4x.expenses.api.domain.UserAccount;
+import com.h4j4x.expenses.api.domain.UserEntity;
+import com.h4j4x.expenses.api.domain.UserTransaction;
+import com.h4j4x.expenses.api.repository.OutboxEventRepository;
+import com.h4j4x.expenses.api.repository.UserAccountRepository;
+import com.h4j4x.expenses.api.repository.UserTransactionRepository;
+import com.h4j4x.expenses.api.security.AuthMechanism;
+import io.quarkus.security.identity.request.TokenAuthenticationRequest;
+import io.quarkus.security.runtime.QuarkusSecurityIdentity;
+import io.quarkus.test.common.http.TestHTTPEndpoint;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.quarkus.test.junit.mockito.InjectMock;
+import io.quarkus.vertx.http.runtime.security.HttpCredentialTransport;
+import io.restassured.RestAssured;
+import io.smallrye.mutiny.Uni;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import javax.inject.Inject;
+import org.apache.http.HttpStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@QuarkusTest
+@TestHTTPEndpoint(UserTransactionImportResource.class)
+@TestProfile(UserTransactionImportResourceTests.SmallChunksProfile.class)
+public class UserTransactionImportResourceTests {
+    private static final int CHUNK_SIZE = 2;
+    private static final int MAX_LINE_LENGTH = 64;
+
+    @InjectMock
+    AuthMechanism authMechanism;
+
+    @InjectMock
+    UserAccountRepository accountRepo;
+
+    @InjectMock
+    UserTransactionRepository transactionRepo;
+
+    @InjectMock
+    OutboxEventRepository outboxRepo;
+
+    @Inject
+    DataGenerator dataGen;
+
+    private UserAccount account;
+
+    @BeforeEach
+    void setUp() {
+        Mockito
+            .when(authMechanism.getCredentialTypes())
+            .thenReturn(Collections.singleton(TokenAuthenticationRequest.class));
+        Mockito
+            .when(authMechanism.getCredentialTransport(Mockito.any()))
+            .thenReturn(Uni.createFrom().item(new HttpCredentialTransport(
+                HttpCredentialTransport.Type.AUTHORIZATION, "Bearer")));
+        Mockito
+            .when(authMechanism.sendChallenge(Mockito.any()))
+            .thenReturn(Uni.createFrom().item(true));
+        var user = new UserEntity(dataGen.genUserName(), dataGen.genUserEmail(), dataGen.genUserPassword());
+        user.setId(dataGen.genRandomLong());
+        var identity = QuarkusSecurityIdentity.builder().setPrincipal(user).build();
+        Mockito
+            .when(authMechanism.authenticate(Mockito.any(), Mockito.any()))
+            .thenReturn(Uni.createFrom().item(identity));
+        account = new UserAccount(user, dataGen.genProductName());
+        account.setId(dataGen.genRandomLong());
+        account.setCurrency("usd");
+        Mockito
+            .when(accountRepo.findByUserAndId(Mockito.any(), Mockito.eq(account.getId())))
+            .thenReturn(Uni.createFrom().item(account));
+        Mockito
+            .when(transactionRepo.saveAll(Mockito.any()))
+            .thenReturn(Uni.createFrom().voidItem());
+        Mockito
+            .when(outboxRepo.save(Mockito.any()))
+            .thenAnswer(invocation -> Uni.createFrom().item(invocation.getArgument(0)));
+    }
+
+    @Test
+    public void whenPostCsv_Then_ShouldSaveInChunksAndReportRejectedRows() {
+        var csv = """
+            date,amount,notes
+            2023-01-01,-1.00,One
+            2023-01-02,-2.00,Two
+            2023-01-03,-3.00,Three
+            bad,-4.00,Bad
+            2023-01-05,-5.00,Five
+            2023-01-06,-6.00,Six
+            """;
+
+        RestAssured.given()
+            .header("Authorization", "Bearer token")
+            .contentType(UserTransactionExportResource.TEXT_CSV)
+            .queryParam("accountKey", account.getKey())
+            .when().body(csv).post()
+            .then()
+            .statusCode(HttpStatus.SC_OK)
+            .body("importedCount", is(5))
+            .body("rejectedCount", is(1))
+            .body("duplicateCount", is(0))
+            .body("rejected[0].position", is(5))
+            .body("rejected[0].error", is("Invalid date"));
+
+        // rows are chunked as parsed, the rejected one still takes its place in a chunk
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<UserTransaction>> transactionsCaptor = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(transactionRepo, Mockito.times(3)).saveAll(transactionsCaptor.capture());
+        var sizes = transactionsCaptor.getAllValues().stream().map(List::size).toList();
+        assertEquals(List.of(2, 1, 2), sizes);
+        Mockito.verify(outboxRepo).save(Mockito.any());
+    }
+
+    @Test
+    public void whenPostCsv_WithLineOverMaxLength_Then_ShouldThrow400() {
+        var csv = "date,amount,notes\n2023-01-01,-1.00," + "x".repeat(MAX_LINE_LENGTH) + "\n";
+
+        RestAssured.given()
+            .header("Authorization", "Bearer token")
+            .contentType(UserTransactionExportResource.TEXT_CSV)
+            .queryParam("accountKey", account.getKey())
+            .when().body(csv).post()
+            .then()
+            .statusCode(HttpStatus.SC_BAD_REQUEST);
+
+        Mockito.verify(transactionRepo, Mockito.never()).saveAll(Mockito.any());
+        Mockito.verifyNoInteractions(outboxRepo);
+    }
+
+    public static class SmallChunksProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of(
+                "app.transaction.import.chunk-size", String.valueOf(CHUNK_SIZE),
+                "app.transaction.import.max-line-length", String.valueOf(MAX_LINE_LENGTH));
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.h4j4x.expenses.api.security;
+
+import com.h4j4x.expenses.api.TestConstants;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.helpers.test.UniAssertSubscriber;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class AuthMetricsTests {
+    @Test
+    void whenTimeStage_Then_ShouldTagOutcome() {
+        var registry = new SimpleMeterRegistry();
+        var authMetrics = new AuthMetrics(registry);
+
+        authMetrics.time(AuthMetrics.SIGN_IN, "user_lookup", Uni.createFrom().nullItem(),
+                item -> item != null ? AuthMetrics.SUCCESS : AuthMetrics.UNKNOWN_USER)
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitItem(TestConstants.UNI_DURATION);
+        authMetrics.time(AuthMetrics.SIGN_IN, "user_lookup", Uni.createFrom().failure(new IllegalStateException()))
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitFailure(TestConstants.UNI_DURATION);
+        authMetrics.time(AuthMetrics.SIGN_IN, "token_sign", () -> "token");
+
+        assertEquals(1L, timerCount(registry, "user_lookup", AuthMetrics.UNKNOWN_USER));
+        assertEquals(1L, timerCount(registry, "user_lookup", AuthMetrics.ERROR));
+        assertEquals(1L, timerCount(registry, "token_sign", AuthMetrics.SUCCESS));
+    }
+
+    @Test
+    void whenTimeStage_WithFailureOutcome_Then_ShouldTagMappedOutcome() {
+        var registry = new SimpleMeterRegistry();
+        var authMetrics = new AuthMetrics(registry);
+
+        authMetrics.time(AuthMetrics.SIGN_IN, "total", Uni.createFrom().failure(new IllegalArgumentException()),
+                item -> AuthMetrics.SUCCESS,
+                failure -> failure instanceof IllegalArgumentException ? AuthMetrics.EMAIL_EXISTS : AuthMetrics.ERROR)
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitFailure(TestConstants.UNI_DURATION);
+
+        assertEquals(1L, timerCount(registry, "total", AuthMetrics.EMAIL_EXISTS));
+    }
+
+    private long timerCount(SimpleMeterRegistry registry, String stage, String outcome) {
+        return registry.get("auth.stage.duration")
+            .tag("flow", AuthMetrics.SIGN_IN)
+            .tag("stage", stage)
+            .tag("outcome", outcome)
+            .timer()
+            .count();
+    }
+}
@@ -0,0 +1,25 @@
+package com.h4j4x.expenses.api.security;
+
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HashCostCalibratorTests {
+    @Test
+    void whenBudgetIsTooLow_Then_ShouldKeepMinIterations() throws GeneralSecurityException {
+        var calibrator = new HashCostCalibrator(128, 512, 100000, Duration.ofNanos(1));
+
+        assertEquals(512, calibrator.calibrate());
+    }
+
+    @Test
+    void whenBudgetIsHigh_Then_ShouldRaiseIterationsUpToMax() throws GeneralSecurityException {
+        var calibrator = new HashCostCalibrator(128, 512, 2000, Duration.ofSeconds(5));
+
+        var iterations = calibrator.calibrate();
+        assertTrue(iterations > 512);
+        assertTrue(iterations <= 2000);
+    }
+}
@@ -0,0 +1,65 @@
+package com.h4j4x.expenses.api.security;
+
+import com.h4j4x.expenses.api.TestConstants;
+import com.h4j4x.expenses.api.security.impl.DummyStringHasher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.smallrye.mutiny.helpers.test.UniAssertSubscriber;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.ws.rs.ServiceUnavailableException;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StringHashingPoolTests {
+    @Test
+    void whenHash_Then_ShouldGetHashFromPool() {
+        var pool = new StringHashingPool(new DummyStringHasher(), 1, 1, new SimpleMeterRegistry());
+
+        var hash = pool.hash("value", pool.salt())
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitItem(TestConstants.UNI_DURATION)
+            .getItem();
+        assertEquals("value", hash);
+
+        var matches = pool.match("value", pool.salt(), hash)
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitItem(TestConstants.UNI_DURATION)
+            .getItem();
+        assertTrue(matches);
+        pool.shutdown();
+    }
+
+    @Test
+    void whenQueueIsFull_Then_ShouldFailFast() throws InterruptedException {
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var pool = new StringHashingPool(new DummyStringHasher() {
+            @Override
+            public String hash(String string, String salt) {
+                started.countDown();
+                try {
+                    release.await(1, TimeUnit.SECONDS);
+                } catch (InterruptedException ignored) {
+                }
+                return string;
+            }
+        }, 1, 1, new SimpleMeterRegistry());
+
+        var running = pool.hash("running", pool.salt())
+            .subscribe().withSubscriber(UniAssertSubscriber.create());
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        var queued = pool.hash("queued", pool.salt())
+            .subscribe().withSubscriber(UniAssertSubscriber.create());
+
+        pool.hash("rejected", pool.salt())
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitFailure(TestConstants.UNI_DURATION)
+            .assertFailedWith(ServiceUnavailableException.class, StringHashingPool.HASHING_BUSY_MESSAGE);
+
+        release.countDown();
+        running.awaitItem(TestConstants.UNI_DURATION).assertItem("running");
+        queued.awaitItem(TestConstants.UNI_DURATION).assertItem("queued");
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,65 @@
+package com.h4j4x.expenses.api.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.quarkus.security.runtime.QuarkusSecurityIdentity;
+import io.smallrye.jwt.auth.principal.DefaultJWTParser;
+import io.smallrye.jwt.auth.principal.JWTAuthContextInfo;
+import io.smallrye.jwt.build.Jwt;
+import java.security.KeyPairGenerator;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Compares verified against cached authentication throughput on one thread: RS256 signature verification
+ * of a fresh token versus a {@link VerifiedTokenCache} hit. Run with
+ * {@code BENCHMARK=true ./gradlew :api:test --tests '*VerifiedTokenCacheBenchmarkTests'}.
+ */
+@EnabledIfEnvironmentVariable(named = "BENCHMARK", matches = "true")
+public class VerifiedTokenCacheBenchmarkTests {
+    private static final String ISSUER = "https://expenses.com/issuer";
+    private static final Duration WARM_UP = Duration.ofSeconds(2);
+    private static final Duration MEASURE = Duration.ofSeconds(5);
+
+    @Test
+    void compareVerifiedAndCachedAuthentication() throws Exception {
+        var generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        var keyPair = generator.generateKeyPair();
+        var token = Jwt.issuer(ISSUER)
+            .upn("bench@expenses.local")
+            .expiresIn(Duration.ofHours(1))
+            .sign(keyPair.getPrivate());
+        var parser = new DefaultJWTParser(new JWTAuthContextInfo(keyPair.getPublic(), ISSUER));
+        var jwt = parser.parse(token);
+
+        var cache = new VerifiedTokenCache(new SimpleMeterRegistry());
+        cache.enabled = true;
+        cache.maxSize = 10000;
+        cache.ttl = Duration.ofMinutes(5);
+        cache.init();
+        cache.put(token, QuarkusSecurityIdentity.builder().setPrincipal(jwt).build());
+
+        var verified = opsPerSecond(() -> parser.parse(token));
+        var cached = opsPerSecond(() -> cache.get(token));
+        System.out.printf("verified: %,.0f ops/s, cached: %,.0f ops/s, speedup: %.1fx%n",
+            verified, cached, cached / verified);
+    }
+
+    private double opsPerSecond(Callable<Object> operation) throws Exception {
+        run(operation, WARM_UP);
+        return run(operation, MEASURE) / (double) MEASURE.toSeconds();
+    }
+
+    private long run(Callable<Object> operation, Duration duration) throws Exception {
+        var deadline = System.nanoTime() + duration.toNanos();
+        var count = 0L;
+        while (System.nanoTime() < deadline) {
+            assertNotNull(operation.call());
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,97 @@
+package com.h4j4x.expenses.api.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.quarkus.security.runtime.QuarkusSecurityIdentity;
+import java.time.Duration;
+import java.time.Instant;
+import org.eclipse.microprofile.jwt.JsonWebToken;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class VerifiedTokenCacheTests {
+    @Test
+    void whenGetPutToken_Then_ShouldHit() {
+        var cache = createCache(10, Duration.ofMinutes(5));
+        var identity = identity(Instant.now().plusSeconds(60));
+
+        cache.put("token", identity);
+
+        assertSame(identity, cache.get("token"));
+    }
+
+    @Test
+    void whenGetUnknownToken_Then_ShouldMiss() {
+        var cache = createCache(10, Duration.ofMinutes(5));
+        cache.put("token", identity(Instant.now().plusSeconds(60)));
+
+        assertNull(cache.get("other-token"));
+        assertNull(cache.get(null));
+    }
+
+    @Test
+    void whenTokenExpires_Then_ShouldMiss() {
+        var cache = createCache(10, Duration.ofMinutes(5));
+
+        cache.put("token", identity(Instant.now().minusSeconds(1)));
+
+        assertNull(cache.get("token"));
+    }
+
+    @Test
+    void whenTtlExpires_Then_ShouldMiss() {
+        var cache = createCache(10, Duration.ZERO);
+
+        cache.put("token", identity(Instant.now().plusSeconds(60)));
+
+        assertNull(cache.get("token"));
+    }
+
+    @Test
+    void whenCacheIsFull_Then_ShouldEvictLeastRecentlyUsed() {
+        var cache = createCache(2, Duration.ofMinutes(5));
+        var first = identity(Instant.now().plusSeconds(60));
+        var second = identity(Instant.now().plusSeconds(60));
+        var third = identity(Instant.now().plusSeconds(60));
+
+        cache.put("first", first);
+        cache.put("second", second);
+        assertSame(first, cache.get("first"));
+        cache.put("third", third);
+
+        assertSame(first, cache.get("first"));
+        assertNull(cache.get("second"));
+        assertSame(third, cache.get("third"));
+    }
+
+    @Test
+    void whenCacheIsDisabled_Then_ShouldMiss() {
+        var cache = createCache(10, Duration.ofMinutes(5));
+        cache.enabled = false;
+
+        cache.put("token", identity(Instant.now().plusSeconds(60)));
+
+        assertNull(cache.get("token"));
+    }
+
+    private VerifiedTokenCache createCache(int maxSize, Duration ttl) {
+        var cache = new VerifiedTokenCache(new SimpleMeterRegistry());
+        cache.enabled = true;
+        cache.maxSize = maxSize;
+        cache.ttl = ttl;
+        cache.init();
+        return cache;
+    }
+
+    private SecurityIdentity identity(Instant expiresAt) {
+        var jwt = Mockito.mock(JsonWebToken.class);
+        Mockito
+            .when(jwt.getExpirationTime())
+            .thenReturn(expiresAt.getEpochSecond());
+        return QuarkusSecurityIdentity.builder()
+            .setPrincipal(jwt)
+            .build();
+    }
+}
@@ -0,0 +1,73 @@
+package com.h4j4x.expenses.api.service;
+
+import com.h4j4x.expenses.api.DataGenerator;
+import com.h4j4x.expenses.api.domain.UserAccount;
+import com.h4j4x.expenses.api.domain.UserEntity;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.quarkus.test.junit.mockito.InjectMock;
+import io.smallrye.mutiny.Uni;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import javax.inject.Inject;
+import org.eclipse.microprofile.reactive.messaging.Message;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+@TestProfile(AccountBalanceCoalescerBackpressureTests.SmallBacklogProfile.class)
+public class AccountBalanceCoalescerBackpressureTests {
+    private static final int MAX_PENDING = 2;
+
+    @InjectMock
+    UserAccountService accountService;
+
+    @Inject
+    AccountBalanceCoalescer balanceCoalescer;
+
+    @Inject
+    DataGenerator dataGen;
+
+    @Test
+    void whenPendingLimitIsReached_Then_ShouldWaitForRoomBeforeConsumingMore()
+        throws InterruptedException, ExecutionException, TimeoutException {
+        var user = new UserEntity(dataGen.genUserName(), dataGen.genUserEmail(), dataGen.genUserPassword());
+        var account = new UserAccount(user, dataGen.genProductName());
+        account.setId(dataGen.genRandomLong());
+        var slowUpdate = new CompletableFuture<UserAccount>();
+        Mockito
+            .when(accountService.updateAccountBalance(account.getId()))
+            .thenReturn(Uni.createFrom().completionStage(slowUpdate))
+            .thenReturn(Uni.createFrom().item(account));
+
+        assertTrue(consume(account).toCompletableFuture().isDone());
+        Mockito.verify(accountService, Mockito.timeout(5000)).updateAccountBalance(account.getId());
+        // the account is in flight, so the next messages wait in the backlog
+        assertTrue(consume(account).toCompletableFuture().isDone());
+        var full = consume(account).toCompletableFuture();
+        assertFalse(full.isDone());
+
+        slowUpdate.complete(account);
+        full.get(10, TimeUnit.SECONDS);
+        Mockito.verify(accountService, Mockito.timeout(5000).times(2)).updateAccountBalance(account.getId());
+    }
+
+    private CompletionStage<Void> consume(UserAccount account) {
+        return balanceCoalescer.consume(Message.of(account.getId().toString(),
+            () -> CompletableFuture.completedFuture(null)));
+    }
+
+    public static class SmallBacklogProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("app.account.balance-max-pending", String.valueOf(MAX_PENDING));
+        }
+    }
+}
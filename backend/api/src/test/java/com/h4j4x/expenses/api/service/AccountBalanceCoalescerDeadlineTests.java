@@ -0,0 +1,82 @@
+package com.h4j4x.expenses.api.service;
+
+import com.h4j4x.expenses.api.DataGenerator;
+import com.h4j4x.expenses.api.domain.UserAccount;
+import com.h4j4x.expenses.api.domain.UserEntity;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.quarkus.test.junit.mockito.InjectMock;
+import io.smallrye.mutiny.Uni;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.inject.Inject;
+import org.eclipse.microprofile.reactive.messaging.Message;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+@TestProfile(AccountBalanceCoalescerDeadlineTests.ShortDeadlineProfile.class)
+public class AccountBalanceCoalescerDeadlineTests {
+    @InjectMock
+    UserAccountService accountService;
+
+    @Inject
+    AccountBalanceCoalescer balanceCoalescer;
+
+    @Inject
+    DataGenerator dataGen;
+
+    @Test
+    void whenAccountUpdateMissesDeadline_Then_ShouldNackAndHoldAccountUntilItEnds()
+        throws InterruptedException, ExecutionException, TimeoutException {
+        var user = new UserEntity(dataGen.genUserName(), dataGen.genUserEmail(), dataGen.genUserPassword());
+        var account = new UserAccount(user, dataGen.genProductName());
+        account.setId(dataGen.genRandomLong());
+        var slowUpdate = new CompletableFuture<UserAccount>();
+        Mockito
+            .when(accountService.updateAccountBalance(account.getId()))
+            .thenReturn(Uni.createFrom().completionStage(slowUpdate))
+            .thenReturn(Uni.createFrom().item(account));
+
+        var lateAck = new AtomicBoolean();
+        var nacked = new CompletableFuture<Throwable>();
+        balanceCoalescer.consume(Message.of(account.getId().toString(), () -> {
+            lateAck.set(true);
+            return CompletableFuture.completedFuture(null);
+        }, e -> {
+            nacked.complete(e);
+            return CompletableFuture.completedFuture(null);
+        }));
+        assertInstanceOf(TimeoutException.class, nacked.get(5, TimeUnit.SECONDS));
+
+        var acks = new CountDownLatch(1);
+        balanceCoalescer.consume(Message.of(account.getId().toString(), () -> {
+            acks.countDown();
+            return CompletableFuture.completedFuture(null);
+        }));
+        // the timed out update still runs, so the account is not updated again yet
+        assertFalse(acks.await(2, TimeUnit.SECONDS));
+        Mockito.verify(accountService).updateAccountBalance(account.getId());
+
+        slowUpdate.complete(account);
+        assertTrue(acks.await(10, TimeUnit.SECONDS));
+        Mockito.verify(accountService, Mockito.times(2)).updateAccountBalance(account.getId());
+        assertFalse(lateAck.get());
+    }
+
+    public static class ShortDeadlineProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("app.account.balance-update-deadline", "500ms");
+        }
+    }
+}
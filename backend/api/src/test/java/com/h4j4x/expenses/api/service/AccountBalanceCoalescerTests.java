@@ -0,0 +1,126 @@
+package com.h4j4x.expenses.api.service;
+
+import com.h4j4x.expenses.api.DataGenerator;
+import com.h4j4x.expenses.api.domain.UserAccount;
+import com.h4j4x.expenses.api.domain.UserEntity;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.mockito.InjectMock;
+import io.smallrye.mutiny.Uni;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import javax.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.reactive.messaging.Message;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+public class AccountBalanceCoalescerTests {
+    @InjectMock
+    UserAccountService accountService;
+
+    @Inject
+    AccountBalanceCoalescer balanceCoalescer;
+
+    @Inject
+    DataGenerator dataGen;
+
+    @ConfigProperty(name = "mp.messaging.incoming.user-account-transactions-in.failure-strategy")
+    String failureStrategy;
+
+    @Test
+    void whenConsumeMessages_Then_ShouldUpdateEachAccountOnceAndAck() throws InterruptedException {
+        var user = new UserEntity(dataGen.genUserName(), dataGen.genUserEmail(), dataGen.genUserPassword());
+        var account = new UserAccount(user, dataGen.genProductName());
+        account.setId(dataGen.genRandomLong());
+        var otherAccount = new UserAccount(user, "other-" + dataGen.genProductName());
+        otherAccount.setId(account.getId() + 1);
+        Mockito
+            .when(accountService.updateAccountBalance(account.getId()))
+            .thenReturn(Uni.createFrom().item(account));
+        Mockito
+            .when(accountService.updateAccountBalance(otherAccount.getId()))
+            .thenReturn(Uni.createFrom().item(otherAccount));
+
+        var acks = new CountDownLatch(4);
+        for (var accountId : new Long[]{account.getId(), account.getId(), otherAccount.getId(), account.getId()}) {
+            balanceCoalescer.consume(Message.of(accountId.toString(), () -> {
+                acks.countDown();
+                return CompletableFuture.completedFuture(null);
+            }));
+        }
+
+        assertTrue(acks.await(10, TimeUnit.SECONDS));
+        Mockito.verify(accountService).updateAccountBalance(account.getId());
+        Mockito.verify(accountService).updateAccountBalance(otherAccount.getId());
+    }
+
+    @Test
+    void whenAccountUpdateIsInFlight_Then_ShouldWaitBeforeUpdatingAgain() throws InterruptedException {
+        var user = new UserEntity(dataGen.genUserName(), dataGen.genUserEmail(), dataGen.genUserPassword());
+        var account = new UserAccount(user, dataGen.genProductName());
+        account.setId(dataGen.genRandomLong());
+        var firstUpdate = new CompletableFuture<UserAccount>();
+        Mockito
+            .when(accountService.updateAccountBalance(account.getId()))
+            .thenReturn(Uni.createFrom().completionStage(firstUpdate))
+            .thenReturn(Uni.createFrom().item(account));
+
+        var acks = new CountDownLatch(2);
+        balanceCoalescer.consume(Message.of(account.getId().toString(), () -> {
+            acks.countDown();
+            return CompletableFuture.completedFuture(null);
+        }));
+        Mockito.verify(accountService, Mockito.timeout(5000)).updateAccountBalance(account.getId());
+        balanceCoalescer.consume(Message.of(account.getId().toString(), () -> {
+            acks.countDown();
+            return CompletableFuture.completedFuture(null);
+        }));
+
+        assertFalse(acks.await(2, TimeUnit.SECONDS));
+        Mockito.verify(accountService).updateAccountBalance(account.getId());
+        firstUpdate.complete(account);
+        assertTrue(acks.await(10, TimeUnit.SECONDS));
+        Mockito.verify(accountService, Mockito.times(2)).updateAccountBalance(account.getId());
+    }
+
+    @Test
+    void whenAccountUpdateFails_Then_ShouldNackAndKeepConsuming()
+        throws InterruptedException, ExecutionException, TimeoutException {
+        var user = new UserEntity(dataGen.genUserName(), dataGen.genUserEmail(), dataGen.genUserPassword());
+        var account = new UserAccount(user, dataGen.genProductName());
+        account.setId(dataGen.genRandomLong());
+        var failure = new IllegalStateException("Balance update failed");
+        Mockito
+            .when(accountService.updateAccountBalance(account.getId()))
+            .thenReturn(Uni.createFrom().failure(failure))
+            .thenReturn(Uni.createFrom().item(account));
+
+        var nacked = new CompletableFuture<Throwable>();
+        balanceCoalescer.consume(Message.of(account.getId().toString(), () -> {
+            nacked.completeExceptionally(new AssertionError("Failed update acknowledged"));
+            return CompletableFuture.completedFuture(null);
+        }, e -> {
+            nacked.complete(e);
+            return CompletableFuture.completedFuture(null);
+        }));
+        assertSame(failure, nacked.get(10, TimeUnit.SECONDS));
+
+        var acks = new CountDownLatch(1);
+        balanceCoalescer.consume(Message.of(account.getId().toString(), () -> {
+            acks.countDown();
+            return CompletableFuture.completedFuture(null);
+        }));
+        assertTrue(acks.await(10, TimeUnit.SECONDS));
+        Mockito.verify(accountService, Mockito.times(2)).updateAccountBalance(account.getId());
+        // a nacked message must not stop the channel
+        assertEquals("dead-letter-queue", failureStrategy);
+    }
+}
@@ -0,0 +1,165 @@
+package com.h4j4x.expenses.api.service;
+
+import com.h4j4x.expenses.api.DataGenerator;
+import com.h4j4x.expenses.api.TestConstants;
+import com.h4j4x.expenses.api.domain.UserAccount;
+import com.h4j4x.expenses.api.domain.UserEntity;
+import com.h4j4x.expenses.api.domain.UserTransaction;
+import com.h4j4x.expenses.api.model.BalanceSum;
+import com.h4j4x.expenses.api.model.TransactionCreationWay;
+import com.h4j4x.expenses.api.model.TransactionStatus;
+import com.h4j4x.expenses.api.repository.UserAccountRepository;
+import com.h4j4x.expenses.api.repository.UserTransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.mockito.InjectMock;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.helpers.test.UniAssertSubscriber;
+import java.time.OffsetDateTime;
+import java.util.List;
+import javax.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+public class AccountBalanceReconcilerTests {
+    private static final int BATCH_SIZE = 10;
+
+    @InjectMock
+    UserTransactionRepository transactionRepo;
+
+    @InjectMock
+    UserAccountRepository accountRepo;
+
+    @InjectMock
+    UserAccountService accountService;
+
+    @Inject
+    DataGenerator dataGen;
+
+    private AccountBalanceReconciler reconciler;
+
+    @BeforeEach
+    void setUp() {
+        reconciler = new AccountBalanceReconciler(transactionRepo, accountRepo, accountService,
+            new SimpleMeterRegistry());
+        reconciler.maxBatchSize = BATCH_SIZE;
+    }
+
+    @Test
+    void whenReconcileBatch_WithAdjustments_Then_ShouldConfirmDeltaFromLatest() {
+        var user = new UserEntity(dataGen.genUserName(), dataGen.genUserEmail(), dataGen.genUserPassword());
+        user.setId(dataGen.genRandomLong());
+        var account = new UserAccount(user, dataGen.genProductName(), 1000L);
+        account.setId(dataGen.genRandomLong());
+        account.setBalanceUpdatedAt(OffsetDateTime.now().minusHours(1));
+        var older = adjustment(account, 5000L);
+        var latest = adjustment(account, 3000L);
+        Mockito
+            .when(accountRepo.lockNextWithTransactionStatus(TransactionStatus.ADJUST_PENDING, BATCH_SIZE))
+            .thenReturn(Uni.createFrom().item(List.of(account)));
+        Mockito
+            .when(transactionRepo.findByAccountAndStatus(account, TransactionStatus.ADJUST_PENDING))
+            .thenReturn(Uni.createFrom().item(List.of(older, latest)));
+        Mockito
+            .when(transactionRepo.findLastCreatedAtByAccountAndStatus(account, TransactionStatus.ADJUSTED))
+            .thenReturn(Uni.createFrom().nullItem());
+        // 200 confirmed but not applied yet, 50 of them after the adjustment request
+        Mockito
+            .when(transactionRepo.applyConfirmedTransactions(account))
+            .thenReturn(Uni.createFrom().item(new BalanceSum(200L, 2L)));
+        Mockito
+            .when(transactionRepo.sumAppliedTransactionsInWindow(
+                Mockito.eq(account), Mockito.eq(latest.getCreatedAt()), Mockito.any()))
+            .thenReturn(Uni.createFrom().item(new BalanceSum(50L, 1L)));
+        Mockito
+            .when(transactionRepo.save(Mockito.any()))
+            .thenAnswer(invocation -> Uni.createFrom().item(invocation.getArgument(0)));
+        Mockito
+            .when(accountRepo.save(account))
+            .thenReturn(Uni.createFrom().item(account));
+
+        var accounts = reconciler.reconcileBatch()
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitItem(TestConstants.UNI_DURATION)
+            .getItem();
+        assertEquals(List.of(account), accounts);
+        assertEquals(TransactionStatus.ADJUSTED, older.getStatus());
+        assertEquals(TransactionStatus.ADJUSTED, latest.getStatus());
+        assertEquals(3050L, account.getBalance());
+
+        var transactionCaptor = ArgumentCaptor.forClass(UserTransaction.class);
+        Mockito.verify(transactionRepo).save(transactionCaptor.capture());
+        var delta = transactionCaptor.getValue();
+        assertEquals(1850L, delta.getAmount());
+        assertEquals(TransactionStatus.CONFIRMED, delta.getStatus());
+        assertEquals(TransactionCreationWay.SYSTEM, delta.getCreationWay());
+        assertTrue(delta.isBalanceApplied());
+        assertEquals(account.getBalanceUpdatedAt(), delta.getConfirmedAt());
+        Mockito.verify(accountRepo).lockNextWithTransactionStatus(TransactionStatus.ADJUST_PENDING, BATCH_SIZE);
+        Mockito.verify(accountRepo).save(account);
+        Mockito.verifyNoMoreInteractions(accountRepo);
+    }
+
+    @Test
+    void whenReconcileBatch_WithStaleAdjustment_Then_ShouldSupersedeWithoutBalanceChange() {
+        var user = new UserEntity(dataGen.genUserName(), dataGen.genUserEmail(), dataGen.genUserPassword());
+        user.setId(dataGen.genRandomLong());
+        var account = new UserAccount(user, dataGen.genProductName(), 1000L);
+        account.setId(dataGen.genRandomLong());
+        var stale = adjustment(account, 5000L);
+        stale.setCreatedAt(OffsetDateTime.now().minusMinutes(5));
+        Mockito
+            .when(accountRepo.lockNextWithTransactionStatus(TransactionStatus.ADJUST_PENDING, BATCH_SIZE))
+            .thenReturn(Uni.createFrom().item(List.of(account)));
+        Mockito
+            .when(transactionRepo.findByAccountAndStatus(account, TransactionStatus.ADJUST_PENDING))
+            .thenReturn(Uni.createFrom().item(List.of(stale)));
+        Mockito
+            .when(transactionRepo.findLastCreatedAtByAccountAndStatus(account, TransactionStatus.ADJUSTED))
+            .thenReturn(Uni.createFrom().item(OffsetDateTime.now().minusMinutes(1)));
+
+        var accounts = reconciler.reconcileBatch()
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitItem(TestConstants.UNI_DURATION)
+            .getItem();
+        assertEquals(List.of(account), accounts);
+        assertEquals(TransactionStatus.ADJUSTED, stale.getStatus());
+        assertEquals(1000L, account.getBalance());
+
+        Mockito.verify(transactionRepo).findByAccountAndStatus(account, TransactionStatus.ADJUST_PENDING);
+        Mockito.verify(transactionRepo).findLastCreatedAtByAccountAndStatus(account, TransactionStatus.ADJUSTED);
+        Mockito.verifyNoMoreInteractions(transactionRepo);
+        Mockito.verify(accountRepo).lockNextWithTransactionStatus(TransactionStatus.ADJUST_PENDING, BATCH_SIZE);
+        Mockito.verifyNoMoreInteractions(accountRepo);
+    }
+
+    @Test
+    void whenReconcileBatch_WithoutAdjustments_Then_ShouldNotTouchAccounts() {
+        Mockito
+            .when(accountRepo.lockNextWithTransactionStatus(TransactionStatus.ADJUST_PENDING, BATCH_SIZE))
+            .thenReturn(Uni.createFrom().item(List.of()));
+
+        var accounts = reconciler.reconcileBatch()
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitItem(TestConstants.UNI_DURATION)
+            .getItem();
+        assertEquals(0, accounts.size());
+
+        Mockito.verify(accountRepo).lockNextWithTransactionStatus(TransactionStatus.ADJUST_PENDING, BATCH_SIZE);
+        Mockito.verifyNoMoreInteractions(accountRepo);
+        Mockito.verifyNoInteractions(transactionRepo);
+    }
+
+    private UserTransaction adjustment(UserAccount account, long amount) {
+        var transaction = new UserTransaction(account, UserAccountService.TRANSACTION_ADJUSTED_BALANCE_NOTES, amount);
+        transaction.setId(dataGen.genRandomLong());
+        transaction.setCreationWay(TransactionCreationWay.SYSTEM);
+        transaction.setStatus(TransactionStatus.ADJUST_PENDING);
+        return transaction;
+    }
+}
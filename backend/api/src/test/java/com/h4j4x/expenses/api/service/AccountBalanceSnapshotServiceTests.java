@@ -0,0 +1,119 @@
+package com.h4j4x.expenses.api.service;
+
+import com.h4j4x.expenses.api.DataGenerator;
+import com.h4j4x.expenses.api.TestConstants;
+import com.h4j4x.expenses.api.domain.AccountBalanceSnapshot;
+import com.h4j4x.expenses.api.domain.UserAccount;
+import com.h4j4x.expenses.api.domain.UserEntity;
+import com.h4j4x.expenses.api.model.BalanceSum;
+import com.h4j4x.expenses.api.model.SnapshotPeriod;
+import com.h4j4x.expenses.api.repository.AccountBalanceSnapshotRepository;
+import com.h4j4x.expenses.api.repository.UserAccountRepository;
+import com.h4j4x.expenses.api.repository.UserTransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.mockito.InjectMock;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.helpers.test.UniAssertSubscriber;
+import java.time.OffsetDateTime;
+import javax.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@QuarkusTest
+public class AccountBalanceSnapshotServiceTests {
+    @InjectMock
+    AccountBalanceSnapshotRepository snapshotRepo;
+
+    @InjectMock
+    UserAccountRepository accountRepo;
+
+    @InjectMock
+    UserTransactionRepository transactionRepo;
+
+    @Inject
+    UserTransactionService transactionService;
+
+    @Inject
+    DataGenerator dataGen;
+
+    private AccountBalanceSnapshotService snapshotService;
+
+    @BeforeEach
+    void setUp() {
+        snapshotService = new AccountBalanceSnapshotService(snapshotRepo, accountRepo, transactionService,
+            new SimpleMeterRegistry());
+        snapshotService.period = SnapshotPeriod.DAY;
+        snapshotService.maxPeriods = 31;
+        snapshotService.batchSize = 10;
+    }
+
+    @Test
+    void whenGetBalanceAt_WithSnapshot_Then_ShouldAddDeltaSinceSnapshot() {
+        var account = createAccount();
+        var dateTime = OffsetDateTime.now();
+        var snapshot = new AccountBalanceSnapshot(account, SnapshotPeriod.DAY.start(dateTime), 10000L);
+        Mockito
+            .when(snapshotRepo.findLatestByAccountAtOrBefore(account, dateTime))
+            .thenReturn(Uni.createFrom().item(snapshot));
+        Mockito
+            .when(transactionRepo.sumAppliedTransactionsInWindow(account, snapshot.getTakenAt(), dateTime))
+            .thenReturn(Uni.createFrom().item(new BalanceSum(2550L, 3L)));
+
+        var balance = snapshotService.balanceAt(account, dateTime)
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitItem(TestConstants.UNI_DURATION)
+            .getItem();
+        assertEquals(12550L, balance);
+
+        Mockito.verify(snapshotRepo).findLatestByAccountAtOrBefore(account, dateTime);
+        Mockito.verifyNoMoreInteractions(snapshotRepo);
+        Mockito.verify(transactionRepo).sumAppliedTransactionsInWindow(account, snapshot.getTakenAt(), dateTime);
+        Mockito.verifyNoMoreInteractions(transactionRepo);
+    }
+
+    @Test
+    void whenSnapshotAccount_WithMissingPeriods_Then_ShouldTakeOnePerPeriod() {
+        var account = createAccount();
+        var until = SnapshotPeriod.DAY.start(OffsetDateTime.now());
+        var latest = new AccountBalanceSnapshot(account, until.minusDays(2), 1000L);
+        Mockito
+            .when(accountRepo.lockById(account.getId()))
+            .thenReturn(Uni.createFrom().item(account));
+        Mockito
+            .when(snapshotRepo.findLatestByAccount(account))
+            .thenReturn(Uni.createFrom().item(latest));
+        Mockito
+            .when(transactionRepo.sumAppliedTransactionsInWindow(Mockito.eq(account), Mockito.any(), Mockito.any()))
+            .thenReturn(Uni.createFrom().item(new BalanceSum(500L, 1L)));
+        Mockito
+            .when(snapshotRepo.save(Mockito.any()))
+            .thenAnswer(invocation -> Uni.createFrom().item(invocation.getArgument(0)));
+
+        var count = snapshotService.snapshotAccount(account, until)
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitItem(TestConstants.UNI_DURATION)
+            .getItem();
+        assertEquals(2, count);
+
+        var snapshotCaptor = ArgumentCaptor.forClass(AccountBalanceSnapshot.class);
+        Mockito.verify(snapshotRepo, Mockito.times(2)).save(snapshotCaptor.capture());
+        var snapshots = snapshotCaptor.getAllValues();
+        assertEquals(until.minusDays(1).toInstant(), snapshots.get(0).getTakenAt().toInstant());
+        assertEquals(1500L, snapshots.get(0).getBalance());
+        assertEquals(until.toInstant(), snapshots.get(1).getTakenAt().toInstant());
+        assertEquals(2000L, snapshots.get(1).getBalance());
+        Mockito.verify(accountRepo).lockById(account.getId());
+    }
+
+    private UserAccount createAccount() {
+        var user = new UserEntity(dataGen.genUserName(), dataGen.genUserEmail(), dataGen.genUserPassword());
+        user.setId(dataGen.genRandomLong());
+        var account = new UserAccount(user, dataGen.genProductName());
+        account.setId(dataGen.genRandomLong());
+        return account;
+    }
+}
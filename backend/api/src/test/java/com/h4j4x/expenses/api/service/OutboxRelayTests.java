@@ -0,0 +1,168 @@
+package com.h4j4x.expenses.api.service;
+
+import com.h4j4x.expenses.api.TestConstants;
+import com.h4j4x.expenses.api.domain.OutboxEvent;
+import com.h4j4x.expenses.api.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.mockito.InjectMock;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.helpers.test.UniAssertSubscriber;
+import io.smallrye.reactive.messaging.MutinyEmitter;
+import io.smallrye.reactive.messaging.kafka.api.OutgoingKafkaRecordMetadata;
+import java.util.ArrayList;
+import java.util.List;
+import org.eclipse.microprofile.reactive.messaging.Message;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@QuarkusTest
+public class OutboxRelayTests {
+    private static final int BATCH_SIZE = 2;
+    // over the Integer cache, so boxed batch sizes are compared by value
+    private static final int LARGE_BATCH_SIZE = 200;
+
+    @InjectMock
+    OutboxEventRepository outboxRepo;
+
+    private MutinyEmitter<String> eventEmitter;
+
+    private OutboxRelay outboxRelay;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        eventEmitter = Mockito.mock(MutinyEmitter.class);
+        outboxRelay = new OutboxRelay(outboxRepo, new SimpleMeterRegistry());
+        outboxRelay.eventEmitter = eventEmitter;
+        outboxRelay.maxBatchSize = BATCH_SIZE;
+    }
+
+    @Test
+    void whenRelayBatch_WithEvents_Then_ShouldPublishAndDelete() {
+        var events = List.of(event(1L, "1"), event(2L, "2"));
+        Mockito
+            .when(outboxRepo.lockNextBatch(BATCH_SIZE))
+            .thenReturn(Uni.createFrom().item(events));
+        Mockito
+            .when(eventEmitter.sendMessage(Mockito.any()))
+            .thenReturn(Uni.createFrom().voidItem());
+        Mockito
+            .when(outboxRepo.deleteByIds(List.of(1L, 2L)))
+            .thenReturn(Uni.createFrom().item(2L));
+
+        var count = outboxRelay.relayBatch()
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitItem(TestConstants.UNI_DURATION)
+            .getItem();
+        assertEquals(2, count);
+
+        Mockito.verify(outboxRepo).lockNextBatch(BATCH_SIZE);
+        Mockito.verify(eventEmitter, Mockito.times(2)).sendMessage(Mockito.any());
+        Mockito.verify(outboxRepo).deleteByIds(List.of(1L, 2L));
+        Mockito.verifyNoMoreInteractions(outboxRepo);
+    }
+
+    @Test
+    void whenRelayBatch_Then_ShouldKeyRecordsByAccountId() {
+        var event = event(1L, "42");
+        Mockito
+            .when(outboxRepo.lockNextBatch(BATCH_SIZE))
+            .thenReturn(Uni.createFrom().item(List.of(event)));
+        var sent = new ArrayList<Message<String>>();
+        Mockito
+            .when(eventEmitter.sendMessage(Mockito.any()))
+            .thenAnswer(invocation -> {
+                sent.add(invocation.getArgument(0));
+                return Uni.createFrom().voidItem();
+            });
+        Mockito
+            .when(outboxRepo.deleteByIds(List.of(1L)))
+            .thenReturn(Uni.createFrom().item(1L));
+
+        outboxRelay.relayBatch()
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitItem(TestConstants.UNI_DURATION);
+
+        assertEquals(1, sent.size());
+        var message = sent.get(0);
+        assertEquals(event.getPayload(), message.getPayload());
+        var key = message.getMetadata(OutgoingKafkaRecordMetadata.class)
+            .map(metadata -> metadata.getKey())
+            .orElse(null);
+        assertEquals("42", key);
+    }
+
+    @Test
+    void whenRelayBatch_WithPublishFailure_Then_ShouldKeepEvents() {
+        var events = List.of(event(1L, "1"));
+        Mockito
+            .when(outboxRepo.lockNextBatch(BATCH_SIZE))
+            .thenReturn(Uni.createFrom().item(events));
+        Mockito
+            .when(eventEmitter.sendMessage(Mockito.any()))
+            .thenReturn(Uni.createFrom().failure(new IllegalStateException("nack")));
+
+        outboxRelay.relayBatch()
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitFailure(TestConstants.UNI_DURATION)
+            .assertFailedWith(IllegalStateException.class);
+
+        Mockito.verify(outboxRepo).lockNextBatch(BATCH_SIZE);
+        Mockito.verifyNoMoreInteractions(outboxRepo);
+    }
+
+    @Test
+    void whenRelayBatch_WithoutEvents_Then_ShouldNotPublish() {
+        Mockito
+            .when(outboxRepo.lockNextBatch(BATCH_SIZE))
+            .thenReturn(Uni.createFrom().item(List.of()));
+
+        var count = outboxRelay.relayBatch()
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitItem(TestConstants.UNI_DURATION)
+            .getItem();
+        assertEquals(0, count);
+
+        Mockito.verify(outboxRepo).lockNextBatch(BATCH_SIZE);
+        Mockito.verifyNoMoreInteractions(outboxRepo);
+        Mockito.verifyNoInteractions(eventEmitter);
+    }
+
+    @Test
+    void whenRelay_WithFullBatch_Then_ShouldRelayNextBatch() {
+        outboxRelay.maxBatchSize = LARGE_BATCH_SIZE;
+        var fullBatch = new ArrayList<OutboxEvent>();
+        for (long id = 1; id <= LARGE_BATCH_SIZE; id++) {
+            fullBatch.add(event(id, "1"));
+        }
+        var lastBatch = List.of(event(LARGE_BATCH_SIZE + 1L, "2"));
+        Mockito
+            .when(outboxRepo.lockNextBatch(LARGE_BATCH_SIZE))
+            .thenReturn(Uni.createFrom().item(fullBatch))
+            .thenReturn(Uni.createFrom().item(lastBatch));
+        Mockito
+            .when(eventEmitter.sendMessage(Mockito.any()))
+            .thenReturn(Uni.createFrom().voidItem());
+        Mockito
+            .when(outboxRepo.deleteByIds(Mockito.any()))
+            .thenAnswer(invocation -> Uni.createFrom().item((long) invocation.getArgument(0, List.class).size()));
+
+        outboxRelay.relay()
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitItem(TestConstants.UNI_DURATION);
+
+        Mockito.verify(outboxRepo, Mockito.times(2)).lockNextBatch(LARGE_BATCH_SIZE);
+        Mockito.verify(eventEmitter, Mockito.times(LARGE_BATCH_SIZE + 1)).sendMessage(Mockito.any());
+        Mockito.verify(outboxRepo, Mockito.times(2)).deleteByIds(Mockito.any());
+        Mockito.verifyNoMoreInteractions(outboxRepo);
+    }
+
+    private OutboxEvent event(Long id, String accountId) {
+        var event = new OutboxEvent(accountId, accountId + ":" + id + ":1000");
+        event.setId(id);
+        return event;
+    }
+}
@@ -0,0 +1,59 @@
+package com.h4j4x.expenses.api.service;
+
+import com.h4j4x.expenses.api.TestConstants;
+import com.h4j4x.expenses.api.repository.RevokedTokenRepository;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.quarkus.test.junit.mockito.InjectMock;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.helpers.test.UniAssertSubscriber;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import javax.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+@QuarkusTest
+@TestProfile(TokenRevocationScheduleTests.FastRebuildProfile.class)
+public class TokenRevocationScheduleTests {
+    @InjectMock
+    RevokedTokenRepository revokedTokenRepo;
+
+    @Inject
+    TokenRevocationService revocationService;
+
+    @BeforeEach
+    void setUp() {
+        Mockito
+            .when(revokedTokenRepo.deleteExpiredBefore(Mockito.any()))
+            .thenReturn(Uni.createFrom().item(0L));
+        Mockito
+            .when(revokedTokenRepo.findTokenIdsExpiringAfter(Mockito.any()))
+            .thenReturn(Uni.createFrom().item(List.of()));
+    }
+
+    @Test
+    void whenRebuildEveryElapses_Then_ShouldRebuildFilterFromDatabase() {
+        Mockito.verify(revokedTokenRepo, Mockito.timeout(5000).atLeast(2))
+            .findTokenIdsExpiringAfter(Mockito.any());
+
+        var revoked = revocationService.isRevoked(UUID.randomUUID().toString())
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitItem(TestConstants.UNI_DURATION)
+            .getItem();
+        assertFalse(revoked);
+
+        Mockito.verify(revokedTokenRepo, Mockito.never()).countByTokenId(Mockito.any());
+    }
+
+    public static class FastRebuildProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("app.auth.revocation.rebuild-every", "1s");
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.h4j4x.expenses.api.service;
+
+import com.h4j4x.expenses.api.TestConstants;
+import com.h4j4x.expenses.api.domain.RevokedToken;
+import com.h4j4x.expenses.api.repository.RevokedTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.mockito.InjectMock;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.helpers.test.UniAssertSubscriber;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import static org.junit.jupiter.api.Assertions.*;
+
+@QuarkusTest
+public class TokenRevocationServiceTests {
+    @InjectMock
+    RevokedTokenRepository revokedTokenRepo;
+
+    private TokenRevocationService revocationService;
+
+    @BeforeEach
+    void setUp() {
+        revocationService = new TokenRevocationService(revokedTokenRepo, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void whenCheckToken_WithoutFilter_Then_ShouldQueryDatabase() {
+        var tokenId = UUID.randomUUID().toString();
+        Mockito
+            .when(revokedTokenRepo.countByTokenId(tokenId))
+            .thenReturn(Uni.createFrom().item(1L));
+
+        var revoked = revocationService.isRevoked(tokenId)
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitItem(TestConstants.UNI_DURATION)
+            .getItem();
+        assertTrue(revoked);
+
+        Mockito.verify(revokedTokenRepo).countByTokenId(tokenId);
+        Mockito.verifyNoMoreInteractions(revokedTokenRepo);
+    }
+
+    @Test
+    void whenRevokeToken_Then_ShouldSaveRevokedToken() {
+        var tokenId = UUID.randomUUID().toString();
+        var expiresAt = OffsetDateTime.now().plusDays(1);
+        var revokedToken = new RevokedToken(tokenId, expiresAt);
+        Mockito
+            .when(revokedTokenRepo.save(revokedToken))
+            .thenReturn(Uni.createFrom().item(revokedToken));
+
+        var saved = revocationService.revoke(tokenId, expiresAt)
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitItem(TestConstants.UNI_DURATION)
+            .getItem();
+        assertEquals(tokenId, saved.getTokenId());
+        assertEquals(expiresAt, saved.getExpiresAt());
+
+        Mockito.verify(revokedTokenRepo).save(revokedToken);
+        Mockito.verifyNoMoreInteractions(revokedTokenRepo);
+    }
+
+    @Test
+    void whenCheckToken_NotInRebuiltFilter_Then_ShouldSkipDatabase() {
+        var revokedTokenId = UUID.randomUUID().toString();
+        var tokenId = UUID.randomUUID().toString();
+        Mockito
+            .when(revokedTokenRepo.deleteExpiredBefore(Mockito.any()))
+            .thenReturn(Uni.createFrom().item(0L));
+        Mockito
+            .when(revokedTokenRepo.findTokenIdsExpiringAfter(Mockito.any()))
+            .thenReturn(Uni.createFrom().item(List.of(revokedTokenId)));
+        Mockito
+            .when(revokedTokenRepo.countByTokenId(revokedTokenId))
+            .thenReturn(Uni.createFrom().item(1L));
+
+        revocationService.rebuildFilter()
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitItem(TestConstants.UNI_DURATION);
+
+        var revoked = revocationService.isRevoked(tokenId)
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitItem(TestConstants.UNI_DURATION)
+            .getItem();
+        assertFalse(revoked);
+        revoked = revocationService.isRevoked(revokedTokenId)
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitItem(TestConstants.UNI_DURATION)
+            .getItem();
+        assertTrue(revoked);
+
+        Mockito.verify(revokedTokenRepo).deleteExpiredBefore(Mockito.any());
+        Mockito.verify(revokedTokenRepo).findTokenIdsExpiringAfter(Mockito.any());
+        Mockito.verify(revokedTokenRepo).countByTokenId(revokedTokenId);
+        Mockito.verifyNoMoreInteractions(revokedTokenRepo);
+    }
+
+    @Test
+    void whenRevokeToken_AfterRebuild_Then_ShouldAddItToFilter() {
+        var tokenId = UUID.randomUUID().toString();
+        var expiresAt = OffsetDateTime.now().plusDays(1);
+        var revokedToken = new RevokedToken(tokenId, expiresAt);
+        Mockito
+            .when(revokedTokenRepo.deleteExpiredBefore(Mockito.any()))
+            .thenReturn(Uni.createFrom().item(0L));
+        Mockito
+            .when(revokedTokenRepo.findTokenIdsExpiringAfter(Mockito.any()))
+            .thenReturn(Uni.createFrom().item(List.of()));
+        Mockito
+            .when(revokedTokenRepo.save(revokedToken))
+            .thenReturn(Uni.createFrom().item(revokedToken));
+        Mockito
+            .when(revokedTokenRepo.countByTokenId(tokenId))
+            .thenReturn(Uni.createFrom().item(1L));
+
+        revocationService.rebuildFilter()
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitItem(TestConstants.UNI_DURATION);
+        revocationService.revoke(tokenId, expiresAt)
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitItem(TestConstants.UNI_DURATION);
+
+        var revoked = revocationService.isRevoked(tokenId)
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitItem(TestConstants.UNI_DURATION)
+            .getItem();
+        assertTrue(revoked);
+
+        Mockito.verify(revokedTokenRepo).countByTokenId(tokenId);
+    }
+}
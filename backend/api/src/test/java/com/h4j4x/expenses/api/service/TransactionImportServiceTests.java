@@ -0,0 +1,221 @@
+package com.h4j4x.expenses.api.service;
+
+import com.h4j4x.expenses.api.DataGenerator;
+import com.h4j4x.expenses.api.TestConstants;
+import com.h4j4x.expenses.api.domain.OutboxEvent;
+import com.h4j4x.expenses.api.domain.UserAccount;
+import com.h4j4x.expenses.api.domain.UserEntity;
+import com.h4j4x.expenses.api.domain.UserTransaction;
+import com.h4j4x.expenses.api.model.AccountBalanceEvent;
+import com.h4j4x.expenses.api.model.TransactionCreationWay;
+import com.h4j4x.expenses.api.model.TransactionStatus;
+import com.h4j4x.expenses.api.repository.OutboxEventRepository;
+import com.h4j4x.expenses.api.repository.UserAccountRepository;
+import com.h4j4x.expenses.api.repository.UserTransactionRepository;
+import com.h4j4x.expenses.api.statement.StatementFormat;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.mockito.InjectMock;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.helpers.test.UniAssertSubscriber;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import javax.inject.Inject;
+import javax.ws.rs.NotFoundException;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+public class TransactionImportServiceTests {
+    @InjectMock
+    UserAccountRepository accountRepo;
+
+    @InjectMock
+    UserTransactionRepository transactionRepo;
+
+    @InjectMock
+    OutboxEventRepository outboxRepo;
+
+    @Inject
+    TransactionImportService importService;
+
+    @Inject
+    DataGenerator dataGen;
+
+    @Test
+    void whenImportCsv_Then_ShouldSaveRowsAndOneBalanceEvent() {
+        var user = new UserEntity(dataGen.genUserName(), dataGen.genUserEmail(), dataGen.genUserPassword());
+        user.setId(dataGen.genRandomLong());
+        var account = new UserAccount(user, dataGen.genProductName());
+        account.setId(dataGen.genRandomLong());
+        account.setCurrency("usd");
+        Mockito
+            .when(accountRepo.findByUserAndId(user, account.getId()))
+            .thenReturn(Uni.createFrom().item(account));
+        Mockito
+            .when(transactionRepo.saveAll(Mockito.any()))
+            .thenReturn(Uni.createFrom().voidItem());
+        Mockito
+            .when(outboxRepo.save(Mockito.any()))
+            .thenAnswer(invocation -> Uni.createFrom().item(invocation.getArgument(0)));
+        var csv = "date,amount,notes\n2023-01-15,-3.50,Coffee\n2023-01-16,1500,\nbad,1,Bad\n";
+        // split mid line, as network chunks arrive
+        var bytes = csv.getBytes(StandardCharsets.UTF_8);
+        var chunks = Multi.createFrom().items(
+            Arrays.copyOfRange(bytes, 0, 20), Arrays.copyOfRange(bytes, 20, bytes.length));
+
+        var result = importService.importTransactions(user, account.getKey(), StatementFormat.CSV, chunks)
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitItem(TestConstants.UNI_DURATION)
+            .getItem();
+        assertEquals(2, result.importedCount());
+        assertEquals(1, result.rejectedCount());
+        assertEquals(4, result.rejected().get(0).position());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<UserTransaction>> transactionsCaptor = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(transactionRepo).saveAll(transactionsCaptor.capture());
+        Mockito.verifyNoMoreInteractions(transactionRepo);
+        var transactions = transactionsCaptor.getValue();
+        assertEquals(2, transactions.size());
+        assertEquals(-350L, transactions.get(0).getAmount());
+        assertEquals(TransactionImportService.IMPORT_NOTES, transactions.get(1).getNotes());
+        transactions.forEach(transaction -> {
+            assertEquals(TransactionStatus.CONFIRMED, transaction.getStatus());
+            assertEquals(TransactionCreationWay.IMPORTED, transaction.getCreationWay());
+        });
+        var eventCaptor = ArgumentCaptor.forClass(OutboxEvent.class);
+        Mockito.verify(outboxRepo).save(eventCaptor.capture());
+        Mockito.verifyNoMoreInteractions(outboxRepo);
+        var event = new AccountBalanceEvent(account.getId(), null, 149650L);
+        assertEquals(event.toPayload(), eventCaptor.getValue().getPayload());
+    }
+
+    @Test
+    void whenImportOfx_WithImportedFitIds_Then_ShouldSkipDuplicates() {
+        var user = new UserEntity(dataGen.genUserName(), dataGen.genUserEmail(), dataGen.genUserPassword());
+        user.setId(dataGen.genRandomLong());
+        var account = new UserAccount(user, dataGen.genProductName());
+        account.setId(dataGen.genRandomLong());
+        account.setCurrency("usd");
+        Mockito
+            .when(accountRepo.findByUserAndId(user, account.getId()))
+            .thenReturn(Uni.createFrom().item(account));
+        Mockito
+            .when(transactionRepo.findExternalIds(Mockito.eq(account), Mockito.any()))
+            .thenReturn(Uni.createFrom().item(List.of("T1")));
+        Mockito
+            .when(transactionRepo.saveAll(Mockito.any()))
+            .thenReturn(Uni.createFrom().voidItem());
+        Mockito
+            .when(outboxRepo.save(Mockito.any()))
+            .thenAnswer(invocation -> Uni.createFrom().item(invocation.getArgument(0)));
+        // T1 imported before, T2 twice in this statement
+        var ofx = "<OFX><BANKTRANLIST>" +
+            "<STMTTRN><FITID>T1<DTPOSTED>20230115<TRNAMT>-1.00<NAME>Old</STMTTRN>" +
+            "<STMTTRN><FITID>T2<DTPOSTED>20230116<TRNAMT>-2.00<NAME>New</STMTTRN>" +
+            "<STMTTRN><FITID>T2<DTPOSTED>20230116<TRNAMT>-2.00<NAME>New</STMTTRN>" +
+            "</BANKTRANLIST></OFX>";
+        var chunks = Multi.createFrom().item(ofx.getBytes(StandardCharsets.UTF_8));
+
+        var result = importService.importTransactions(user, account.getKey(), StatementFormat.OFX, chunks)
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitItem(TestConstants.UNI_DURATION)
+            .getItem();
+        assertEquals(1, result.importedCount());
+        assertEquals(0, result.rejectedCount());
+        assertEquals(2, result.duplicateCount());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<UserTransaction>> transactionsCaptor = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(transactionRepo).findExternalIds(Mockito.eq(account), Mockito.any());
+        Mockito.verify(transactionRepo).saveAll(transactionsCaptor.capture());
+        Mockito.verifyNoMoreInteractions(transactionRepo);
+        var transactions = transactionsCaptor.getValue();
+        assertEquals(1, transactions.size());
+        assertEquals("T2", transactions.get(0).getExternalId());
+        var eventCaptor = ArgumentCaptor.forClass(OutboxEvent.class);
+        Mockito.verify(outboxRepo).save(eventCaptor.capture());
+        var event = new AccountBalanceEvent(account.getId(), null, -200L);
+        assertEquals(event.toPayload(), eventCaptor.getValue().getPayload());
+    }
+
+    @Test
+    void whenImportCsv_WithExtraDecimals_Then_ShouldRejectRows() {
+        var user = new UserEntity(dataGen.genUserName(), dataGen.genUserEmail(), dataGen.genUserPassword());
+        user.setId(dataGen.genRandomLong());
+        var account = new UserAccount(user, dataGen.genProductName());
+        account.setId(dataGen.genRandomLong());
+        account.setCurrency("jpy");
+        Mockito
+            .when(accountRepo.findByUserAndId(user, account.getId()))
+            .thenReturn(Uni.createFrom().item(account));
+        Mockito
+            .when(transactionRepo.saveAll(Mockito.any()))
+            .thenReturn(Uni.createFrom().voidItem());
+        Mockito
+            .when(outboxRepo.save(Mockito.any()))
+            .thenAnswer(invocation -> Uni.createFrom().item(invocation.getArgument(0)));
+        var csv = "date,amount\n2023-01-15,10.5\n2023-01-16,1500.00\n";
+        var chunks = Multi.createFrom().item(csv.getBytes(StandardCharsets.UTF_8));
+
+        var result = importService.importTransactions(user, account.getKey(), StatementFormat.CSV, chunks)
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitItem(TestConstants.UNI_DURATION)
+            .getItem();
+        assertEquals(1, result.importedCount());
+        assertEquals(1, result.rejectedCount());
+        assertEquals(2, result.rejected().get(0).position());
+        assertEquals("Amount has too many decimals", result.rejected().get(0).error());
+    }
+
+    @Test
+    void whenImportFailsInternally_Then_ShouldNotFailAsBadRequest() {
+        var user = new UserEntity(dataGen.genUserName(), dataGen.genUserEmail(), dataGen.genUserPassword());
+        user.setId(dataGen.genRandomLong());
+        var account = new UserAccount(user, dataGen.genProductName());
+        account.setId(dataGen.genRandomLong());
+        account.setCurrency("usd");
+        Mockito
+            .when(accountRepo.findByUserAndId(user, account.getId()))
+            .thenReturn(Uni.createFrom().item(account));
+        var failure = new IllegalStateException("Session closed");
+        Mockito
+            .when(transactionRepo.saveAll(Mockito.any()))
+            .thenReturn(Uni.createFrom().failure(failure));
+        var csv = "date,amount\n2023-01-15,10.50\n";
+        var chunks = Multi.createFrom().item(csv.getBytes(StandardCharsets.UTF_8));
+
+        var error = importService.importTransactions(user, account.getKey(), StatementFormat.CSV, chunks)
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitFailure(TestConstants.UNI_DURATION)
+            .getFailure();
+        assertSame(failure, error);
+    }
+
+    @Test
+    void whenImportToOtherUserAccount_Then_ShouldFail() {
+        var user = new UserEntity(dataGen.genUserName(), dataGen.genUserEmail(), dataGen.genUserPassword());
+        user.setId(dataGen.genRandomLong());
+        var other = new UserEntity(dataGen.genUserName(), dataGen.genUserEmail(), dataGen.genUserPassword());
+        other.setId(user.getId() + 1);
+        var account = new UserAccount(other, dataGen.genProductName());
+        account.setId(dataGen.genRandomLong());
+
+        var failure = importService
+            .importTransactions(user, account.getKey(), StatementFormat.CSV, Multi.createFrom().empty())
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitFailure(TestConstants.UNI_DURATION)
+            .getFailure();
+        assertTrue(failure instanceof NotFoundException);
+
+        Mockito.verifyNoInteractions(accountRepo);
+        Mockito.verifyNoInteractions(transactionRepo);
+        Mockito.verifyNoInteractions(outboxRepo);
+    }
+}
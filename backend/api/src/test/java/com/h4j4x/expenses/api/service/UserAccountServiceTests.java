@@ -5,14 +5,19 @@ import com.h4j4x.expenses.api.TestConstants;
 import com.h4j4x.expenses.api.domain.UserAccount;
 import com.h4j4x.expenses.api.domain.UserEntity;
 import com.h4j4x.expenses.api.domain.UserTransaction;
+import com.h4j4x.expenses.api.model.AccountBalanceTotal;
+import com.h4j4x.expenses.api.model.AccountType;
+import com.h4j4x.expenses.api.model.BalanceSum;
+import com.h4j4x.expenses.api.model.CurrencyNetWorth;
+import com.h4j4x.expenses.api.model.PageCountMode;
 import com.h4j4x.expenses.api.model.PageData;
-import com.h4j4x.expenses.api.model.TransactionStatus;
 import com.h4j4x.expenses.api.model.UserAccountDTO;
+import com.h4j4x.expenses.api.repository.OutboxEventRepository;
 import com.h4j4x.expenses.api.repository.UserAccountRepository;
 import com.h4j4x.expenses.api.repository.UserTransactionRepository;
+import com.h4j4x.expenses.common.money.Money;
 import io.quarkus.test.junit.QuarkusTest;
 import io.quarkus.test.junit.mockito.InjectMock;
-import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
 import io.smallrye.mutiny.helpers.test.UniAssertSubscriber;
 import java.util.ArrayList;
@@ -34,6 +39,9 @@ public class UserAccountServiceTests {
     @InjectMock
     UserTransactionRepository transactionRepo;
 
+    @InjectMock
+    OutboxEventRepository outboxRepo;
+
     @Inject
     UserAccountService accountService;
 
@@ -94,6 +102,7 @@ public class UserAccountServiceTests {
         var user = new UserEntity(dataGen.genUserName(), dataGen.genUserEmail(), dataGen.genUserPassword());
         var account = new UserAccount(user, dataGen.genProductName());
         account.setId(dataGen.genRandomLong());
+        account.setCurrency("usd");
         Mockito
             .when(accountRepo.countByUserAndName(user, account.getName()))
             .thenReturn(Uni.createFrom().item(0L));
@@ -102,13 +111,17 @@ public class UserAccountServiceTests {
             .thenReturn(Uni.createFrom().item(account));
 
         var transaction = new UserTransaction(
-            account, UserAccountService.TRANSACTION_INITIAL_BALANCE_NOTES, dataGen.genRandomDouble());
+            account, UserAccountService.TRANSACTION_INITIAL_BALANCE_NOTES, dataGen.genRandomMinorUnits());
         transaction.setId(dataGen.genRandomLong());
         Mockito
             .when(transactionRepo.save(Mockito.any()))
             .thenReturn(Uni.createFrom().item(transaction));
+        Mockito
+            .when(outboxRepo.save(Mockito.any()))
+            .thenAnswer(invocation -> Uni.createFrom().item(invocation.getArgument(0)));
 
-        var uni = accountService.addAccount(user, new UserAccountDTO(account.getName(), transaction.getAmount()));
+        var balance = Money.of(transaction.getAmount(), account.getCurrency()).toDecimal();
+        var uni = accountService.addAccount(user, new UserAccountDTO(account.getName(), balance));
         var subscriber = uni
             .subscribe().withSubscriber(UniAssertSubscriber.create());
 
@@ -125,6 +138,8 @@ public class UserAccountServiceTests {
         Mockito.verifyNoMoreInteractions(accountRepo);
         Mockito.verify(transactionRepo).save(transaction);
         Mockito.verifyNoMoreInteractions(transactionRepo);
+        Mockito.verify(outboxRepo).save(Mockito.any());
+        Mockito.verifyNoMoreInteractions(outboxRepo);
     }
 
     @Test
@@ -171,11 +186,11 @@ public class UserAccountServiceTests {
         var pageIndex = 0;
         var pageSize = 2;
         Mockito
-            .when(accountRepo.findPageByUser(user, pageIndex, pageSize))
+            .when(accountRepo.findPageByUser(user, pageIndex, pageSize, PageCountMode.EXACT))
             .thenReturn(Uni.createFrom()
                 .item(PageData.create(items.subList(pageIndex, pageSize), pageIndex, pageSize, itemsCount)));
 
-        var uni = accountService.getAccountsPaged(user, pageIndex, pageSize);
+        var uni = accountService.getAccountsPaged(user, pageIndex, pageSize, PageCountMode.EXACT);
         var subscriber = uni
             .subscribe().withSubscriber(UniAssertSubscriber.create());
 
@@ -189,7 +204,7 @@ public class UserAccountServiceTests {
         assertEquals(pageSize, page.list().size());
         page.list().forEach(item -> assertTrue(items.contains(item)));
 
-        Mockito.verify(accountRepo).findPageByUser(user, pageIndex, pageSize);
+        Mockito.verify(accountRepo).findPageByUser(user, pageIndex, pageSize, PageCountMode.EXACT);
         Mockito.verifyNoMoreInteractions(accountRepo);
     }
 
@@ -301,8 +316,10 @@ public class UserAccountServiceTests {
         user.setId(dataGen.genRandomLong());
         var account = new UserAccount(user, dataGen.genProductName());
         account.setId(dataGen.genRandomLong());
-        var edited = new UserAccount(user, dataGen.genProductName(), dataGen.genRandomDouble());
+        account.setCurrency("usd");
+        var edited = new UserAccount(user, dataGen.genProductName(), dataGen.genRandomMinorUnits());
         edited.setId(account.getId());
+        edited.setCurrency(account.getCurrency());
         Mockito
             .when(accountRepo.findByUserAndId(user, account.getId()))
             .thenReturn(Uni.createFrom().item(account));
@@ -319,6 +336,9 @@ public class UserAccountServiceTests {
         Mockito
             .when(transactionRepo.save(Mockito.any()))
             .thenReturn(Uni.createFrom().item(transaction));
+        Mockito
+            .when(outboxRepo.save(Mockito.any()))
+            .thenAnswer(invocation -> Uni.createFrom().item(invocation.getArgument(0)));
 
         var uni = accountService.editAccount(user, account.getKey(), UserAccountDTO.fromAccount(edited));
         var subscriber = uni
@@ -338,6 +358,130 @@ public class UserAccountServiceTests {
         Mockito.verifyNoMoreInteractions(accountRepo);
         Mockito.verify(transactionRepo).save(transaction);
         Mockito.verifyNoMoreInteractions(transactionRepo);
+        Mockito.verify(outboxRepo).save(Mockito.any());
+        Mockito.verifyNoMoreInteractions(outboxRepo);
+    }
+
+    @Test
+    void whenEditAccount_WithNewCurrencyAndTransactions_Then_ShouldThrow400() {
+        var user = new UserEntity(dataGen.genUserName(), dataGen.genUserEmail(), dataGen.genUserPassword());
+        user.setId(dataGen.genRandomLong());
+        var account = new UserAccount(user, dataGen.genProductName(), AccountType.MONEY, "jpy");
+        account.setId(dataGen.genRandomLong());
+        var edited = new UserAccount(user, account.getName(), AccountType.MONEY, "usd");
+        edited.setId(account.getId());
+        Mockito
+            .when(accountRepo.findByUserAndId(user, account.getId()))
+            .thenReturn(Uni.createFrom().item(account));
+        Mockito
+            .when(accountRepo.countByUserAndNameAndNotId(user, edited.getName(), account.getId()))
+            .thenReturn(Uni.createFrom().item(0L));
+        Mockito
+            .when(transactionRepo.countByAccount(account))
+            .thenReturn(Uni.createFrom().item(1L));
+
+        var uni = accountService.editAccount(user, account.getKey(), UserAccountDTO.fromAccount(edited));
+        var subscriber = uni
+            .subscribe().withSubscriber(UniAssertSubscriber.create());
+
+        subscriber
+            .awaitFailure(TestConstants.UNI_DURATION)
+            .assertFailedWith(BadRequestException.class, UserAccountService.ACCOUNT_CURRENCY_LOCKED_MESSAGE);
+        assertEquals("jpy", account.getCurrency());
+
+        Mockito.verify(accountRepo).findByUserAndId(user, account.getId());
+        Mockito.verify(accountRepo).countByUserAndNameAndNotId(user, edited.getName(), account.getId());
+        Mockito.verifyNoMoreInteractions(accountRepo);
+        Mockito.verify(transactionRepo).countByAccount(account);
+        Mockito.verifyNoMoreInteractions(transactionRepo);
+    }
+
+    @Test
+    void whenEditAccount_WithNewCurrencyAndNoTransactions_Then_ShouldEditCurrency() {
+        var user = new UserEntity(dataGen.genUserName(), dataGen.genUserEmail(), dataGen.genUserPassword());
+        user.setId(dataGen.genRandomLong());
+        var account = new UserAccount(user, dataGen.genProductName(), AccountType.MONEY, "jpy");
+        account.setId(dataGen.genRandomLong());
+        var edited = new UserAccount(user, account.getName(), AccountType.MONEY, "usd");
+        edited.setId(account.getId());
+        Mockito
+            .when(accountRepo.findByUserAndId(user, account.getId()))
+            .thenReturn(Uni.createFrom().item(account));
+        Mockito
+            .when(accountRepo.countByUserAndNameAndNotId(user, edited.getName(), account.getId()))
+            .thenReturn(Uni.createFrom().item(0L));
+        Mockito
+            .when(transactionRepo.countByAccount(account))
+            .thenReturn(Uni.createFrom().item(0L));
+        Mockito
+            .when(accountRepo.save(account))
+            .thenReturn(Uni.createFrom().item(account));
+
+        var uni = accountService.editAccount(user, account.getKey(), UserAccountDTO.fromAccount(edited));
+        var subscriber = uni
+            .subscribe().withSubscriber(UniAssertSubscriber.create());
+
+        var userAccount = subscriber
+            .awaitItem(TestConstants.UNI_DURATION)
+            .getItem();
+        assertEquals("usd", userAccount.getCurrency());
+
+        Mockito.verify(transactionRepo).countByAccount(account);
+        Mockito.verifyNoMoreInteractions(transactionRepo);
+    }
+
+    @Test
+    void whenGetNetWorth_Then_ShouldSubtractCreditAndCache() {
+        var user = new UserEntity(dataGen.genUserName(), dataGen.genUserEmail(), dataGen.genUserPassword());
+        user.setId(dataGen.genRandomLong());
+        Mockito
+            .when(accountRepo.sumBalancesByUser(user))
+            .thenReturn(Uni.createFrom().item(List.of(
+                new AccountBalanceTotal("usd", AccountType.MONEY, 1250L, 2L),
+                new AccountBalanceTotal("usd", AccountType.CREDIT, -400L, 1L),
+                new AccountBalanceTotal("eur", AccountType.MONEY, 300L, 1L))));
+
+        var netWorth = accountService.getNetWorth(user)
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitItem(TestConstants.UNI_DURATION)
+            .getItem();
+        assertEquals(List.of(
+            new CurrencyNetWorth("eur", 300L, 0L, 1L),
+            new CurrencyNetWorth("usd", 1250L, 400L, 3L)), netWorth);
+        assertEquals(850L, netWorth.get(1).netWorth());
+
+        var cached = accountService.getNetWorth(user)
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitItem(TestConstants.UNI_DURATION)
+            .getItem();
+        assertEquals(netWorth, cached);
+
+        Mockito.verify(accountRepo).sumBalancesByUser(user);
+        Mockito.verifyNoMoreInteractions(accountRepo);
+    }
+
+    @Test
+    void whenBalanceCommitted_Then_ShouldRecomputeNetWorth() {
+        var user = new UserEntity(dataGen.genUserName(), dataGen.genUserEmail(), dataGen.genUserPassword());
+        user.setId(dataGen.genRandomLong());
+        var account = new UserAccount(user, dataGen.genProductName());
+        Mockito
+            .when(accountRepo.sumBalancesByUser(user))
+            .thenReturn(Uni.createFrom().item(List.of(new AccountBalanceTotal("usd", AccountType.MONEY, 100L, 1L))))
+            .thenReturn(Uni.createFrom().item(List.of(new AccountBalanceTotal("usd", AccountType.MONEY, 200L, 1L))));
+
+        accountService.getNetWorth(user)
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitItem(TestConstants.UNI_DURATION);
+        accountService.balanceCommitted(account);
+        var netWorth = accountService.getNetWorth(user)
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitItem(TestConstants.UNI_DURATION)
+            .getItem();
+        assertEquals(200L, netWorth.get(0).netWorth());
+
+        Mockito.verify(accountRepo, Mockito.times(2)).sumBalancesByUser(user);
+        Mockito.verifyNoMoreInteractions(accountRepo);
     }
 
     @Test
@@ -347,26 +491,18 @@ public class UserAccountServiceTests {
         var account = new UserAccount(user, dataGen.genProductName());
         account.setId(dataGen.genRandomLong());
         var updatedAt = account.getBalanceUpdatedAt();
-        var accountBalance = dataGen.genRandomDouble();
+        var storedBalance = dataGen.genRandomMinorUnits();
+        account.setBalance(storedBalance);
+        var balanceDelta = dataGen.genRandomMinorUnits();
         Mockito
             .when(accountRepo.save(Mockito.any()))
             .thenAnswer((Answer<Uni<UserAccount>>) invocation
                 -> Uni.createFrom().item(invocation.getArgument(0, UserAccount.class)));
 
         var transactionsCount = dataGen.genRandomNumber(2, 5);
-        var transactionAmount = accountBalance / transactionsCount;
-        var status = TransactionStatus.CONFIRMED;
-        List<UserTransaction> transactions = new ArrayList<>(transactionsCount);
-        for (int i = 0; i < transactionsCount; i++) {
-            var transaction = new UserTransaction(
-                account, dataGen.genRandomNotes(10, 20), transactionAmount);
-            transaction.setStatus(status);
-            transaction.setId(dataGen.genRandomLong());
-            transactions.add(transaction);
-        }
         Mockito
-            .when(transactionRepo.findTransactionsFromDateWithStatus(account, updatedAt, status))
-            .thenReturn(Multi.createFrom().items(transactions.stream()));
+            .when(transactionRepo.applyConfirmedTransactions(account))
+            .thenReturn(Uni.createFrom().item(new BalanceSum(balanceDelta, (long) transactionsCount)));
 
         var uni = accountService.updateAccountBalance(account);
         var subscriber = uni
@@ -378,11 +514,13 @@ public class UserAccountServiceTests {
         assertNotNull(userAccount);
         assertEquals(account.getKey(), userAccount.getKey());
         assertEquals(account.getName(), userAccount.getName());
-        assertEquals(accountBalance, userAccount.getBalance());
+        assertEquals(storedBalance + balanceDelta, userAccount.getBalance());
+        assertTrue(userAccount.getBalanceUpdatedAt().isAfter(updatedAt)
+            || userAccount.getBalanceUpdatedAt().isEqual(updatedAt));
 
         Mockito.verify(accountRepo).save(Mockito.any());
         Mockito.verifyNoMoreInteractions(accountRepo);
-        Mockito.verify(transactionRepo).findTransactionsFromDateWithStatus(account, updatedAt, status);
+        Mockito.verify(transactionRepo).applyConfirmedTransactions(account);
         Mockito.verifyNoMoreInteractions(transactionRepo);
     }
 }
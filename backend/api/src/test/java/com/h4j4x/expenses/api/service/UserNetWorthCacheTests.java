@@ -0,0 +1,51 @@
+package com.h4j4x.expenses.api.service;
+
+import com.h4j4x.expenses.api.model.CurrencyNetWorth;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserNetWorthCacheTests {
+    private static final List<CurrencyNetWorth> NET_WORTH = List.of(new CurrencyNetWorth("usd", 100L, 0L, 1L));
+
+    private UserNetWorthCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new UserNetWorthCache(new SimpleMeterRegistry());
+        cache.maxSize = 10;
+        cache.ttl = Duration.ofMinutes(5);
+        cache.init();
+    }
+
+    @Test
+    void whenPut_AfterUserInvalidation_Then_ShouldNotCache() {
+        var stamp = cache.stamp(1L);
+        cache.invalidate(1L);
+        cache.put(1L, NET_WORTH, stamp);
+
+        assertNull(cache.get(1L));
+    }
+
+    @Test
+    void whenPut_AfterOtherUserInvalidation_Then_ShouldCache() {
+        var stamp = cache.stamp(1L);
+        cache.invalidate(2L);
+        cache.put(1L, NET_WORTH, stamp);
+
+        assertEquals(NET_WORTH, cache.get(1L));
+    }
+
+    @Test
+    void whenInvalidate_Then_ShouldDropUserEntryOnly() {
+        cache.put(1L, NET_WORTH, cache.stamp(1L));
+        cache.put(2L, NET_WORTH, cache.stamp(2L));
+        cache.invalidate(1L);
+
+        assertNull(cache.get(1L));
+        assertEquals(NET_WORTH, cache.get(2L));
+    }
+}
@@ -0,0 +1,108 @@
+package com.h4j4x.expenses.api.service;
+
+import com.h4j4x.expenses.api.DataGenerator;
+import com.h4j4x.expenses.api.TestConstants;
+import com.h4j4x.expenses.api.domain.UserEntity;
+import com.h4j4x.expenses.api.model.ProvisioningStatus;
+import com.h4j4x.expenses.api.model.UserDTO;
+import com.h4j4x.expenses.api.model.UserProvisioningResult;
+import com.h4j4x.expenses.api.repository.UserRepository;
+import com.h4j4x.expenses.api.security.StringHashingPool;
+import com.h4j4x.expenses.api.security.impl.DummyStringHasher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.mockito.InjectMock;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.helpers.test.UniAssertSubscriber;
+import java.util.ArrayList;
+import java.util.List;
+import javax.inject.Inject;
+import javax.validation.Validator;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import static org.junit.jupiter.api.Assertions.*;
+
+@QuarkusTest
+public class UserProvisioningServiceTests {
+    @InjectMock
+    UserRepository userRepo;
+
+    @Inject
+    UserProvisioningService provisioningService;
+
+    @Inject
+    Validator validator;
+
+    @Inject
+    DataGenerator dataGen;
+
+    @Test
+    void whenCreateUsers_Then_ShouldGetResultPerRow() {
+        var newUser = new UserDTO(dataGen.genUserName(), dataGen.genUserEmail(), dataGen.genUserPassword());
+        var existingUser = new UserDTO(dataGen.genUserName(), "other-" + dataGen.genUserEmail(), dataGen.genUserPassword());
+        var repeatedUser = new UserDTO(dataGen.genUserName(), newUser.getEmail(), dataGen.genUserPassword());
+        var invalidUser = new UserDTO(dataGen.genUserName(), "invalid-email", dataGen.genUserPassword());
+        Mockito
+            .when(userRepo.findEmailsIn(List.of(newUser.getEmail(), existingUser.getEmail())))
+            .thenReturn(Uni.createFrom().item(List.of(existingUser.getEmail())));
+        Mockito
+            .when(userRepo.persist(Mockito.<Iterable<UserEntity>>any()))
+            .thenReturn(Uni.createFrom().voidItem());
+
+        var results = provisioningService
+            .createUsers(List.of(newUser, existingUser, repeatedUser, invalidUser))
+            .collect().asList()
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitItem(TestConstants.UNI_DURATION)
+            .getItem();
+
+        assertEquals(4, results.size());
+        assertEquals(ProvisioningStatus.CREATED, results.get(0).status());
+        assertEquals(ProvisioningStatus.DUPLICATE, results.get(1).status());
+        assertEquals(ProvisioningStatus.DUPLICATE, results.get(2).status());
+        assertEquals(ProvisioningStatus.INVALID, results.get(3).status());
+        assertEquals(List.of(0, 1, 2, 3), results.stream().map(UserProvisioningResult::index).toList());
+
+        Mockito.verify(userRepo).findEmailsIn(List.of(newUser.getEmail(), existingUser.getEmail()));
+        Mockito.verify(userRepo).persist(Mockito.<Iterable<UserEntity>>any());
+        Mockito.verifyNoMoreInteractions(userRepo);
+    }
+
+    @Test
+    void whenCreateUsers_WithHashConcurrencyOverPoolSize_Then_ShouldNotOverflowPoolQueue() {
+        var hashingPool = new StringHashingPool(new DummyStringHasher() {
+            @Override
+            public String hash(String string, String salt) {
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException ignored) {
+                }
+                return string;
+            }
+        }, 1, 1, new SimpleMeterRegistry());
+        var service = new UserProvisioningService(userRepo, hashingPool, validator);
+        service.chunkSize = 500;
+        service.hashConcurrency = 8;
+        var users = new ArrayList<UserDTO>();
+        for (int i = 0; i < 6; i++) {
+            users.add(new UserDTO(dataGen.genUserName(), i + "-" + dataGen.genUserEmail(), dataGen.genUserPassword()));
+        }
+        Mockito
+            .when(userRepo.findEmailsIn(Mockito.any()))
+            .thenReturn(Uni.createFrom().item(List.of()));
+        Mockito
+            .when(userRepo.persist(Mockito.<Iterable<UserEntity>>any()))
+            .thenReturn(Uni.createFrom().voidItem());
+
+        var results = service
+            .createUsers(users)
+            .collect().asList()
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitItem(TestConstants.UNI_DURATION)
+            .getItem();
+        hashingPool.shutdown();
+
+        assertEquals(users.size(), results.size());
+        results.forEach(result -> assertEquals(ProvisioningStatus.CREATED, result.status()));
+    }
+}
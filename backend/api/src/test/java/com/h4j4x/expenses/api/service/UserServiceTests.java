@@ -6,8 +6,12 @@ import com.h4j4x.expenses.api.domain.UserEntity;
 import com.h4j4x.expenses.api.model.UserCredentials;
 import com.h4j4x.expenses.api.model.UserDTO;
 import com.h4j4x.expenses.api.repository.UserRepository;
+import com.h4j4x.expenses.api.security.AuthMetrics;
+import com.h4j4x.expenses.api.security.StringHashingPool;
+import com.h4j4x.expenses.api.security.UserPrincipalCache;
 import com.h4j4x.expenses.api.security.impl.DummyStringHasher;
 import io.quarkus.test.junit.QuarkusTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.quarkus.test.junit.mockito.InjectMock;
 import io.smallrye.mutiny.Uni;
 import io.smallrye.mutiny.helpers.test.UniAssertSubscriber;
@@ -23,6 +27,8 @@ public class UserServiceTests {
     @InjectMock
     UserRepository userRepo;
     @Inject
+    UserPrincipalCache principalCache;
+    @Inject
     DataGenerator dataGen;
     private UserService userService;
     private UserEntity user;
@@ -37,7 +43,9 @@ public class UserServiceTests {
         Mockito
             .when(userRepo.countByEmail(user.getEmail()))
             .thenReturn(Uni.createFrom().item(1L));
-        userService = new UserService(userRepo, new DummyStringHasher());
+        userService = new UserService(userRepo,
+            new StringHashingPool(new DummyStringHasher(), 1, 8, new SimpleMeterRegistry()), principalCache,
+            new AuthMetrics(new SimpleMeterRegistry()));
     }
 
     @Test
@@ -132,6 +140,9 @@ public class UserServiceTests {
         user.setId(dataGen.genRandomLong());
         var edited = new UserEntity(user.getName(), "another-" + dataGen.genUserEmail(), dataGen.genUserPassword());
         edited.setId(user.getId());
+        Mockito
+            .when(userRepo.findById(user.getId()))
+            .thenReturn(Uni.createFrom().item(user));
         Mockito
             .when(userRepo.countByEmailAndNotId(edited.getEmail(), edited.getId()))
             .thenReturn(Uni.createFrom().item(0L));
@@ -151,6 +162,7 @@ public class UserServiceTests {
         assertEquals(edited.getEmail(), userEntity.getEmail());
         assertEquals(edited.getPassword(), userEntity.getPassword());
 
+        Mockito.verify(userRepo).findById(user.getId());
         Mockito.verify(userRepo).countByEmailAndNotId(edited.getEmail(), edited.getId());
         Mockito.verify(userRepo).save(edited);
         Mockito.verifyNoMoreInteractions(userRepo);
@@ -161,6 +173,9 @@ public class UserServiceTests {
         var user = new UserEntity(dataGen.genUserName(), "other-" + dataGen.genUserEmail(), dataGen.genUserPassword());
         user.setId(dataGen.genRandomLong());
         var newEmail = "another-" + dataGen.genUserEmail();
+        Mockito
+            .when(userRepo.findById(user.getId()))
+            .thenReturn(Uni.createFrom().item(user));
         Mockito
             .when(userRepo.countByEmailAndNotId(newEmail, user.getId()))
             .thenReturn(Uni.createFrom().item(1L));
@@ -173,7 +188,40 @@ public class UserServiceTests {
             .awaitFailure(TestConstants.UNI_DURATION)
             .assertFailedWith(BadRequestException.class, UserService.USER_EMAIL_EXISTS_MESSAGE);
 
+        Mockito.verify(userRepo).findById(user.getId());
         Mockito.verify(userRepo).countByEmailAndNotId(newEmail, user.getId());
         Mockito.verifyNoMoreInteractions(userRepo);
     }
+
+    @Test
+    void whenEditUser_WithCachedPrincipal_Then_ShouldKeepItUntilInvalidated() {
+        var user = new UserEntity(dataGen.genUserName(), "other-" + dataGen.genUserEmail(), dataGen.genUserPassword());
+        user.setId(dataGen.genRandomLong());
+        var oldEmail = user.getEmail();
+        principalCache.put(oldEmail, user);
+        var newEmail = "another-" + dataGen.genUserEmail();
+        Mockito
+            .when(userRepo.findById(user.getId()))
+            .thenReturn(Uni.createFrom().item(user));
+        Mockito
+            .when(userRepo.countByEmailAndNotId(newEmail, user.getId()))
+            .thenReturn(Uni.createFrom().item(0L));
+        Mockito
+            .when(userRepo.save(user))
+            .thenReturn(Uni.createFrom().item(user));
+
+        var uni = userService.editUser(user, new UserDTO(user.getName(), newEmail, null));
+        var subscriber = uni
+            .subscribe().withSubscriber(UniAssertSubscriber.create());
+
+        var userEntity = subscriber
+            .awaitItem(TestConstants.UNI_DURATION)
+            .getItem();
+        // edit is not committed yet
+        assertNotNull(principalCache.get(oldEmail));
+
+        userService.invalidatePrincipal(oldEmail, userEntity);
+        assertNull(principalCache.get(oldEmail));
+        assertNull(principalCache.get(newEmail));
+    }
 }
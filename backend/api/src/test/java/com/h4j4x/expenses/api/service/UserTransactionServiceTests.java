@@ -2,13 +2,18 @@ package com.h4j4x.expenses.api.service;
 
 import com.h4j4x.expenses.api.DataGenerator;
 import com.h4j4x.expenses.api.TestConstants;
+import com.h4j4x.expenses.api.domain.OutboxEvent;
 import com.h4j4x.expenses.api.domain.UserAccount;
 import com.h4j4x.expenses.api.domain.UserEntity;
 import com.h4j4x.expenses.api.domain.UserTransaction;
+import com.h4j4x.expenses.api.model.AccountBalanceDelta;
+import com.h4j4x.expenses.api.model.AccountBalanceEvent;
 import com.h4j4x.expenses.api.model.TransactionCreationWay;
 import com.h4j4x.expenses.api.model.TransactionStatus;
 import com.h4j4x.expenses.api.model.UserTransactionDTO;
+import com.h4j4x.expenses.api.repository.OutboxEventRepository;
 import com.h4j4x.expenses.api.repository.UserTransactionRepository;
+import com.h4j4x.expenses.common.money.Money;
 import io.quarkus.test.junit.QuarkusTest;
 import io.quarkus.test.junit.mockito.InjectMock;
 import io.smallrye.mutiny.Multi;
@@ -19,16 +24,22 @@ import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import javax.inject.Inject;
+import javax.ws.rs.BadRequestException;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @QuarkusTest
 public class UserTransactionServiceTests {
     @InjectMock
     UserTransactionRepository transactionRepo;
 
+    @InjectMock
+    OutboxEventRepository outboxRepo;
+
     @Inject
     UserTransactionService transactionService;
 
@@ -40,14 +51,18 @@ public class UserTransactionServiceTests {
         var user = new UserEntity(dataGen.genUserName(), dataGen.genUserEmail(), dataGen.genUserPassword());
         var account = new UserAccount(user, dataGen.genProductName());
         account.setId(dataGen.genRandomLong());
-        var transaction = new UserTransaction(account, dataGen.genRandomNotes(10, 200), dataGen.genRandomDouble());
+        account.setCurrency("usd");
+        var transaction = new UserTransaction(account, dataGen.genRandomNotes(10, 200), dataGen.genRandomMinorUnits());
         transaction.setId(dataGen.genRandomLong());
         Mockito
             .when(transactionRepo.save(Mockito.any()))
             .thenReturn(Uni.createFrom().item(transaction));
+        Mockito
+            .when(outboxRepo.save(Mockito.any()))
+            .thenAnswer(invocation -> Uni.createFrom().item(invocation.getArgument(0)));
 
-
-        var transactionDTO = new UserTransactionDTO(transaction.getNotes(), transaction.getAmount());
+        var amount = Money.of(transaction.getAmount(), account.getCurrency()).toDecimal();
+        var transactionDTO = new UserTransactionDTO(transaction.getNotes(), amount);
         var uni = transactionService.addTransaction(account, transactionDTO);
         var subscriber = uni
             .subscribe().withSubscriber(UniAssertSubscriber.create());
@@ -64,6 +79,12 @@ public class UserTransactionServiceTests {
 
         Mockito.verify(transactionRepo).save(Mockito.any());
         Mockito.verifyNoMoreInteractions(transactionRepo);
+        var eventCaptor = ArgumentCaptor.forClass(OutboxEvent.class);
+        Mockito.verify(outboxRepo).save(eventCaptor.capture());
+        Mockito.verifyNoMoreInteractions(outboxRepo);
+        var event = new AccountBalanceEvent(account.getId(), transaction.getId(), transaction.getAmount());
+        assertEquals(event.key(), eventCaptor.getValue().getEventKey());
+        assertEquals(event.toPayload(), eventCaptor.getValue().getPayload());
     }
 
     @Test
@@ -77,7 +98,7 @@ public class UserTransactionServiceTests {
         var from = OffsetDateTime.now();
         var creationWay = TransactionCreationWay.SYSTEM;
         for (int i = 0; i < itemsCount; i++) {
-            var item = new UserTransaction(account, dataGen.genRandomNotes(10, 200), dataGen.genRandomDouble());
+            var item = new UserTransaction(account, dataGen.genRandomNotes(10, 200), dataGen.genRandomMinorUnits());
             item.setStatus(status);
             item.setCreationWay(creationWay);
             item.setId(dataGen.genRandomLong());
@@ -97,4 +118,113 @@ public class UserTransactionServiceTests {
         Mockito.verify(transactionRepo).findTransactionsFromDateWithStatus(account, from, status);
         Mockito.verifyNoMoreInteractions(transactionRepo);
     }
+
+    @Test
+    void whenConfirmTransactions_Then_ShouldSaveOneBalanceEventPerAccount() {
+        var user = new UserEntity(dataGen.genUserName(), dataGen.genUserEmail(), dataGen.genUserPassword());
+        user.setId(dataGen.genRandomLong());
+        var account = new UserAccount(user, dataGen.genProductName());
+        account.setId(dataGen.genRandomLong());
+        var keys = new ArrayList<String>();
+        for (int i = 0; i < 3; i++) {
+            var transaction = new UserTransaction(account, dataGen.genRandomNotes(10, 200),
+                dataGen.genRandomMinorUnits());
+            transaction.setId(dataGen.genRandomLong());
+            keys.add(transaction.getKey());
+        }
+        var deltas = List.of(
+            new AccountBalanceDelta(account.getId(), dataGen.genRandomMinorUnits(), 2L),
+            new AccountBalanceDelta(account.getId() + 1, dataGen.genRandomMinorUnits(), 1L));
+        Mockito
+            .when(transactionRepo.updatePendingStatus(Mockito.eq(user), Mockito.any(),
+                Mockito.eq(TransactionStatus.CONFIRMED), Mockito.any()))
+            .thenReturn(Uni.createFrom().item(keys.size()));
+        Mockito
+            .when(transactionRepo.sumConfirmedAtByAccount(Mockito.eq(user), Mockito.any()))
+            .thenReturn(Uni.createFrom().item(deltas));
+        Mockito
+            .when(outboxRepo.saveAll(Mockito.any()))
+            .thenReturn(Uni.createFrom().voidItem());
+
+        var uni = transactionService.settleTransactions(user, TransactionStatus.CONFIRMED, keys, null);
+        var settlement = uni
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitItem(TestConstants.UNI_DURATION)
+            .getItem();
+        assertEquals(TransactionStatus.CONFIRMED, settlement.getStatus());
+        assertEquals(keys.size(), settlement.getUpdatedCount());
+        assertEquals(deltas.size(), settlement.getAccountsCount());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<OutboxEvent>> eventsCaptor = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(outboxRepo).saveAll(eventsCaptor.capture());
+        Mockito.verifyNoMoreInteractions(outboxRepo);
+        var events = eventsCaptor.getValue();
+        assertEquals(deltas.size(), events.size());
+        for (int i = 0; i < deltas.size(); i++) {
+            var event = new AccountBalanceEvent(deltas.get(i).accountId(), null, deltas.get(i).amount());
+            assertEquals(event.key(), events.get(i).getEventKey());
+            assertEquals(event.toPayload(), events.get(i).getPayload());
+        }
+    }
+
+    @Test
+    void whenRefundTransactions_Then_ShouldNotSaveBalanceEvents() {
+        var user = new UserEntity(dataGen.genUserName(), dataGen.genUserEmail(), dataGen.genUserPassword());
+        user.setId(dataGen.genRandomLong());
+        var account = new UserAccount(user, dataGen.genProductName());
+        account.setId(dataGen.genRandomLong());
+        var transaction = new UserTransaction(account, dataGen.genRandomNotes(10, 200), dataGen.genRandomMinorUnits());
+        transaction.setId(dataGen.genRandomLong());
+        Mockito
+            .when(transactionRepo.updatePendingStatus(Mockito.eq(user), Mockito.any(),
+                Mockito.eq(TransactionStatus.REFUNDED), Mockito.any()))
+            .thenReturn(Uni.createFrom().item(1));
+
+        var uni = transactionService.settleTransactions(user, TransactionStatus.REFUNDED,
+            List.of(transaction.getKey()), null);
+        var settlement = uni
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitItem(TestConstants.UNI_DURATION)
+            .getItem();
+        assertEquals(1, settlement.getUpdatedCount());
+        assertEquals(0, settlement.getAccountsCount());
+
+        Mockito.verify(transactionRepo).updatePendingStatus(Mockito.eq(user), Mockito.any(),
+            Mockito.eq(TransactionStatus.REFUNDED), Mockito.any());
+        Mockito.verifyNoMoreInteractions(transactionRepo);
+        Mockito.verifyNoInteractions(outboxRepo);
+    }
+
+    @Test
+    void whenSettleTransactionsAsPending_Then_ShouldFail() {
+        var user = new UserEntity(dataGen.genUserName(), dataGen.genUserEmail(), dataGen.genUserPassword());
+        user.setId(dataGen.genRandomLong());
+
+        var uni = transactionService.settleTransactions(user, TransactionStatus.PENDING, List.of("key"), null);
+        var failure = uni
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitFailure(TestConstants.UNI_DURATION)
+            .getFailure();
+        assertTrue(failure instanceof BadRequestException);
+
+        Mockito.verifyNoInteractions(transactionRepo);
+        Mockito.verifyNoInteractions(outboxRepo);
+    }
+
+    @Test
+    void whenSearchTransactionsWithBlankText_Then_ShouldFail() {
+        var user = new UserEntity(dataGen.genUserName(), dataGen.genUserEmail(), dataGen.genUserPassword());
+        user.setId(dataGen.genRandomLong());
+
+        var uni = transactionService.searchTransactions(user, "  ", null, 20);
+        var failure = uni
+            .subscribe().withSubscriber(UniAssertSubscriber.create())
+            .awaitFailure(TestConstants.UNI_DURATION)
+            .getFailure();
+        assertTrue(failure instanceof BadRequestException);
+        assertEquals(UserTransactionService.SEARCH_TEXT_INVALID_MESSAGE, failure.getMessage());
+
+        Mockito.verifyNoInteractions(transactionRepo);
+    }
 }
@@ -0,0 +1,45 @@
+package com.h4j4x.expenses.api.statement;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CsvStatementParserTests {
+    @Test
+    void whenParseLines_Then_ShouldGetValidAndRejectedRows() {
+        var parser = new CsvStatementParser();
+        var lines = List.of(
+            "Date,Description,Amount\r",
+            "2023-01-15,\"Coffee, \"\"large\"\"\",-3.50",
+            "",
+            "2023-01-16T10:00:00-05:00,Salary,1500",
+            "not-a-date,Bad,1",
+            "2023-01-17,\"Unclosed,2");
+        List<StatementRow> rows = new ArrayList<>();
+        lines.forEach(line -> rows.addAll(parser.parse(line)));
+        rows.addAll(parser.finish());
+
+        assertEquals(4, rows.size());
+        assertTrue(rows.get(0).isValid());
+        assertEquals(2, rows.get(0).position());
+        assertEquals(new BigDecimal("-3.50"), rows.get(0).amount());
+        assertEquals("Coffee, \"large\"", rows.get(0).notes());
+        assertEquals(OffsetDateTime.of(2023, 1, 15, 0, 0, 0, 0, ZoneOffset.UTC), rows.get(0).postedAt());
+        assertTrue(rows.get(1).isValid());
+        assertEquals(ZoneOffset.ofHours(-5), rows.get(1).postedAt().getOffset());
+        assertFalse(rows.get(2).isValid());
+        assertEquals(5, rows.get(2).position());
+        assertFalse(rows.get(3).isValid());
+    }
+
+    @Test
+    void whenHeaderHasNoAmount_Then_ShouldFail() {
+        var parser = new CsvStatementParser();
+
+        assertThrows(StatementFormatException.class, () -> parser.parse("date,notes"));
+    }
+}
@@ -0,0 +1,59 @@
+package com.h4j4x.expenses.api.statement;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OfxStatementParserTests {
+    private static final String SGML_STATEMENT = """
+        OFXHEADER:100
+        DATA:OFXSGML
+
+        <OFX><BANKMSGSRSV1><STMTTRNRS><STMTRS><BANKTRANLIST>
+        <STMTTRN>
+        <TRNTYPE>DEBIT
+        <FITID>2023011501
+        <DTPOSTED>20230115120000.000[-5:EST]
+        <TRNAMT>-42.10
+        <NAME>Groceries &amp; more
+        <MEMO>Card 1234
+        </STMTTRN>
+        <STMTTRN>
+        <DTPOSTED>20230116
+        <TRNAMT>1500.00
+        <NAME>Salary
+        </STMTTRN>
+        <STMTTRN>
+        <DTPOSTED>bad
+        <TRNAMT>1
+        </STMTTRN>
+        </BANKTRANLIST></STMTRS></STMTTRNRS></BANKMSGSRSV1></OFX>
+        """;
+
+    @Test
+    void whenParseStatement_Then_ShouldGetTransactions() {
+        var parser = new OfxStatementParser();
+        List<StatementRow> rows = new ArrayList<>();
+        for (String token : SGML_STATEMENT.split("<")) {
+            rows.addAll(parser.parse(token));
+        }
+        rows.addAll(parser.finish());
+
+        assertEquals(3, rows.size());
+        assertTrue(rows.get(0).isValid());
+        assertEquals(new BigDecimal("-42.10"), rows.get(0).amount());
+        assertEquals("Groceries & more - Card 1234", rows.get(0).notes());
+        assertEquals("2023011501", rows.get(0).externalId());
+        assertEquals(OffsetDateTime.of(2023, 1, 15, 12, 0, 0, 0, ZoneOffset.ofHours(-5)), rows.get(0).postedAt());
+        assertTrue(rows.get(1).isValid());
+        assertEquals("Salary", rows.get(1).notes());
+        assertNull(rows.get(1).externalId());
+        assertEquals(OffsetDateTime.of(2023, 1, 16, 0, 0, 0, 0, ZoneOffset.UTC), rows.get(1).postedAt());
+        assertFalse(rows.get(2).isValid());
+        assertEquals(3, rows.get(2).position());
+    }
+}
@@ -0,0 +1,126 @@
+package com.h4j4x.expenses.common.cache;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Size-capped cache whose entries expire after a fixed time to live.
+ * When full, the least recently used entry is evicted.
+ *
+ * @param <K> key type.
+ * @param <V> value type.
+ */
+public class ExpiringCache<K, V> {
+    private final int maxSize;
+
+    private final long ttlMillis;
+
+    private final Clock clock;
+
+    private final Map<K, Entry<V>> entries;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    public ExpiringCache(int maxSize, Duration ttl) {
+        this(maxSize, ttl, Clock.systemUTC());
+    }
+
+    public ExpiringCache(int maxSize, Duration ttl, Clock clock) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Cache max size must be positive");
+        }
+        this.maxSize = maxSize;
+        this.ttlMillis = ttl.toMillis();
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > ExpiringCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Gets a cached value.
+     *
+     * @param key value key.
+     * @return cached value or {@literal null} if absent or expired.
+     */
+    public synchronized V get(K key) {
+        var entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.expiresAtMillis() <= clock.millis()) {
+            entries.remove(key);
+            evictions.increment();
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value();
+    }
+
+    public void put(K key, V value) {
+        put(key, value, null);
+    }
+
+    /**
+     * Caches a value.
+     *
+     * @param key       value key.
+     * @param value     value to cache.
+     * @param expiresAt instant after which the value must not be served, or {@literal null} to use only the time to live.
+     */
+    public synchronized void put(K key, V value, Instant expiresAt) {
+        var expiresAtMillis = clock.millis() + ttlMillis;
+        if (expiresAt != null) {
+            expiresAtMillis = Math.min(expiresAtMillis, expiresAt.toEpochMilli());
+        }
+        entries.put(key, new Entry<>(value, expiresAtMillis));
+    }
+
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public synchronized void invalidateAll() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int maxSize() {
+        return maxSize;
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    private record Entry<V>(V value, long expiresAtMillis) {
+    }
+}
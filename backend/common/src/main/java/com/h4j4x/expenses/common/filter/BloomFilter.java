@@ -0,0 +1,108 @@
+package com.h4j4x.expenses.common.filter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread safe Bloom filter of strings. It may report false positives but never false negatives, so a
+ * negative answer can be trusted without checking the backing store.
+ */
+public class BloomFilter {
+    private final AtomicLongArray bits;
+
+    private final long bitSize;
+
+    private final int hashCount;
+
+    /**
+     * Creates a filter sized for the expected insertions and false positive probability.
+     *
+     * @param expectedInsertions       expected number of values.
+     * @param falsePositiveProbability wanted false positive probability, between 0 and 1 exclusive.
+     */
+    public BloomFilter(long expectedInsertions, double falsePositiveProbability) {
+        if (falsePositiveProbability <= 0 || falsePositiveProbability >= 1) {
+            throw new IllegalArgumentException("Bloom filter false positive probability must be between 0 and 1");
+        }
+        var insertions = Math.max(1, expectedInsertions);
+        var optimalBits = (long) Math.ceil(-insertions * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+        var words = Math.max(1, (optimalBits + Long.SIZE - 1) / Long.SIZE);
+        if (words > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Bloom filter is too large");
+        }
+        this.bits = new AtomicLongArray((int) words);
+        this.bitSize = words * Long.SIZE;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitSize / insertions * Math.log(2)));
+    }
+
+    public void put(String value) {
+        var hash = hash64(value);
+        var h1 = (int) hash;
+        var h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            setBit(index(h1 + i * h2));
+        }
+    }
+
+    public boolean mightContain(String value) {
+        var hash = hash64(value);
+        var h1 = (int) hash;
+        var h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            if (!getBit(index(h1 + i * h2))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long bitSize() {
+        return bitSize;
+    }
+
+    public int hashCount() {
+        return hashCount;
+    }
+
+    public long memoryBytes() {
+        return bitSize / Byte.SIZE;
+    }
+
+    private long index(int combinedHash) {
+        if (combinedHash < 0) {
+            combinedHash = ~combinedHash;
+        }
+        return combinedHash % bitSize;
+    }
+
+    private void setBit(long index) {
+        var word = (int) (index >>> 6);
+        var mask = 1L << index;
+        long current;
+        do {
+            current = bits.get(word);
+            if ((current & mask) != 0) {
+                return;
+            }
+        } while (!bits.compareAndSet(word, current, current | mask));
+    }
+
+    private boolean getBit(long index) {
+        return (bits.get((int) (index >>> 6)) & (1L << index)) != 0;
+    }
+
+    // 64-bit FNV-1a followed by a murmur3 finalizer to spread the bits
+    private static long hash64(String value) {
+        var hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,123 @@
+package com.h4j4x.expenses.common.money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Amount of money as a {@code long} of currency minor units (cents for USD) plus an interned, lower case
+ * currency code. Decimal values are only built at the edges, rounding half up to the currency fraction digits.
+ */
+public final class Money {
+    private static final int DEFAULT_FRACTION_DIGITS = 2;
+    private static final int MAX_UNITS = 1024;
+
+    private static final ConcurrentMap<String, CurrencyUnit> UNITS = new ConcurrentHashMap<>();
+
+    private final long minorUnits;
+
+    private final CurrencyUnit unit;
+
+    private Money(long minorUnits, CurrencyUnit unit) {
+        this.minorUnits = minorUnits;
+        this.unit = unit;
+    }
+
+    public static Money of(long minorUnits, String currency) {
+        return new Money(minorUnits, unit(currency));
+    }
+
+    /**
+     * @param amount   decimal amount, {@literal null} is zero.
+     * @param currency currency code.
+     * @return amount in currency minor units.
+     */
+    public static long toMinorUnits(BigDecimal amount, String currency) {
+        return toMinorUnits(amount, unit(currency).fractionDigits());
+    }
+
+    /**
+     * @param currency currency code, any case.
+     * @return digits of the currency minor unit, 2 for unknown currencies.
+     */
+    public static int fractionDigits(String currency) {
+        return unit(currency).fractionDigits();
+    }
+
+    /**
+     * @param currency currency code, any case.
+     * @return canonical lower case code, the same instance for every call.
+     */
+    public static String currencyCode(String currency) {
+        return unit(currency).code();
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public String getCurrency() {
+        return unit.code();
+    }
+
+    public BigDecimal toDecimal() {
+        return BigDecimal.valueOf(minorUnits, unit.fractionDigits());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Money money = (Money) o;
+        return minorUnits == money.minorUnits && unit.code().equals(money.unit.code());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(minorUnits, unit.code());
+    }
+
+    @Override
+    public String toString() {
+        return toDecimal().toPlainString() + " " + unit.code();
+    }
+
+    private static long toMinorUnits(BigDecimal amount, int fractionDigits) {
+        if (amount == null) {
+            return 0L;
+        }
+        return amount.setScale(fractionDigits, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static CurrencyUnit unit(String currency) {
+        Objects.requireNonNull(currency, "currency");
+        // trim and toLowerCase return the same instance for canonical codes, so the usual lookup does not allocate
+        var code = currency.trim().toLowerCase(Locale.ROOT);
+        var unit = UNITS.get(code);
+        if (unit == null) {
+            if (UNITS.size() >= MAX_UNITS) {
+                return CurrencyUnit.create(code);
+            }
+            unit = UNITS.computeIfAbsent(code, CurrencyUnit::create);
+        }
+        return unit;
+    }
+
+    private record CurrencyUnit(String code, int fractionDigits) {
+        static CurrencyUnit create(String code) {
+            var fractionDigits = DEFAULT_FRACTION_DIGITS;
+            try {
+                var digits = Currency.getInstance(code.toUpperCase(Locale.ROOT)).getDefaultFractionDigits();
+                if (digits >= 0) {
+                    fractionDigits = digits;
+                }
+            } catch (IllegalArgumentException ignored) {
+            }
+            return new CurrencyUnit(code, fractionDigits);
+        }
+    }
+}
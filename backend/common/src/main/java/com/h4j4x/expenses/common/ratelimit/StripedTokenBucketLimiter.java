@@ -0,0 +1,145 @@
+package com.h4j4x.expenses.common.ratelimit;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token bucket rate limiter keyed by an arbitrary value. Buckets are spread over a fixed number of
+ * independently locked stripes, each one holding a bounded LRU map, so memory stays capped no matter
+ * how many distinct keys are seen and contention is limited to keys sharing a stripe.
+ *
+ * @param <K> key type.
+ */
+public class StripedTokenBucketLimiter<K> {
+    private static final int DEFAULT_STRIPES = 16;
+
+    private final double capacity;
+
+    private final double tokensPerMilli;
+
+    private final Clock clock;
+
+    private final List<Stripe<K>> stripes;
+
+    private final LongAdder rejections = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    public StripedTokenBucketLimiter(int capacity, Duration refillPeriod, int maxKeys) {
+        this(capacity, refillPeriod, maxKeys, DEFAULT_STRIPES, Clock.systemUTC());
+    }
+
+    /**
+     * Creates a limiter.
+     *
+     * @param capacity     bucket size, that is, the allowed burst per key.
+     * @param refillPeriod time to refill a whole bucket.
+     * @param maxKeys      max number of tracked keys across all stripes.
+     * @param stripes      number of stripes, rounded up to a power of two.
+     * @param clock        time source.
+     */
+    public StripedTokenBucketLimiter(int capacity, Duration refillPeriod, int maxKeys, int stripes, Clock clock) {
+        if (capacity <= 0 || maxKeys <= 0 || stripes <= 0) {
+            throw new IllegalArgumentException("Limiter capacity, max keys and stripes must be positive");
+        }
+        if (refillPeriod.isNegative() || refillPeriod.isZero()) {
+            throw new IllegalArgumentException("Limiter refill period must be positive");
+        }
+        this.capacity = capacity;
+        this.tokensPerMilli = (double) capacity / refillPeriod.toMillis();
+        this.clock = clock;
+        var stripeCount = Integer.highestOneBit(Math.min(stripes, maxKeys));
+        if (stripeCount < Math.min(stripes, maxKeys)) {
+            stripeCount <<= 1;
+        }
+        var stripeMaxKeys = Math.max(1, maxKeys / stripeCount);
+        var stripeList = new ArrayList<Stripe<K>>(stripeCount);
+        for (int i = 0; i < stripeCount; i++) {
+            stripeList.add(new Stripe<>(stripeMaxKeys, evictions));
+        }
+        this.stripes = List.copyOf(stripeList);
+    }
+
+    /**
+     * Takes a token from the key bucket.
+     *
+     * @param key bucket key.
+     * @return {@literal true} if a token was available, {@literal false} if the key is throttled.
+     */
+    public boolean tryAcquire(K key) {
+        var stripe = stripes.get(spread(key.hashCode()) & (stripes.size() - 1));
+        var now = clock.millis();
+        synchronized (stripe) {
+            var bucket = stripe.buckets.get(key);
+            if (bucket == null) {
+                bucket = new Bucket(capacity, now);
+                stripe.buckets.put(key, bucket);
+            } else {
+                var elapsed = Math.max(0, now - bucket.refilledAt);
+                bucket.tokens = Math.min(capacity, bucket.tokens + elapsed * tokensPerMilli);
+                bucket.refilledAt = now;
+            }
+            if (bucket.tokens >= 1) {
+                bucket.tokens -= 1;
+                return true;
+            }
+        }
+        rejections.increment();
+        return false;
+    }
+
+    public int size() {
+        var size = 0;
+        for (var stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.buckets.size();
+            }
+        }
+        return size;
+    }
+
+    public long rejectionCount() {
+        return rejections.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static class Bucket {
+        private double tokens;
+
+        private long refilledAt;
+
+        private Bucket(double tokens, long refilledAt) {
+            this.tokens = tokens;
+            this.refilledAt = refilledAt;
+        }
+    }
+
+    private static class Stripe<K> {
+        private final Map<K, Bucket> buckets;
+
+        private Stripe(int maxKeys, LongAdder evictions) {
+            this.buckets = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, Bucket> eldest) {
+                    if (size() > maxKeys) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+    }
+}
@@ -31,4 +31,14 @@ public interface StringHasher {
      * @throws GeneralSecurityException
      */
     boolean match(String string, String salt, String hash) throws GeneralSecurityException;
+
+    /**
+     * Validates if hash was produced with weaker parameters than the current ones.
+     *
+     * @param hash hashed value to check.
+     * @return {@literal true} if value should be hashed again, {@literal false} otherwise.
+     */
+    default boolean needsRehash(String hash) {
+        return false;
+    }
 }
@@ -1,16 +1,27 @@
 package com.h4j4x.expenses.common.security.impl;
 
 import com.h4j4x.expenses.common.security.StringHasher;
-import java.math.BigInteger;
+import com.h4j4x.expenses.common.util.HexUtils;
+import com.h4j4x.expenses.common.util.NumberUtils;
+import java.nio.charset.StandardCharsets;
 import java.security.GeneralSecurityException;
 import java.security.SecureRandom;
-import javax.crypto.SecretKeyFactory;
-import javax.crypto.spec.PBEKeySpec;
+import java.util.Arrays;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
 
+/**
+ * PBKDF2 with HMAC-SHA1 hasher. Produces the same output as {@code PBKDF2WithHmacSHA1} from
+ * {@link javax.crypto.SecretKeyFactory}, but reuses one {@link Mac} per thread instead of
+ * resolving the algorithm provider on every call.
+ */
 public class PBKDF2StringHasher implements StringHasher {
-    private static final String ALGORITHM = "PBKDF2WithHmacSHA1";
+    private static final String MAC_ALGORITHM = "HmacSHA1";
     private static final String SEPARATOR = ":";
-    private static final int RADIX = 16;
+    private static final int SALT_LENGTH = 16;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final ThreadLocal<Mac> MACS = new ThreadLocal<>();
 
     private final Integer iterations;
 
@@ -23,29 +34,15 @@ public class PBKDF2StringHasher implements StringHasher {
 
     @Override
     public String salt() {
-        SecureRandom random = new SecureRandom();
-        var salt = new byte[16];
-        random.nextBytes(salt);
-        return toHex(salt);
+        var salt = new byte[SALT_LENGTH];
+        RANDOM.nextBytes(salt);
+        return HexUtils.toHex(salt);
     }
 
     @Override
     public String hash(String string, String salt) throws GeneralSecurityException {
-        var saltBytes = fromHex(salt);
-        var spec = new PBEKeySpec(string.toCharArray(), saltBytes, iterations, keyLength);
-        var factory = SecretKeyFactory.getInstance(ALGORITHM);
-        var hash = factory.generateSecret(spec).getEncoded();
-        return iterations + SEPARATOR + toHex(hash);
-    }
-
-    private String toHex(byte[] array) {
-        var bi = new BigInteger(1, array);
-        var hex = bi.toString(RADIX);
-        var paddingLength = (array.length * 2) - hex.length();
-        if (paddingLength > 0) {
-            return String.format("%0" + paddingLength + "d", 0) + hex;
-        }
-        return hex;
+        var hash = derive(string, HexUtils.fromHex(salt), iterations, keyLength / 8);
+        return iterations + SEPARATOR + HexUtils.toHex(hash);
     }
 
     @Override
@@ -58,11 +55,8 @@ public class PBKDF2StringHasher implements StringHasher {
             return false;
         }
         var iterations = Integer.parseInt(parts[0]);
-        var hashBytes = fromHex(parts[1]);
-        var saltBytes = fromHex(salt);
-        var spec = new PBEKeySpec(string.toCharArray(), saltBytes, iterations, hashBytes.length * 8);
-        var skf = SecretKeyFactory.getInstance(ALGORITHM);
-        var testHash = skf.generateSecret(spec).getEncoded();
+        var hashBytes = HexUtils.fromHex(parts[1]);
+        var testHash = derive(string, HexUtils.fromHex(salt), iterations, hashBytes.length);
 
         var diff = hashBytes.length ^ testHash.length;
         for (int i = 0; i < hashBytes.length && i < testHash.length; i++) {
@@ -71,11 +65,79 @@ public class PBKDF2StringHasher implements StringHasher {
         return diff == 0;
     }
 
-    private byte[] fromHex(String hex) {
-        byte[] bytes = new byte[hex.length() / 2];
-        for (int i = 0; i < bytes.length; i++) {
-            bytes[i] = (byte) Integer.parseInt(hex.substring(2 * i, 2 * i + 2), RADIX);
+    @Override
+    public boolean needsRehash(String hash) {
+        if (hash == null) {
+            return false;
+        }
+        var parts = hash.split(SEPARATOR);
+        if (parts.length != 2) {
+            return true;
+        }
+        var hashIterations = NumberUtils.parseLong(parts[0]);
+        return hashIterations == null || hashIterations < iterations || parts[1].length() * 4 != keyLength;
+    }
+
+    public Integer getIterations() {
+        return iterations;
+    }
+
+    private static byte[] derive(String string, byte[] salt, int iterations, int length)
+        throws GeneralSecurityException {
+        var password = string.getBytes(StandardCharsets.UTF_8);
+        var mac = mac();
+        mac.init(new PasswordKey(password));
+        var macLength = mac.getMacLength();
+        var derived = new byte[length];
+        var block = new byte[macLength];
+        var u = new byte[macLength];
+        var blockIndex = new byte[4];
+        for (int offset = 0, index = 1; offset < length; offset += macLength, index++) {
+            blockIndex[0] = (byte) (index >>> 24);
+            blockIndex[1] = (byte) (index >>> 16);
+            blockIndex[2] = (byte) (index >>> 8);
+            blockIndex[3] = (byte) index;
+            mac.update(salt);
+            mac.update(blockIndex);
+            mac.doFinal(u, 0);
+            System.arraycopy(u, 0, block, 0, macLength);
+            for (int i = 1; i < iterations; i++) {
+                mac.update(u);
+                mac.doFinal(u, 0);
+                for (int j = 0; j < macLength; j++) {
+                    block[j] ^= u[j];
+                }
+            }
+            System.arraycopy(block, 0, derived, offset, Math.min(macLength, length - offset));
+        }
+        Arrays.fill(password, (byte) 0);
+        return derived;
+    }
+
+    private static Mac mac() throws GeneralSecurityException {
+        var mac = MACS.get();
+        if (mac == null) {
+            mac = Mac.getInstance(MAC_ALGORITHM);
+            MACS.set(mac);
+        }
+        return mac;
+    }
+
+    // raw key that, unlike SecretKeySpec, accepts an empty password as PBKDF2WithHmacSHA1 does
+    private record PasswordKey(byte[] encoded) implements SecretKey {
+        @Override
+        public String getAlgorithm() {
+            return MAC_ALGORITHM;
+        }
+
+        @Override
+        public String getFormat() {
+            return "RAW";
+        }
+
+        @Override
+        public byte[] getEncoded() {
+            return encoded.clone();
         }
-        return bytes;
     }
 }
@@ -0,0 +1,73 @@
+package com.h4j4x.expenses.common.util;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a stream of byte chunks into UTF-8 tokens ended by a delimiter byte, keeping only the current
+ * partial token in memory. The delimiter must be a single byte character, so it never splits a multibyte one.
+ * Not thread safe.
+ */
+public class ChunkSplitter {
+    private final byte delimiter;
+
+    private final int maxTokenLength;
+
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+
+    public ChunkSplitter(char delimiter, int maxTokenLength) {
+        if (delimiter > 0x7f) {
+            throw new IllegalArgumentException("Delimiter must be an ASCII character");
+        }
+        this.delimiter = (byte) delimiter;
+        this.maxTokenLength = maxTokenLength;
+    }
+
+    /**
+     * Adds a chunk.
+     *
+     * @param chunk next bytes.
+     * @return tokens completed by the chunk, without delimiter.
+     * @throws TokenTooLongException if a token grows over the max length.
+     */
+    public List<String> feed(byte[] chunk) {
+        var tokens = new ArrayList<String>();
+        var start = 0;
+        for (int i = 0; i < chunk.length; i++) {
+            if (chunk[i] == delimiter) {
+                append(chunk, start, i - start);
+                tokens.add(drain());
+                start = i + 1;
+            }
+        }
+        append(chunk, start, chunk.length - start);
+        return tokens;
+    }
+
+    /**
+     * Ends the stream.
+     *
+     * @return the last token if the stream did not end with the delimiter, {@literal null} otherwise.
+     */
+    public String finish() {
+        if (pending.size() == 0) {
+            return null;
+        }
+        return drain();
+    }
+
+    private void append(byte[] chunk, int offset, int length) {
+        if (pending.size() + length > maxTokenLength) {
+            throw new TokenTooLongException("Token longer than " + maxTokenLength + " bytes");
+        }
+        pending.write(chunk, offset, length);
+    }
+
+    private String drain() {
+        var token = pending.toString(StandardCharsets.UTF_8);
+        pending.reset();
+        return token;
+    }
+}
@@ -0,0 +1,42 @@
+package com.h4j4x.expenses.common.util;
+
+import java.util.Arrays;
+
+public class HexUtils {
+    private static final char[] DIGITS = "0123456789abcdef".toCharArray();
+    private static final byte[] VALUES = new byte[128];
+
+    static {
+        Arrays.fill(VALUES, (byte) -1);
+        for (int i = 0; i < DIGITS.length; i++) {
+            VALUES[DIGITS[i]] = (byte) i;
+            VALUES[Character.toUpperCase(DIGITS[i])] = (byte) i;
+        }
+    }
+
+    public static String toHex(byte[] bytes) {
+        var chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            var value = bytes[i] & 0xFF;
+            chars[2 * i] = DIGITS[value >>> 4];
+            chars[2 * i + 1] = DIGITS[value & 0x0F];
+        }
+        return new String(chars);
+    }
+
+    public static byte[] fromHex(String hex) {
+        var bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) ((digit(hex.charAt(2 * i)) << 4) | digit(hex.charAt(2 * i + 1)));
+        }
+        return bytes;
+    }
+
+    private static int digit(char c) {
+        var value = c < VALUES.length ? VALUES[c] : -1;
+        if (value < 0) {
+            throw new IllegalArgumentException("Invalid hex character: " + c);
+        }
+        return value;
+    }
+}
@@ -1,6 +1,10 @@
 package com.h4j4x.expenses.common.util;
 
 public class StringUtils {
+    public static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
     public static boolean isNotBlank(String value) {
         return value != null && !value.isBlank();
     }
@@ -0,0 +1,12 @@
+package com.h4j4x.expenses.common.util;
+
+/**
+ * A token grew over the max length of its {@link ChunkSplitter}.
+ */
+public class TokenTooLongException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public TokenTooLongException(String message) {
+        super(message);
+    }
+}
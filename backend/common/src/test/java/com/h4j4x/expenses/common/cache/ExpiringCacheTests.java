@@ -0,0 +1,91 @@
+package com.h4j4x.expenses.common.cache;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExpiringCacheTests {
+    @Test
+    public void whenGetCachedValue_Then_ShouldCountHit() {
+        var cache = new ExpiringCache<String, String>(10, Duration.ofMinutes(1));
+        cache.put("key", "value");
+
+        assertEquals("value", cache.get("key"));
+        assertNull(cache.get("other"));
+        assertEquals(1L, cache.hitCount());
+        assertEquals(1L, cache.missCount());
+    }
+
+    @Test
+    public void whenCacheIsFull_Then_ShouldEvictLeastRecentlyUsed() {
+        var cache = new ExpiringCache<String, String>(2, Duration.ofMinutes(1));
+        cache.put("first", "1");
+        cache.put("second", "2");
+        cache.get("first");
+        cache.put("third", "3");
+
+        assertEquals(2, cache.size());
+        assertEquals("1", cache.get("first"));
+        assertNull(cache.get("second"));
+        assertEquals("3", cache.get("third"));
+        assertEquals(1L, cache.evictionCount());
+    }
+
+    @Test
+    public void whenValueExpires_Then_ShouldGetNothing() {
+        var clock = new MutableClock();
+        var cache = new ExpiringCache<String, String>(10, Duration.ofSeconds(10), clock);
+        cache.put("key", "value");
+        cache.put("short", "value", clock.instant().plusSeconds(2));
+
+        clock.advance(Duration.ofSeconds(5));
+        assertNull(cache.get("short"));
+        assertEquals("value", cache.get("key"));
+
+        clock.advance(Duration.ofSeconds(5));
+        assertNull(cache.get("key"));
+        assertEquals(0, cache.size());
+        assertEquals(2L, cache.evictionCount());
+    }
+
+    @Test
+    public void whenInvalidateValue_Then_ShouldGetNothing() {
+        var cache = new ExpiringCache<String, String>(10, Duration.ofMinutes(1));
+        cache.put("key", "value");
+        cache.put("other", "value");
+
+        cache.invalidate("key");
+        assertNull(cache.get("key"));
+        assertEquals("value", cache.get("other"));
+
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant = Instant.now();
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
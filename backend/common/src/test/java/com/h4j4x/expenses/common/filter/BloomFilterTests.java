@@ -0,0 +1,47 @@
+package com.h4j4x.expenses.common.filter;
+
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BloomFilterTests {
+    @Test
+    public void whenValueIsAdded_Then_ShouldMightContainIt() {
+        var filter = new BloomFilter(1000, 0.01);
+        var values = new String[1000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = UUID.randomUUID().toString();
+            filter.put(values[i]);
+        }
+
+        for (String value : values) {
+            assertTrue(filter.mightContain(value));
+        }
+    }
+
+    @Test
+    public void whenValueIsNotAdded_Then_ShouldKeepFalsePositivesLow() {
+        var filter = new BloomFilter(1000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            filter.put(UUID.randomUUID().toString());
+        }
+
+        var falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (filter.mightContain(UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+    }
+
+    @Test
+    public void whenCreateFilter_Then_ShouldSizeFromExpectedInsertions() {
+        var filter = new BloomFilter(1000, 0.01);
+
+        assertTrue(filter.bitSize() >= 9586);
+        assertEquals(filter.bitSize() / 8, filter.memoryBytes());
+        assertTrue(filter.hashCount() >= 6 && filter.hashCount() <= 8);
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(1000, 1));
+    }
+}
@@ -0,0 +1,49 @@
+package com.h4j4x.expenses.common.money;
+
+import java.math.BigDecimal;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoneyTests {
+    @Test
+    public void whenToMinorUnits_Then_ShouldConvertBack() {
+        var minorUnits = Money.toMinorUnits(new BigDecimal("123456789.99"), "usd");
+
+        assertEquals(12345678999L, minorUnits);
+        assertEquals(new BigDecimal("123456789.99"), Money.of(minorUnits, "usd").toDecimal());
+    }
+
+    @Test
+    public void whenToMinorUnits_WithExtraDigits_Then_ShouldRoundHalfUp() {
+        assertEquals(1001L, Money.toMinorUnits(new BigDecimal("10.005"), "usd"));
+        assertEquals(-1001L, Money.toMinorUnits(new BigDecimal("-10.005"), "usd"));
+        assertEquals(0L, Money.toMinorUnits(null, "usd"));
+    }
+
+    @Test
+    public void whenCurrencyHasOtherFractionDigits_Then_ShouldUseThem() {
+        assertEquals(1500L, Money.toMinorUnits(new BigDecimal("1500"), "JPY"));
+        assertEquals(1500L, Money.toMinorUnits(new BigDecimal("1.5"), "kwd"));
+        assertEquals(150L, Money.toMinorUnits(new BigDecimal("1.5"), "not-a-currency"));
+        assertEquals(new BigDecimal("1500"), Money.of(1500L, "jpy").toDecimal());
+        assertEquals(0, Money.fractionDigits("JPY"));
+        assertEquals(3, Money.fractionDigits("kwd"));
+        assertEquals(2, Money.fractionDigits("not-a-currency"));
+    }
+
+    @Test
+    public void whenGetCurrencyCode_Then_ShouldBeInterned() {
+        var code = Money.currencyCode("USD");
+
+        assertEquals("usd", code);
+        assertSame(code, Money.currencyCode(new String("usd")));
+        assertSame(code, Money.of(1L, " Usd ").getCurrency());
+    }
+
+    @Test
+    public void whenCompareMoney_Then_ShouldUseMinorUnits() {
+        assertEquals(Money.of(250L, "usd"), Money.of(Money.toMinorUnits(new BigDecimal("2.5"), "USD"), "usd"));
+        assertNotEquals(Money.of(250L, "usd"), Money.of(250L, "eur"));
+        assertEquals("-2.50 usd", Money.of(-250L, "usd").toString());
+    }
+}
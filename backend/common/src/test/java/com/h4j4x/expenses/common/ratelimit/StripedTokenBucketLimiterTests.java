@@ -0,0 +1,74 @@
+package com.h4j4x.expenses.common.ratelimit;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StripedTokenBucketLimiterTests {
+    @Test
+    public void whenBucketIsEmpty_Then_ShouldReject() {
+        var limiter = new StripedTokenBucketLimiter<String>(2, Duration.ofMinutes(1), 10);
+
+        assertTrue(limiter.tryAcquire("key"));
+        assertTrue(limiter.tryAcquire("key"));
+        assertFalse(limiter.tryAcquire("key"));
+        assertTrue(limiter.tryAcquire("other"));
+        assertEquals(1L, limiter.rejectionCount());
+    }
+
+    @Test
+    public void whenTimePasses_Then_ShouldRefillBucket() {
+        var clock = new MutableClock();
+        var limiter = new StripedTokenBucketLimiter<String>(2, Duration.ofSeconds(10), 10, 4, clock);
+        assertTrue(limiter.tryAcquire("key"));
+        assertTrue(limiter.tryAcquire("key"));
+        assertFalse(limiter.tryAcquire("key"));
+
+        clock.advance(Duration.ofSeconds(5));
+        assertTrue(limiter.tryAcquire("key"));
+        assertFalse(limiter.tryAcquire("key"));
+
+        clock.advance(Duration.ofMinutes(5));
+        assertTrue(limiter.tryAcquire("key"));
+        assertTrue(limiter.tryAcquire("key"));
+        assertFalse(limiter.tryAcquire("key"));
+    }
+
+    @Test
+    public void whenManyKeys_Then_ShouldKeepMemoryBounded() {
+        var limiter = new StripedTokenBucketLimiter<Integer>(1, Duration.ofMinutes(1), 64, 8, Clock.systemUTC());
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(limiter.tryAcquire(i));
+        }
+
+        assertTrue(limiter.size() <= 64);
+        assertEquals(1000L - limiter.size(), limiter.evictionCount());
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant = Instant.now();
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
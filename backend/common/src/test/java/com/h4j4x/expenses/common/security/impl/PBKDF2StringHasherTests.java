@@ -6,6 +6,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestFactory;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -24,6 +25,43 @@ public class PBKDF2StringHasherTests {
         return tests;
     }
 
+    @Test
+    void testHashIsCompatibleWithStoredHashes() throws Exception {
+        StringHasher stringHasher = new PBKDF2StringHasher(512, 128);
+        assertEquals("512:16eac3d8e1b707863890232befb4af19",
+            stringHasher.hash("password", "000102030405060708090a0b0c0d0e0f"));
+        assertEquals("512:c8da3a47b9175479ce68a4af3baeace3",
+            stringHasher.hash("s3cr3t-\u00f1", "00ff00ff00ff00ff00ff00ff00ff00ff"));
+        assertTrue(stringHasher.match("", "0000000000000000000000000000000a",
+            "1000:468e3e88d536faf829fd829ed52b65e5c5748e697fdf3f3c301aba272a34968b"));
+        assertEquals("1000:468e3e88d536faf829fd829ed52b65e5c5748e697fdf3f3c301aba272a34968b",
+            new PBKDF2StringHasher(1000, 256).hash("", "0000000000000000000000000000000a"));
+    }
+
+    @Test
+    void testSaltIsRandomHex() {
+        StringHasher stringHasher = new PBKDF2StringHasher(512, 128);
+        var salt = stringHasher.salt();
+        assertEquals(32, salt.length());
+        assertTrue(salt.matches("[0-9a-f]+"));
+        assertNotEquals(salt, stringHasher.salt());
+    }
+
+    @Test
+    void testNeedsRehashWithWeakerIterations() throws Exception {
+        var weakHasher = new PBKDF2StringHasher(512, 128);
+        var strongHasher = new PBKDF2StringHasher(1024, 128);
+        var salt = weakHasher.salt();
+        var weakHash = weakHasher.hash("password", salt);
+        var strongHash = strongHasher.hash("password", salt);
+
+        assertTrue(strongHasher.needsRehash(weakHash));
+        assertFalse(strongHasher.needsRehash(strongHash));
+        assertFalse(weakHasher.needsRehash(strongHash));
+        assertTrue(new PBKDF2StringHasher(1024, 256).needsRehash(strongHash));
+        assertTrue(strongHasher.match("password", salt, weakHash));
+    }
+
     private DynamicTest testHashing(StringHasher stringHasher, String string, String salt) {
         return DynamicTest.dynamicTest("Test " + string + " hash",
             () -> {
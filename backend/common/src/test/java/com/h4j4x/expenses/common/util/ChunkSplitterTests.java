@@ -0,0 +1,41 @@
+package com.h4j4x.expenses.common.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChunkSplitterTests {
+    @Test
+    public void whenTokensSpanChunks_Then_ShouldJoinThem() {
+        var splitter = new ChunkSplitter('\n', 64);
+        var bytes = "first,1\nsecond,ñandú\nlast".getBytes(StandardCharsets.UTF_8);
+        List<String> tokens = new ArrayList<>();
+        // one byte chunks also split the multibyte characters
+        for (byte b : bytes) {
+            tokens.addAll(splitter.feed(new byte[]{b}));
+        }
+        tokens.add(splitter.finish());
+
+        assertEquals(List.of("first,1", "second,ñandú", "last"), tokens);
+    }
+
+    @Test
+    public void whenStreamEndsWithDelimiter_Then_ShouldHaveNoLastToken() {
+        var splitter = new ChunkSplitter('<', 64);
+
+        assertEquals(List.of("", "A>1", "B>2"), splitter.feed("<A>1<B>2<".getBytes(StandardCharsets.UTF_8)));
+        assertNull(splitter.finish());
+    }
+
+    @Test
+    public void whenTokenIsTooLong_Then_ShouldFail() {
+        var splitter = new ChunkSplitter('\n', 4);
+        var chunk = new byte[5];
+        Arrays.fill(chunk, (byte) 'a');
+
+        assertThrows(TokenTooLongException.class, () -> splitter.feed(chunk));
+    }
+}
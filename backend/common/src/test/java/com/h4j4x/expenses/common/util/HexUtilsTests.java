@@ -0,0 +1,44 @@
+package com.h4j4x.expenses.common.util;
+
+import com.github.javafaker.Faker;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HexUtilsTests {
+    private final Faker faker = new Faker(new Locale("en-US"));
+
+    @TestFactory
+    List<DynamicTest> whenEncodeAndDecode_Then_ShouldGetSameBytes() {
+        List<DynamicTest> tests = new ArrayList<>();
+        for (int i = 10; i <= 100; i += 10) {
+            var hex = faker.random().hex(i).toLowerCase();
+            tests.add(encodeAndDecode(hex));
+        }
+        return tests;
+    }
+
+    private DynamicTest encodeAndDecode(String hex) {
+        return DynamicTest.dynamicTest("Test HexUtils " + hex,
+            () -> {
+                var bytes = HexUtils.fromHex(hex);
+                assertEquals(hex.length() / 2, bytes.length);
+                assertEquals(hex, HexUtils.toHex(bytes));
+                assertArrayEquals(bytes, HexUtils.fromHex(hex.toUpperCase()));
+            });
+    }
+
+    @Test
+    public void whenEncodeLeadingZeros_Then_ShouldKeepPadding() {
+        assertEquals("000f10ff", HexUtils.toHex(new byte[]{0, 15, 16, (byte) 255}));
+    }
+
+    @Test
+    public void whenDecodeInvalidHex_Then_ShouldThrowError() {
+        assertThrows(IllegalArgumentException.class, () -> HexUtils.fromHex("zz"));
+    }
+}
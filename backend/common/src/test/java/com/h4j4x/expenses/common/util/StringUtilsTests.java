@@ -14,6 +14,15 @@ public class StringUtilsTests {
         assertEquals("second", StringUtils.firstNotBlank("", " ", "second"));
     }
 
+    @Test
+    public void testIsBlank() {
+        assertTrue(StringUtils.isBlank(null));
+        assertTrue(StringUtils.isBlank(""));
+        assertTrue(StringUtils.isBlank(" "));
+        assertTrue(StringUtils.isBlank("    "));
+        assertFalse(StringUtils.isBlank("a"));
+    }
+
     @Test
     public void testIsNotBlank() {
         assertFalse(StringUtils.isNotBlank(null));